@@ -58,12 +58,12 @@ public class _ErlangLexer implements FlexLexer {
     "\1\10\1\7\1\11\1\12\1\1\6\7\1\13\1\14"+
     "\1\15\1\16\1\17\1\20\1\21\1\22\5\7\1\23"+
     "\1\24\1\25\1\26\1\27\1\30\1\7\1\31\1\32"+
-    "\1\33\1\34\1\35\1\7\1\0\1\36\1\37\1\5"+
+    "\1\33\1\34\1\35\1\7\1\1\1\36\1\37\1\5"+
     "\1\40\1\0\1\10\1\0\1\7\1\41\1\42\1\43"+
     "\2\0\1\44\14\7\2\20\1\45\1\0\1\46\1\47"+
     "\1\0\3\7\1\50\1\51\1\52\1\7\1\53\1\54"+
     "\1\55\1\56\1\57\1\60\1\61\1\62\1\63\1\7"+
-    "\1\64\1\0\1\40\1\65\2\10\1\66\1\67\1\70"+
+    "\1\64\2\0\1\40\1\65\2\10\1\66\1\67\1\70"+
     "\2\7\1\71\1\72\1\7\1\73\1\7\1\74\1\75"+
     "\1\76\1\7\1\77\1\100\1\20\1\0\1\101\1\102"+
     "\1\7\1\103\4\7\1\104\1\0\1\7\1\105\1\106"+
@@ -72,7 +72,7 @@ public class _ErlangLexer implements FlexLexer {
     "\1\115\1\116\1\117";
 
   private static int [] zzUnpackAction() {
-    int [] result = new int[156];
+    int [] result = new int[157];
     int offset = 0;
     offset = zzUnpackAction(ZZ_ACTION_PACKED_0, offset, result);
     return result;
@@ -109,17 +109,17 @@ public class _ErlangLexer implements FlexLexer {
     "\0\170\0\170\0\u0d20\0\170\0\u0d5c\0\170\0\170\0\u0d98"+
     "\0\u0dd4\0\u0e10\0\u0e4c\0\u01a4\0\u01a4\0\u0e88\0\u0ec4\0\170"+
     "\0\170\0\170\0\170\0\170\0\170\0\170\0\170\0\170"+
-    "\0\u0f00\0\170\0\u0f3c\0\u0f78\0\u0fb4\0\u0924\0\u0ff0\0\u102c"+
-    "\0\u01a4\0\170\0\u1068\0\u10a4\0\u01a4\0\u01a4\0\u10e0\0\u01a4"+
-    "\0\u111c\0\u01a4\0\u01a4\0\u01a4\0\u1158\0\u01a4\0\u01a4\0\u1194"+
-    "\0\u11d0\0\170\0\170\0\u120c\0\u1248\0\u1284\0\u12c0\0\u12fc"+
-    "\0\u1338\0\u01a4\0\u1374\0\u13b0\0\u01a4\0\u01a4\0\u01a4\0\u13ec"+
-    "\0\u1428\0\u1464\0\u14a0\0\u01a4\0\u14dc\0\u01a4\0\u1518\0\u1554"+
-    "\0\u1554\0\u01a4\0\u1590\0\u01a4\0\u15cc\0\u1608\0\u01a4\0\u1644"+
-    "\0\u1680\0\u01a4\0\u01a4\0\u01a4";
+    "\0\u0f00\0\170\0\u0834\0\u0f3c\0\u0f78\0\u0fb4\0\u0924\0\u0ff0"+
+    "\0\u102c\0\u01a4\0\170\0\u1068\0\u10a4\0\u01a4\0\u01a4\0\u10e0"+
+    "\0\u01a4\0\u111c\0\u01a4\0\u01a4\0\u01a4\0\u1158\0\u01a4\0\u01a4"+
+    "\0\u1194\0\u11d0\0\170\0\170\0\u120c\0\u1248\0\u1284\0\u12c0"+
+    "\0\u12fc\0\u1338\0\u01a4\0\u1374\0\u13b0\0\u01a4\0\u01a4\0\u01a4"+
+    "\0\u13ec\0\u1428\0\u1464\0\u14a0\0\u01a4\0\u14dc\0\u01a4\0\u1518"+
+    "\0\u1554\0\u1554\0\u01a4\0\u1590\0\u01a4\0\u15cc\0\u1608\0\u01a4"+
+    "\0\u1644\0\u1680\0\u01a4\0\u01a4\0\u01a4";
 
   private static int [] zzUnpackRowMap() {
-    int [] result = new int[156];
+    int [] result = new int[157];
     int offset = 0;
     offset = zzUnpackRowMap(ZZ_ROWMAP_PACKED_0, offset, result);
     return result;
@@ -345,13 +345,13 @@ public class _ErlangLexer implements FlexLexer {
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 97, -1, -1, 
     45, 45, 45, 45, 45, 45, 45, 45, 45, 45, 
-    45, 45, 45, 45, 46, 45, 45, 45, 45, 45, 
+    45, 45, 45, 45, 98, 45, 45, 45, 45, 45, 
     45, 45, 45, 45, 45, 45, 45, -1, 45, 45, 
     45, 45, 45, 45, 45, 45, 45, 45, 45, 45, 
     45, 45, 45, 45, 45, 45, 45, 45, 45, 45, 
     45, 45, 45, 45, 45, 45, 45, 45, 45, 45, 
     -1, -1, -1, -1, -1, 45, -1, -1, -1, -1, 
-    -1, 45, -1, 45, 45, 45, -1, 98, 45, 45, 
+    -1, 45, -1, 45, 45, 45, -1, 99, 45, 45, 
     45, 45, 45, 45, 45, 45, 45, 45, 45, 45, 
     45, 45, 45, 45, 45, 45, 45, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
@@ -368,38 +368,38 @@ public class _ErlangLexer implements FlexLexer {
     49, 49, 49, 49, 49, 49, 49, 49, 49, 49, 
     49, 49, 49, 49, 49, 49, 49, 49, 49, 49, 
     49, 49, 49, 49, 49, 49, 49, 49, 49, 49, 
-    99, 99, 99, 99, -1, 100, -1, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    -1, -1, -1, -1, -1, -1, -1, 101, 101, 101, 
-    101, 101, -1, -1, -1, 101, -1, -1, -1, 101, 
-    101, 101, 101, 101, 101, 101, 101, -1, -1, -1, 
-    -1, -1, -1, -1, -1, -1, -1, 101, 101, 101, 
-    101, 101, 101, 101, 101, 101, -1, -1, -1, -1, 
-    -1, -1, 101, 101, 101, -1, -1, -1, -1, -1, 
-    -1, -1, 51, -1, -1, -1, -1, -1, -1, 102, 
-    -1, -1, -1, 53, -1, 102, -1, -1, -1, -1, 
+    100, 100, 100, 100, -1, 101, -1, 100, 100, 100, 
+    100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
+    100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
+    100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
+    100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
+    100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
+    -1, -1, -1, -1, -1, -1, -1, 102, 102, 102, 
+    102, 102, -1, -1, -1, 102, -1, -1, -1, 102, 
+    102, 102, 102, 102, 102, 102, 102, -1, -1, -1, 
+    -1, -1, -1, -1, -1, -1, -1, 102, 102, 102, 
+    102, 102, 102, 102, 102, 102, -1, -1, -1, -1, 
+    -1, -1, 102, 102, 102, -1, -1, -1, -1, -1, 
+    -1, -1, 51, -1, -1, -1, -1, -1, -1, 103, 
+    -1, -1, -1, 53, -1, 103, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
-    -1, -1, -1, -1, -1, -1, -1, -1, -1, 103, 
-    -1, -1, -1, -1, -1, 103, -1, -1, -1, -1, 
+    -1, -1, -1, -1, -1, -1, -1, -1, -1, 104, 
+    -1, -1, -1, -1, -1, 104, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    104, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
+    105, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
-    -1, -1, -1, 105, -1, -1, -1, -1, -1, -1, 
+    -1, -1, -1, 106, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
@@ -414,29 +414,29 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    106, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
+    107, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    8, 8, 107, 8, 8, 8, -1, -1, -1, -1, 
+    8, 8, 108, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 108, 8, 8, 8, -1, -1, -1, 
+    8, 8, 8, 109, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
-    -1, -1, 8, 8, 109, -1, -1, -1, -1, -1, 
+    -1, -1, 8, 8, 110, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 110, 8, 8, 8, 8, -1, -1, -1, 
+    8, 8, 111, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 111, 8, 8, 8, -1, -1, -1, 
+    8, 8, 8, 112, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
@@ -444,23 +444,23 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    8, 8, 112, 8, 8, 8, -1, -1, -1, -1, 
+    8, 8, 113, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 8, 8, 8, 113, -1, -1, -1, 
+    8, 8, 8, 8, 8, 8, 114, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 114, 8, 8, 8, 8, -1, -1, -1, 
+    8, 8, 115, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 8, 8, 115, 8, -1, -1, -1, 
+    8, 8, 8, 8, 8, 116, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
@@ -468,16 +468,16 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    8, 8, 8, 116, 8, 8, -1, -1, -1, -1, 
-    -1, -1, 117, 8, 8, -1, -1, -1, -1, -1, 
+    8, 8, 8, 117, 8, 8, -1, -1, -1, -1, 
+    -1, -1, 118, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    8, 8, 8, 8, 8, 118, -1, -1, -1, -1, 
+    8, 8, 8, 8, 8, 119, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, 73, -1, -1, -1, 73, 73, -1, -1, -1, 
-    -1, 73, -1, 73, 73, 119, -1, 120, 73, 73, 
+    -1, 73, -1, 73, 73, 120, -1, 121, 73, 73, 
     73, 73, 73, 73, 73, 73, 73, 73, 73, 73, 
     73, 73, 73, 73, 73, 73, 73, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
@@ -485,48 +485,48 @@ public class _ErlangLexer implements FlexLexer {
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
-    -1, -1, -1, -1, 121, -1, -1, -1, -1, -1, 
+    -1, -1, -1, -1, 122, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
-    -1, -1, -1, -1, 122, -1, -1, -1, -1, -1, 
+    -1, -1, -1, -1, 123, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 8, 8, 123, 8, -1, -1, -1, 
+    8, 8, 8, 8, 8, 124, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    124, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
+    125, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
-    8, 125, -1, -1, -1, 8, 8, -1, -1, 8, 
+    8, 126, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
-    8, 126, -1, -1, -1, 8, 8, -1, -1, 8, 
+    8, 127, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 8, 127, 128, 8, -1, -1, -1, 
+    8, 8, 8, 8, 128, 129, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 129, 8, 8, 8, -1, -1, -1, 
+    8, 8, 8, 130, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
@@ -536,26 +536,26 @@ public class _ErlangLexer implements FlexLexer {
     45, -1, -1, -1, -1, -1, 45, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
-    99, 99, 99, 99, -1, 99, -1, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
-    99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 
     100, 100, 100, 100, -1, 100, -1, 100, 100, 100, 
     100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
     100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
     100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
     100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
     100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 
-    -1, -1, -1, -1, -1, -1, -1, -1, -1, 102, 
-    -1, -1, -1, 53, -1, 102, -1, -1, -1, -1, 
+    101, 101, 101, 101, -1, 101, -1, 101, 101, 101, 
+    101, 101, 101, 101, 101, 101, 101, 101, 101, 101, 
+    101, 101, 101, 101, 101, 101, 101, 101, 101, 101, 
+    101, 101, 101, 101, 101, 101, 101, 101, 101, 101, 
+    101, 101, 101, 101, 101, 101, 101, 101, 101, 101, 
+    101, 101, 101, 101, 101, 101, 101, 101, 101, 101, 
+    -1, -1, -1, -1, -1, -1, -1, -1, -1, 103, 
+    -1, -1, -1, 53, -1, 103, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
-    -1, -1, -1, -1, -1, -1, -1, -1, -1, 103, 
-    130, 130, -1, -1, -1, 103, -1, -1, -1, -1, 
+    -1, -1, -1, -1, -1, -1, -1, -1, -1, 104, 
+    131, 131, -1, -1, -1, 104, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
@@ -564,34 +564,34 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    8, 131, 8, 8, 8, 8, -1, -1, -1, -1, 
+    8, 132, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 8, 8, 132, 8, -1, -1, -1, 
+    8, 8, 8, 8, 8, 133, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    133, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
+    134, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 134, 8, 8, 8, -1, -1, -1, 
+    8, 8, 8, 135, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
-    8, 135, -1, -1, -1, 8, 8, -1, -1, 8, 
+    8, 136, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
-    -1, -1, -1, -1, -1, 136, -1, -1, -1, -1, 
+    -1, -1, -1, -1, -1, 137, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
@@ -603,7 +603,7 @@ public class _ErlangLexer implements FlexLexer {
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
-    8, 137, -1, -1, -1, 8, 8, -1, -1, 8, 
+    8, 138, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
@@ -611,12 +611,12 @@ public class _ErlangLexer implements FlexLexer {
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
-    -1, -1, -1, -1, -1, -1, 8, 138, 8, 8, 
+    -1, -1, -1, -1, -1, -1, 8, 139, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 139, 8, 8, 8, 8, -1, -1, -1, 
+    8, 8, 140, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
@@ -625,9 +625,9 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
-    -1, -1, 8, 8, 140, -1, -1, -1, -1, -1, 
+    -1, -1, 8, 8, 141, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
-    8, 141, -1, -1, -1, 8, 8, -1, -1, 8, 
+    8, 142, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
@@ -636,17 +636,17 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    8, 8, 8, 142, 8, 8, -1, -1, -1, -1, 
+    8, 8, 8, 143, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
-    -1, -1, -1, -1, -1, -1, -1, -1, -1, 143, 
-    -1, -1, 144, -1, -1, 143, -1, -1, -1, -1, 
+    -1, -1, -1, -1, -1, -1, -1, -1, -1, 144, 
+    -1, -1, 145, -1, -1, 144, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
-    -1, -1, -1, -1, -1, -1, -1, -1, -1, 144, 
+    -1, -1, -1, -1, -1, -1, -1, -1, -1, 145, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 145, 8, 8, 8, 8, -1, -1, -1, 
+    8, 8, 146, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
@@ -654,7 +654,7 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    8, 146, 8, 8, 8, 8, -1, -1, -1, -1, 
+    8, 147, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, 73, -1, -1, -1, -1, 
@@ -664,7 +664,7 @@ public class _ErlangLexer implements FlexLexer {
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 147, 8, 8, 8, -1, -1, -1, 
+    8, 8, 8, 148, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
@@ -673,45 +673,45 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
-    -1, -1, 8, 8, 148, -1, -1, -1, -1, -1, 
+    -1, -1, 8, 8, 149, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 8, 149, 8, 8, -1, -1, -1, 
+    8, 8, 8, 8, 150, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
-    -1, -1, -1, -1, -1, -1, 8, 8, 8, 150, 
+    -1, -1, -1, -1, -1, -1, 8, 8, 8, 151, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
-    -1, -1, -1, -1, -1, -1, -1, -1, -1, 143, 
-    -1, -1, -1, -1, -1, 143, -1, -1, -1, -1, 
+    -1, -1, -1, -1, -1, -1, -1, -1, -1, 144, 
+    -1, -1, -1, -1, -1, 144, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 8, 8, 8, 151, -1, -1, -1, 
+    8, 8, 8, 8, 8, 8, 152, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
-    8, 8, 8, 8, 152, 8, 8, -1, -1, -1, 
+    8, 8, 8, 8, 153, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
-    8, 153, -1, -1, -1, 8, 8, -1, -1, 8, 
+    8, 154, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, -1, 8, 8, 8, 
-    8, 154, -1, -1, -1, 8, 8, -1, -1, 8, 
+    8, 155, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
     8, 8, 8, 8, 8, 8, -1, -1, -1, -1, 
@@ -720,7 +720,7 @@ public class _ErlangLexer implements FlexLexer {
     8, 8, -1, -1, -1, 8, 8, -1, -1, 8, 
     8, 8, 8, 8, 8, 8, 8, -1, -1, -1, 
     -1, -1, -1, -1, -1, -1, 8, 8, 8, 8, 
-    8, 8, 155, 8, 8, 8, -1, -1, -1, -1, 
+    8, 8, 156, 8, 8, 8, -1, -1, -1, -1, 
     -1, -1, 8, 8, 8, -1, -1, -1, -1, -1, 
   };
 
@@ -746,14 +746,14 @@ public class _ErlangLexer implements FlexLexer {
 
   private static final String ZZ_ATTRIBUTE_PACKED_0 =
     "\2\0\1\11\2\1\1\11\17\1\4\11\2\1\1\11"+
-    "\11\1\1\11\2\1\2\11\1\1\2\11\1\1\1\0"+
-    "\4\1\1\0\1\1\1\0\1\1\2\11\1\1\2\0"+
-    "\1\11\13\1\2\11\1\1\1\11\1\0\2\11\1\0"+
-    "\7\1\11\11\1\1\1\11\1\0\6\1\1\11\16\1"+
-    "\1\0\2\11\7\1\1\0\15\1\1\0\13\1";
+    "\11\1\1\11\2\1\2\11\1\1\2\11\6\1\1\0"+
+    "\1\1\1\0\1\1\2\11\1\1\2\0\1\11\13\1"+
+    "\2\11\1\1\1\11\1\0\2\11\1\0\7\1\11\11"+
+    "\1\1\1\11\2\0\6\1\1\11\16\1\1\0\2\11"+
+    "\7\1\1\0\15\1\1\0\13\1";
 
   private static int [] zzUnpackAttribute() {
-    int [] result = new int[156];
+    int [] result = new int[157];
     int offset = 0;
     offset = zzUnpackAttribute(ZZ_ATTRIBUTE_PACKED_0, offset, result);
     return result;
@@ -25,6 +25,7 @@ import com.intellij.openapi.util.JDOMUtil;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
 import com.intellij.util.CommonProcessors;
 import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
@@ -55,6 +56,7 @@ import org.jetbrains.jps.model.module.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
@@ -63,6 +65,7 @@ import java.util.*;
 public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, ErlangTarget> {
   public static final String DEPENDENCIES_CONFIG_FILE_PATH = "erlang-builder/deps-config.xml";
   public static final String NAME = "erlc";
+  private static final String DIAGNOSTICS_SCRIPT_PATH = "erlang-builder/erlc_diagnostics.escript";
   private static final Logger LOG = Logger.getInstance(ErlangBuilder.class);
 
   public ErlangBuilder() {
@@ -193,7 +196,9 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
                               BuildOutputConsumer outputConsumer,
                               File outputDirectory,
                               boolean isTest) throws ProjectBuildException, IOException {
-    GeneralCommandLine commandLine = getErlcCommandLine(target, context, compilerOptions, outputDirectory, erlangModulePathsToCompile, isTest);
+    File diagnosticsScript = getDiagnosticsScript(context);
+    GeneralCommandLine commandLine = getErlcCommandLine(target, context, compilerOptions, diagnosticsScript, outputDirectory,
+                                                        erlangModulePathsToCompile, isTest);
     Process process;
     try {
       process = commandLine.createProcess();
@@ -201,7 +206,8 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
     catch (ExecutionException e) {
       throw new ProjectBuildException("Failed to launch erlang compiler", e);
     }
-    BaseOSProcessHandler handler = new BaseOSProcessHandler(process, commandLine.getCommandLineString(), Charset.defaultCharset());
+    Charset charset = diagnosticsScript != null ? CharsetToolkit.UTF8_CHARSET : Charset.defaultCharset();
+    BaseOSProcessHandler handler = new BaseOSProcessHandler(process, commandLine.getCommandLineString(), charset);
     ProcessAdapter adapter = new ErlangCompilerProcessAdapter(context, NAME, "");
     handler.addProcessListener(adapter);
     handler.startNotify();
@@ -212,15 +218,21 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
   private static GeneralCommandLine getErlcCommandLine(ErlangTarget target,
                                                        CompileContext context,
                                                        ErlangCompilerOptions compilerOptions,
+                                                       @Nullable File diagnosticsScript,
                                                        File outputDirectory,
                                                        List<String> erlangModulePaths,
                                                        boolean isTest) throws ProjectBuildException {
     GeneralCommandLine commandLine = new GeneralCommandLine();
     JpsModule module = target.getModule();
     JpsSdk<JpsDummyElement> sdk = ErlangTargetBuilderUtil.getSdk(context, module);
-    File executable = JpsErlangSdkType.getByteCodeCompilerExecutable(sdk.getHomePath());
     commandLine.withWorkDirectory(outputDirectory);
-    commandLine.setExePath(executable.getAbsolutePath());
+    if (diagnosticsScript != null) {
+      commandLine.setExePath(JpsErlangSdkType.getScriptInterpreterExecutable(sdk.getHomePath()).getAbsolutePath());
+      commandLine.addParameter(diagnosticsScript.getPath());
+    }
+    else {
+      commandLine.setExePath(JpsErlangSdkType.getByteCodeCompilerExecutable(sdk.getHomePath()).getAbsolutePath());
+    }
     addCodePath(commandLine, module, target, context);
     addParseTransforms(commandLine, module);
     addDebugInfo(commandLine, compilerOptions.myAddDebugInfoEnabled);
@@ -230,6 +242,38 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
     return commandLine;
   }
 
+  /**
+   * The script runs the compiler and prints its warnings and errors in a form which is parsed exactly,
+   * see {@link ErlangCompilerError#createFromDiagnostic(String, String)}.
+   *
+   * @return the script extracted to the build data directory, or null if it couldn't be extracted, in which case erlc is used
+   */
+  @Nullable
+  private static File getDiagnosticsScript(@NotNull CompileContext context) {
+    File dataStorageRoot = context.getProjectDescriptor().dataManager.getDataPaths().getDataStorageRoot();
+    File script = new File(dataStorageRoot, DIAGNOSTICS_SCRIPT_PATH);
+    InputStream inputStream = ErlangBuilder.class.getResourceAsStream("/" + DIAGNOSTICS_SCRIPT_PATH);
+    if (inputStream == null) return null;
+    try {
+      byte[] content = FileUtil.loadBytes(inputStream);
+      if (!script.isFile() || !Arrays.equals(content, FileUtil.loadFileBytes(script))) {
+        FileUtil.writeToFile(script, content);
+      }
+      return script;
+    }
+    catch (IOException e) {
+      LOG.warn("Failed to extract " + DIAGNOSTICS_SCRIPT_PATH, e);
+      return null;
+    }
+    finally {
+      try {
+        inputStream.close();
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+
   private static void addMacroDefinitions(GeneralCommandLine commandLine, boolean isTests) {
     if (isTests) {
       commandLine.addParameters("-DTEST");
@@ -20,6 +20,7 @@ import com.intellij.openapi.compiler.CompilerMessageCategory;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VfsUtilCore;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
@@ -28,16 +29,23 @@ import java.util.regex.Pattern;
 
 public class ErlangCompilerError {
   private static final Pattern COMPILER_MESSAGE_PATTERN = Pattern.compile("^(.+):(\\d+):(\\s*Warning:)?\\s*(.+)$");
+  /**
+   * Prefix of the lines printed by the erlc wrapper script, see erlang-builder/erlc_diagnostics.escript
+   */
+  public static final String DIAGNOSTIC_PREFIX = "##erlc\t";
+  private static final int DIAGNOSTIC_FIELDS_COUNT = 5;
 
   private final String errorMessage;
   private final String url;
   private final int line;
+  private final int column;
   private final CompilerMessageCategory category;
 
-  private ErlangCompilerError(String errorMessage, String url, int line, CompilerMessageCategory category) {
+  private ErlangCompilerError(String errorMessage, String url, int line, int column, CompilerMessageCategory category) {
     this.errorMessage = errorMessage;
     this.url = url;
     this.line = line;
+    this.column = column;
     this.category = category;
   }
 
@@ -53,6 +61,10 @@ public class ErlangCompilerError {
     return line;
   }
 
+  public int getColumn() {
+    return column;
+  }
+
   @Nullable
   public static ErlangCompilerError create(String rootPath, String erlcMessage) {
     Matcher matcher = COMPILER_MESSAGE_PATTERN.matcher(StringUtil.trimTrailing(erlcMessage));
@@ -63,14 +75,78 @@ public class ErlangCompilerError {
     String warning = matcher.group(3);
     String details = matcher.group(4);
 
-    String path = StringUtil.isEmpty(rootPath) ? relativeFilePath : new File(FileUtil.toSystemIndependentName(rootPath), relativeFilePath).getPath();
     int lineNumber = StringUtil.parseInt(line, -1);
     CompilerMessageCategory category = warning != null ? CompilerMessageCategory.WARNING : CompilerMessageCategory.ERROR;
-    assert path != null;
-    return new ErlangCompilerError(details, VfsUtilCore.pathToUrl(path), lineNumber, category);
+    return new ErlangCompilerError(details, getUrl(rootPath, relativeFilePath), lineNumber, -1, category);
+  }
+
+  /**
+   * Parses a line printed by the erlc wrapper script:
+   * <code>##erlc&lt;TAB&gt;error|warning&lt;TAB&gt;file&lt;TAB&gt;line&lt;TAB&gt;column&lt;TAB&gt;message</code>,
+   * where tabs, newlines and backslashes of the file and the message are escaped.
+   *
+   * @return null if the line was not printed by the wrapper script
+   */
+  @Nullable
+  public static ErlangCompilerError createFromDiagnostic(@Nullable String rootPath, @NotNull String diagnostic) {
+    if (!diagnostic.startsWith(DIAGNOSTIC_PREFIX)) return null;
+    int[] fieldStarts = new int[DIAGNOSTIC_FIELDS_COUNT];
+    int fieldStart = DIAGNOSTIC_PREFIX.length();
+    for (int i = 0; i < DIAGNOSTIC_FIELDS_COUNT; i++) {
+      if (i > 0) {
+        int separator = diagnostic.indexOf('\t', fieldStart);
+        if (separator == -1) return null;
+        fieldStart = separator + 1;
+      }
+      fieldStarts[i] = fieldStart;
+    }
+
+    boolean isError = diagnostic.startsWith("error\t", fieldStarts[0]);
+    String path = unescape(diagnostic, fieldStarts[1], fieldStarts[2] - 1);
+    int line = parseInt(diagnostic, fieldStarts[2], fieldStarts[3] - 1);
+    int column = parseInt(diagnostic, fieldStarts[3], fieldStarts[4] - 1);
+    String message = unescape(diagnostic, fieldStarts[4], StringUtil.trimTrailing(diagnostic).length());
+    CompilerMessageCategory category = isError ? CompilerMessageCategory.ERROR : CompilerMessageCategory.WARNING;
+    return new ErlangCompilerError(message, getUrl(rootPath, FileUtil.toSystemIndependentName(path)), line, column, category);
   }
 
   public CompilerMessageCategory getCategory() {
     return category;
   }
+
+  @NotNull
+  private static String getUrl(@Nullable String rootPath, @NotNull String filePath) {
+    boolean isRelative = !StringUtil.isEmpty(rootPath) && !FileUtil.isAbsolute(filePath);
+    String path = isRelative ? new File(FileUtil.toSystemIndependentName(rootPath), filePath).getPath() : filePath;
+    return VfsUtilCore.pathToUrl(path);
+  }
+
+  private static int parseInt(@NotNull String text, int start, int end) {
+    int result = 0;
+    boolean negative = start < end && text.charAt(start) == '-';
+    for (int i = negative ? start + 1 : start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') return -1;
+      result = result * 10 + c - '0';
+    }
+    return negative || start == end ? -1 : result;
+  }
+
+  @NotNull
+  private static String unescape(@NotNull String text, int start, int end) {
+    int escape = text.indexOf('\\', start);
+    if (escape == -1 || escape >= end) return text.substring(start, end);
+    StringBuilder builder = new StringBuilder(end - start);
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c == '\\' && i + 1 < end) {
+        char escaped = text.charAt(++i);
+        builder.append(escaped == 'n' ? '\n' : escaped == 't' ? '\t' : escaped);
+      }
+      else {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
 }
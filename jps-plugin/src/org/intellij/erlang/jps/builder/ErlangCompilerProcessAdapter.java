@@ -18,6 +18,7 @@ package org.intellij.erlang.jps.builder;
 
 import com.intellij.execution.process.ProcessAdapter;
 import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.openapi.compiler.CompilerMessageCategory;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFileManager;
@@ -26,10 +27,24 @@ import org.jetbrains.jps.incremental.CompileContext;
 import org.jetbrains.jps.incremental.messages.BuildMessage;
 import org.jetbrains.jps.incremental.messages.CompilerMessage;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reports compiler messages to the build log as soon as a whole line of output is read.
+ * Lines printed by the erlc wrapper script are parsed exactly, other lines are matched against the format of erlc messages.
+ * Only the first {@link #MAX_WARNINGS_PER_FILE} warnings of a file are reported, the rest are just counted.
+ */
 public class ErlangCompilerProcessAdapter extends ProcessAdapter {
+  private static final int MAX_WARNINGS_PER_FILE = 100;
+
   private final CompileContext myContext;
   private final String myBuilderName;
   private final String myCompileTargetRootPath;
+  private final Map<Key, StringBuilder> myUnterminatedLines = new HashMap<Key, StringBuilder>();
+  private final Map<String, Integer> myWarningCounts = new HashMap<String, Integer>();
+  private int mySuppressedWarningsCount;
+  private boolean myErrorReported;
 
   public ErlangCompilerProcessAdapter(@NotNull CompileContext context, @NotNull String builderName, @NotNull String compileTargetRootPath) {
     myContext = context;
@@ -39,13 +54,95 @@ public class ErlangCompilerProcessAdapter extends ProcessAdapter {
 
   @Override
   public void onTextAvailable(@NotNull ProcessEvent event, Key outputType) {
-    ErlangCompilerError error = ErlangCompilerError.create(myCompileTargetRootPath, event.getText());
+    if (outputType == ProcessOutputTypes.SYSTEM) return;
+    StringBuilder line = myUnterminatedLines.get(outputType);
+    if (line == null) {
+      line = new StringBuilder();
+      myUnterminatedLines.put(outputType, line);
+    }
+    String text = event.getText();
+    int lineStart = 0;
+    for (int lineEnd = text.indexOf('\n'); lineEnd != -1; lineEnd = text.indexOf('\n', lineStart)) {
+      if (line.length() == 0) {
+        processLine(text.substring(lineStart, lineEnd));
+      }
+      else {
+        line.append(text, lineStart, lineEnd);
+        processLine(line.toString());
+        line.setLength(0);
+      }
+      lineStart = lineEnd + 1;
+    }
+    line.append(text, lineStart, text.length());
+  }
+
+  @Override
+  public void processTerminated(ProcessEvent event) {
+    for (StringBuilder line : myUnterminatedLines.values()) {
+      if (line.length() != 0) {
+        processLine(line.toString());
+      }
+    }
+    myUnterminatedLines.clear();
+    if (mySuppressedWarningsCount != 0) {
+      String message = mySuppressedWarningsCount + " more warnings were not shown";
+      myContext.processMessage(new CompilerMessage(myBuilderName, BuildMessage.Kind.WARNING, message));
+    }
+  }
+
+  /**
+   * Handles a line of output without the line separator.
+   */
+  protected void processLine(@NotNull String line) {
+    ErlangCompilerError error = ErlangCompilerError.createFromDiagnostic(myCompileTargetRootPath, line);
+    if (error == null) {
+      error = ErlangCompilerError.create(myCompileTargetRootPath, line);
+    }
     if (error != null) {
-      boolean isError = error.getCategory() == CompilerMessageCategory.ERROR;
-      BuildMessage.Kind kind = isError ? BuildMessage.Kind.ERROR : BuildMessage.Kind.WARNING;
-      CompilerMessage msg = new CompilerMessage(myBuilderName, kind, error.getErrorMessage(),
-        VirtualFileManager.extractPath(error.getUrl()), -1, -1, -1, error.getLine(), -1);
-      myContext.processMessage(msg);
+      reportError(error);
     }
   }
+
+  protected void reportError(@NotNull ErlangCompilerError error) {
+    if (error.getCategory() == CompilerMessageCategory.ERROR) {
+      myErrorReported = true;
+    }
+    else {
+      Integer count = myWarningCounts.get(error.getUrl());
+      int warningsCount = count != null ? count + 1 : 1;
+      myWarningCounts.put(error.getUrl(), warningsCount);
+      if (warningsCount > MAX_WARNINGS_PER_FILE) {
+        mySuppressedWarningsCount++;
+        return;
+      }
+    }
+    myContext.processMessage(createCompilerMessage(myBuilderName, error));
+  }
+
+  protected void reportError(@NotNull String message) {
+    myErrorReported = true;
+    myContext.processMessage(new CompilerMessage(myBuilderName, BuildMessage.Kind.ERROR, message));
+  }
+
+  protected boolean isErrorReported() {
+    return myErrorReported;
+  }
+
+  @NotNull
+  protected CompileContext getContext() {
+    return myContext;
+  }
+
+  @NotNull
+  protected String getBuilderName() {
+    return myBuilderName;
+  }
+
+  @NotNull
+  public static CompilerMessage createCompilerMessage(@NotNull String builderName, @NotNull ErlangCompilerError error) {
+    boolean isError = error.getCategory() == CompilerMessageCategory.ERROR;
+    BuildMessage.Kind kind = isError ? BuildMessage.Kind.ERROR : BuildMessage.Kind.WARNING;
+    return new CompilerMessage(builderName, kind, error.getErrorMessage(),
+      VirtualFileManager.extractPath(error.getUrl()), -1, -1, -1, error.getLine(), error.getColumn());
+  }
 }
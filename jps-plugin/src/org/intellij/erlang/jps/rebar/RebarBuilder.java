@@ -19,7 +19,7 @@ package org.intellij.erlang.jps.rebar;
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.configurations.GeneralCommandLine;
 import com.intellij.execution.process.BaseOSProcessHandler;
-import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import org.intellij.erlang.jps.builder.*;
 import org.intellij.erlang.jps.model.ErlangCompilerOptions;
@@ -29,6 +29,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jps.builders.BuildOutputConsumer;
 import org.jetbrains.jps.builders.DirtyFilesHolder;
+import org.jetbrains.jps.builders.FileProcessor;
 import org.jetbrains.jps.incremental.CompileContext;
 import org.jetbrains.jps.incremental.ProjectBuildException;
 import org.jetbrains.jps.incremental.TargetBuilder;
@@ -43,11 +44,20 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.Charset;
-import java.util.Collections;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class RebarBuilder extends TargetBuilder<ErlangSourceRootDescriptor, ErlangTarget> {
   private static final String NAME = "rebar";
   private static final String REBAR_CONFIG_FILE_NAME = "rebar.config";
+  private static final String DEPS_DIRECTORY_NAME = "deps";
+  private static final String HEADER_EXTENSION = ".hrl";
+  private static final String APP_SRC_EXTENSION = ".app.src";
+  private static final String APP_EXTENSION = ".app";
+
   public RebarBuilder() {
     super(Collections.singleton(ErlangTargetType.INSTANCE));
   }
@@ -73,14 +83,19 @@ public class RebarBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erla
 
     JpsSdk<JpsDummyElement> sdk = ErlangTargetBuilderUtil.getSdk(context, module);
     String escriptPath = JpsErlangSdkType.getScriptInterpreterExecutable(sdk.getHomePath()).getAbsolutePath();
+    List<File> changedFiles = compilerOptions.myRebarCompileChangedAppsOnly ? getChangedFiles(target, holder) : null;
 
+    List<GeneralCommandLine> commandLines = new ArrayList<GeneralCommandLine>();
     for (String contentRootUrl : module.getContentRootsList().getUrls()) {
       String contentRootPath = new URL(contentRootUrl).getPath();
       File contentRootDir = new File(contentRootPath);
       File rebarConfigFile = new File(contentRootDir, REBAR_CONFIG_FILE_NAME);
       if (!rebarConfigFile.exists()) continue;
-      runRebar(escriptPath, rebarPath, contentRootPath, compilerOptions.myAddDebugInfoEnabled, context);
+      List<String> parameters = changedFiles != null ? getCompileParameters(contentRootDir, changedFiles) : Collections.singletonList("compile");
+      if (parameters.isEmpty()) continue;
+      commandLines.add(createRebarCommandLine(escriptPath, rebarPath, contentRootPath, parameters, compilerOptions.myAddDebugInfoEnabled));
     }
+    runRebar(commandLines, context);
   }
 
   @NotNull
@@ -89,21 +104,147 @@ public class RebarBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erla
     return NAME;
   }
 
-  private static void runRebar(@NotNull String escriptPath,
-                               @NotNull String rebarPath,
-                               @Nullable String contentRootPath,
-                               boolean addDebugInfo,
-                               @NotNull CompileContext context) throws ProjectBuildException {
+  /**
+   * Restricts compilation to the applications owning the changed files, and skips dependencies unless they are changed.
+   * Changed headers may be included by any application, so they don't restrict the applications to compile.
+   *
+   * @return rebar parameters, or an empty list when there are no changes under the rebar root
+   */
+  @NotNull
+  static List<String> getCompileParameters(@NotNull File rebarRoot, @NotNull Collection<File> changedFiles) {
+    Set<String> appNames = new LinkedHashSet<String>();
+    boolean hasChanges = false;
+    boolean changedOutsideApps = false;
+    boolean depsChanged = false;
+    for (File file : changedFiles) {
+      if (!FileUtil.isAncestor(rebarRoot, file, true)) continue;
+      hasChanges = true;
+      String relativePath = FileUtil.getRelativePath(rebarRoot, file);
+      depsChanged |= relativePath != null && FileUtil.toSystemIndependentName(relativePath).startsWith(DEPS_DIRECTORY_NAME + "/");
+      String appName = file.getName().endsWith(HEADER_EXTENSION) ? null : findApplicationName(file, rebarRoot);
+      if (appName != null) {
+        appNames.add(appName);
+      }
+      else {
+        changedOutsideApps = true;
+      }
+    }
+    if (!hasChanges) return Collections.emptyList();
+
+    List<String> parameters = new ArrayList<String>();
+    parameters.add("compile");
+    if (!depsChanged) {
+      parameters.add("skip_deps=true");
+    }
+    if (!changedOutsideApps) {
+      parameters.add("apps=" + StringUtil.join(appNames, ","));
+    }
+    return parameters;
+  }
+
+  @NotNull
+  private static List<File> getChangedFiles(@NotNull ErlangTarget target,
+                                            @NotNull DirtyFilesHolder<ErlangSourceRootDescriptor, ErlangTarget> holder) throws IOException {
+    final List<File> changedFiles = new ArrayList<File>();
+    holder.processDirtyFiles(new FileProcessor<ErlangSourceRootDescriptor, ErlangTarget>() {
+      @Override
+      public boolean apply(ErlangTarget erlangTarget, File file, ErlangSourceRootDescriptor erlangSourceRootDescriptor) {
+        changedFiles.add(file);
+        return true;
+      }
+    });
+    for (String removedFilePath : holder.getRemovedFiles(target)) {
+      changedFiles.add(new File(removedFilePath));
+    }
+    return changedFiles;
+  }
+
+  @Nullable
+  private static String findApplicationName(@NotNull File file, @NotNull File rebarRoot) {
+    for (File dir = file.getParentFile(); dir != null; dir = dir.getParentFile()) {
+      String appName = getApplicationName(new File(dir, "src"), APP_SRC_EXTENSION);
+      if (appName == null) appName = getApplicationName(new File(dir, "ebin"), APP_EXTENSION);
+      if (appName != null) return appName;
+      if (FileUtil.filesEqual(dir, rebarRoot)) break;
+    }
+    return null;
+  }
+
+  @Nullable
+  private static String getApplicationName(@NotNull File dir, @NotNull String extension) {
+    String[] names = dir.list();
+    if (names == null) return null;
+    for (String name : names) {
+      if (name.endsWith(extension) && new File(dir, name).isFile()) {
+        return name.substring(0, name.length() - extension.length());
+      }
+    }
+    return null;
+  }
+
+  @NotNull
+  private static GeneralCommandLine createRebarCommandLine(@NotNull String escriptPath,
+                                                           @NotNull String rebarPath,
+                                                           @NotNull String contentRootPath,
+                                                           @NotNull List<String> parameters,
+                                                           boolean addDebugInfo) {
     GeneralCommandLine commandLine = new GeneralCommandLine();
     commandLine.withWorkDirectory(contentRootPath);
     commandLine.setExePath(escriptPath);
     commandLine.addParameter(rebarPath);
-    commandLine.addParameter("compile");
+    commandLine.addParameters(parameters);
 
     if (addDebugInfo) {
       commandLine.getEnvironment().put("ERL_FLAGS", "+debug_info");
     }
+    return commandLine;
+  }
+
+  /**
+   * Runs rebar for each of the rebar roots, several of them at a time when there are enough cores.
+   */
+  private static void runRebar(@NotNull List<GeneralCommandLine> commandLines,
+                               @NotNull final CompileContext context) throws ProjectBuildException {
+    if (commandLines.size() <= 1) {
+      for (GeneralCommandLine commandLine : commandLines) {
+        runRebar(commandLine, context);
+      }
+      return;
+    }
+
+    int threadCount = Math.min(commandLines.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>(commandLines.size());
+      for (final GeneralCommandLine commandLine : commandLines) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws ProjectBuildException {
+            runRebar(commandLine, context);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        }
+        catch (InterruptedException e) {
+          throw new ProjectBuildException(e);
+        }
+        catch (java.util.concurrent.ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof ProjectBuildException) throw (ProjectBuildException) cause;
+          throw new ProjectBuildException(cause);
+        }
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
 
+  private static void runRebar(@NotNull GeneralCommandLine commandLine, @NotNull CompileContext context) throws ProjectBuildException {
     Process process;
     try {
       process = commandLine.createProcess();
@@ -111,8 +252,7 @@ public class RebarBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erla
       throw new ProjectBuildException("Failed to run rebar", e);
     }
     BaseOSProcessHandler handler = new BaseOSProcessHandler(process, commandLine.getCommandLineString(), Charset.defaultCharset());
-    ProcessAdapter adapter = new ErlangCompilerProcessAdapter(context, NAME, commandLine.getWorkDirectory().getPath()); //TODO provide rebar messages handling
-    handler.addProcessListener(adapter);
+    handler.addProcessListener(new RebarProcessAdapter(context, NAME, commandLine.getWorkDirectory()));
     handler.startNotify();
     handler.waitFor();
   }
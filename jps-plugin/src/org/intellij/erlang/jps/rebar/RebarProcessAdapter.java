@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.jps.rebar;
+
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.util.ObjectUtils;
+import org.intellij.erlang.jps.builder.ErlangCompilerError;
+import org.intellij.erlang.jps.builder.ErlangCompilerProcessAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.incremental.CompileContext;
+import org.jetbrains.jps.incremental.messages.ProgressMessage;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reports rebar output to the build log line by line, as soon as it is read.
+ * <p/>
+ * Compiler messages refer to files relative to the application being processed, which rebar announces
+ * with a <code>==> dir_name (command)</code> line before processing it.
+ */
+class RebarProcessAdapter extends ErlangCompilerProcessAdapter {
+  private static final Pattern DIRECTORY_LINE_PATTERN = Pattern.compile("^==> (\\S+) \\([^)]+\\)$");
+  private static final String COMPILED_PREFIX = "Compiled ";
+  private static final String ERROR_PREFIX = "ERROR: ";
+
+  private final File myRebarRoot;
+  private final Map<String, File> myDirectoriesByName = new HashMap<String, File>();
+  private File myCurrentDirectory;
+
+  RebarProcessAdapter(@NotNull CompileContext context, @NotNull String builderName, @NotNull File rebarRoot) {
+    super(context, builderName, rebarRoot.getPath());
+    myRebarRoot = rebarRoot;
+    myCurrentDirectory = rebarRoot;
+  }
+
+  @Override
+  public void processTerminated(ProcessEvent event) {
+    super.processTerminated(event);
+    if (event.getExitCode() != 0 && !isErrorReported()) {
+      reportError("rebar exited with code " + event.getExitCode() + " in " + myRebarRoot.getPath());
+    }
+  }
+
+  @Override
+  protected void processLine(@NotNull String line) {
+    String text = line.trim();
+    if (text.isEmpty()) return;
+
+    Matcher directoryMatcher = DIRECTORY_LINE_PATTERN.matcher(text);
+    if (directoryMatcher.matches()) {
+      myCurrentDirectory = findDirectory(directoryMatcher.group(1));
+      return;
+    }
+    if (text.startsWith(COMPILED_PREFIX)) {
+      getContext().processMessage(new ProgressMessage(getBuilderName() + ": " + text));
+      return;
+    }
+    ErlangCompilerError error = ErlangCompilerError.create(myCurrentDirectory.getPath(), text);
+    if (error != null) {
+      reportError(error);
+      return;
+    }
+    if (text.startsWith(ERROR_PREFIX)) {
+      reportError(text.substring(ERROR_PREFIX.length()));
+    }
+  }
+
+  /**
+   * Rebar names a directory by its last path component only, so it's looked up among the rebar root
+   * and directories at most two levels below it, which covers sub_dirs as well as apps/*, lib/* and deps/*.
+   */
+  @NotNull
+  private File findDirectory(@NotNull String name) {
+    if (myRebarRoot.getName().equals(name)) return myRebarRoot;
+    File directory = myDirectoriesByName.get(name);
+    if (directory == null) {
+      directory = ObjectUtils.notNull(findDirectory(myRebarRoot, name, 2), myRebarRoot);
+      myDirectoriesByName.put(name, directory);
+    }
+    return directory;
+  }
+
+  @Nullable
+  private static File findDirectory(@NotNull File parent, @NotNull String name, int depth) {
+    File candidate = new File(parent, name);
+    if (candidate.isDirectory()) return candidate;
+    if (depth == 1) return null;
+    File[] children = parent.listFiles();
+    if (children == null) return null;
+    for (File child : children) {
+      if (!child.isDirectory() || child.getName().startsWith(".")) continue;
+      File directory = findDirectory(child, name, depth - 1);
+      if (directory != null) return directory;
+    }
+    return null;
+  }
+}
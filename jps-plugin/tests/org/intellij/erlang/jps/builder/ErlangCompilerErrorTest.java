@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.jps.builder;
+
+import com.intellij.openapi.compiler.CompilerMessageCategory;
+import junit.framework.TestCase;
+
+public class ErlangCompilerErrorTest extends TestCase {
+  public void testDiagnosticWithColumn() {
+    ErlangCompilerError error = ErlangCompilerError.createFromDiagnostic("", "##erlc\terror\t/src/foo.erl\t12\t5\tsyntax error before: ')'");
+    assertNotNull(error);
+    assertEquals(CompilerMessageCategory.ERROR, error.getCategory());
+    assertEquals("file:///src/foo.erl", error.getUrl());
+    assertEquals(12, error.getLine());
+    assertEquals(5, error.getColumn());
+    assertEquals("syntax error before: ')'", error.getErrorMessage());
+  }
+
+  public void testMultiLineWarning() {
+    ErlangCompilerError error = ErlangCompilerError.createFromDiagnostic("/root", "##erlc\twarning\tsrc/foo.erl\t3\t-1\tfirst\\n\\tsecond \\\\ third\n");
+    assertNotNull(error);
+    assertEquals(CompilerMessageCategory.WARNING, error.getCategory());
+    assertEquals("file:///root/src/foo.erl", error.getUrl());
+    assertEquals(3, error.getLine());
+    assertEquals(-1, error.getColumn());
+    assertEquals("first\n\tsecond \\ third", error.getErrorMessage());
+  }
+
+  public void testUnknownLocation() {
+    ErlangCompilerError error = ErlangCompilerError.createFromDiagnostic("", "##erlc\terror\t/src/foo.erl\t-1\t-1\tCompilation failed");
+    assertNotNull(error);
+    assertEquals(-1, error.getLine());
+  }
+
+  public void testNotDiagnostic() {
+    assertNull(ErlangCompilerError.createFromDiagnostic("", "/src/foo.erl:12: syntax error"));
+    assertNull(ErlangCompilerError.createFromDiagnostic("", "##erlc\terror\t/src/foo.erl"));
+  }
+
+  public void testErlcMessageWithAbsolutePath() {
+    ErlangCompilerError error = ErlangCompilerError.create("/root", "/src/foo.erl:7: Warning: variable 'X' is unused");
+    assertNotNull(error);
+    assertEquals(CompilerMessageCategory.WARNING, error.getCategory());
+    assertEquals("file:///src/foo.erl", error.getUrl());
+    assertEquals(7, error.getLine());
+    assertEquals("variable 'X' is unused", error.getErrorMessage());
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.jps.rebar;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class RebarBuilderTest extends TestCase {
+  private File myRoot;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myRoot = FileUtil.createTempDirectory("rebar", "project");
+    createFile("rebar.config");
+    createFile("apps/a/src/a.app.src");
+    createFile("apps/b/src/b.app.src");
+    createFile("deps/d/ebin/d.app");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtil.delete(myRoot);
+    super.tearDown();
+  }
+
+  public void testChangedApplications() throws Exception {
+    assertParameters("compile skip_deps=true apps=a,b", "apps/a/src/a1.erl", "apps/b/src/b1.erl", "apps/a/src/a2.erl");
+  }
+
+  public void testChangedDependency() throws Exception {
+    assertParameters("compile apps=a,d", "apps/a/src/a1.erl", "deps/d/src/d1.erl");
+  }
+
+  public void testChangedHeader() throws Exception {
+    assertParameters("compile skip_deps=true", "apps/a/src/a1.erl", "apps/a/include/a.hrl");
+  }
+
+  public void testChangedFileOutsideApplications() throws Exception {
+    assertParameters("compile skip_deps=true", "test/t.erl");
+  }
+
+  public void testNoChangesUnderRoot() throws Exception {
+    File outside = new File(myRoot.getParentFile(), "other/src/o.erl");
+    assertEquals(Collections.<String>emptyList(), RebarBuilder.getCompileParameters(myRoot, Collections.singletonList(outside)));
+  }
+
+  private void assertParameters(String expected, String... changedPaths) {
+    File[] changedFiles = new File[changedPaths.length];
+    for (int i = 0; i < changedPaths.length; i++) {
+      changedFiles[i] = new File(myRoot, changedPaths[i]);
+    }
+    assertEquals(expected, StringUtil.join(RebarBuilder.getCompileParameters(myRoot, Arrays.asList(changedFiles)), " "));
+  }
+
+  private void createFile(String relativePath) throws IOException {
+    File file = new File(myRoot, relativePath);
+    FileUtil.createIfDoesntExist(file);
+  }
+}
@@ -25,6 +25,7 @@ public class ErlangCompilerOptions {
   public ErlangCompilerOptions(ErlangCompilerOptions options) {
     myUseRebarCompiler = options.myUseRebarCompiler;
     myAddDebugInfoEnabled = options.myAddDebugInfoEnabled;
+    myRebarCompileChangedAppsOnly = options.myRebarCompileChangedAppsOnly;
   }
 
   @Tag("useRebarCompiler")
@@ -32,4 +33,7 @@ public class ErlangCompilerOptions {
 
   @Tag("useDebugInfo")
   public boolean myAddDebugInfoEnabled = true;
+
+  @Tag("rebarCompileChangedAppsOnly")
+  public boolean myRebarCompileChangedAppsOnly = true;
 }
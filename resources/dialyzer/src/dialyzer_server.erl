@@ -0,0 +1,110 @@
+-module(dialyzer_server).
+
+-export([main/1]).
+
+%% plt is none or {PltFile, Stamp, Plt}; workers holds {RequestId, Pid} of the running analyses
+-record(state, {socket, plt = none, workers = []}).
+
+main([PortText]) ->
+  {ok, Host} = inet:gethostname(),
+  try erlang:list_to_integer(PortText) of
+    Port -> connect_and_run(Host, Port)
+  catch
+    error:badarg -> io:format("~s~s~n", ["Invalid port: ", PortText])
+  end.
+
+connect_and_run(Host, Port) ->
+  case gen_tcp:connect(Host, Port, [binary, {packet, 4}, {active, once}]) of
+    {ok, Socket} -> loop(#state{socket = Socket});
+    {error, Reason} -> io:format("~s~n~p~n", ["Connection failed: ", Reason])
+  end.
+
+loop(#state{socket = Socket, workers = Workers} = State) ->
+  receive
+    {tcp, Socket, Packet} ->
+      ok = inet:setopts(Socket, [{active, once}]),
+      loop(handle(erlang:binary_to_term(Packet), State));
+    {done, Id, Reply} ->
+      loop(reply(Id, Reply, State#state{workers = lists:keydelete(Id, 1, Workers)}));
+    {tcp_closed, Socket} ->
+      init:stop();
+    {tcp_error, Socket, _Reason} ->
+      init:stop()
+  end.
+
+handle({cancel, Id}, #state{workers = Workers} = State) ->
+  case lists:keyfind(Id, 1, Workers) of
+    {Id, Pid} ->
+      exit(Pid, kill),
+      State#state{workers = lists:keydelete(Id, 1, Workers)};
+    false ->
+      State
+  end;
+handle({Id, {analyze, Files, PltFile}}, State) ->
+  case cached_plt(PltFile, State) of
+    {ok, Plt, NewState} -> start_worker(Id, fun() -> dialyzer_server_plt:analyze(Files, Plt) end, NewState);
+    unsupported -> start_worker(Id, fun() -> dialyzer:run(run_options(Files, PltFile)) end, State);
+    {error, Message} -> reply(Id, {error, Message}, State)
+  end;
+handle({Id, Request}, State) ->
+  reply(Id, {error, message(io_lib:format("Unknown request: ~p", [Request]))}, State).
+
+reply(Id, Reply, #state{socket = Socket} = State) ->
+  ok = gen_tcp:send(Socket, erlang:term_to_binary({Id, Reply})),
+  State.
+
+%% Each analysis runs in its own process, so a slow one doesn't hold up the others and can be cancelled
+start_worker(Id, Analyze, #state{workers = Workers} = State) ->
+  Server = self(),
+  Pid = spawn(fun() -> Server ! {done, Id, analyze(Analyze)} end),
+  State#state{workers = [{Id, Pid} | Workers]}.
+
+analyze(Analyze) ->
+  try Analyze() of
+    Warnings -> {ok, [warning(W) || W <- Warnings]}
+  catch
+    throw:{dialyzer_error, Reason} -> {error, message(Reason)};
+    Class:Reason -> {error, message(io_lib:format("~p:~p", [Class, Reason]))}
+  end.
+
+run_options(Files, "") -> [{files, Files}, {from, src_code}, {check_plt, false}];
+run_options(Files, PltFile) -> [{init_plt, PltFile} | run_options(Files, "")].
+
+%% The PLT is read once and kept until the file changes on disk.
+cached_plt("", _State) ->
+  unsupported;
+cached_plt(PltFile, #state{plt = Cached} = State) ->
+  Stamp = filelib:last_modified(PltFile),
+  case Cached of
+    {PltFile, Stamp, Plt} ->
+      {ok, Plt, State};
+    _ ->
+      case plt_reuse_supported() of
+        true -> load_plt(PltFile, Stamp, State);
+        false -> unsupported
+      end
+  end.
+
+load_plt(PltFile, Stamp, State) ->
+  try dialyzer_server_plt:load(PltFile) of
+    Plt -> {ok, Plt, State#state{plt = {PltFile, Stamp, Plt}}}
+  catch
+    throw:{dialyzer_error, Reason} -> {error, message(Reason)};
+    Class:Reason -> {error, message(io_lib:format("~p:~p", [Class, Reason]))}
+  end.
+
+%% dialyzer_server_plt is only built when the SDK ships Dialyzer's sources
+plt_reuse_supported() ->
+  code:which(dialyzer_server_plt) =/= non_existing andalso dialyzer_server_plt:is_supported().
+
+%% {File, Line, Message} where Message is the formatted warning without its location
+warning({_Tag, {File, Location}, _Message} = Warning) ->
+  Formatted = lists:flatten(dialyzer:format_warning(Warning, basename)),
+  Text = re:replace(Formatted, "^[^:]*:[0-9:]*: *", "", [{return, list}]),
+  {unicode:characters_to_binary(File), line(Location), message(string:strip(Text, right, $\n))}.
+
+line({Line, _Column}) -> Line;
+line(Line) -> Line.
+
+message(Text) ->
+  unicode:characters_to_binary(lists:flatten(io_lib:format("~s", [Text]))).
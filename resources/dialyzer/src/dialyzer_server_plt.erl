@@ -0,0 +1,50 @@
+-module(dialyzer_server_plt).
+
+%% Runs Dialyzer's analysis on a PLT which is already in memory. This relies on Dialyzer's internal
+%% records, so the module is compiled against the SDK it runs on and dialyzer_server falls back to
+%% dialyzer:run/1 when it couldn't be built.
+
+-export([is_supported/0, load/1, analyze/2]).
+
+-include_lib("dialyzer/src/dialyzer.hrl").
+
+%% Since OTP 18 PLTs are kept in ETS tables which an analysis modifies, so they can't be shared
+%% between requests.
+is_supported() ->
+  _ = code:ensure_loaded(dialyzer_plt),
+  not erlang:function_exported(dialyzer_plt, get_mini_plt, 1).
+
+load(PltFile) ->
+  dialyzer_plt:from_file(PltFile).
+
+analyze(Files, Plt) ->
+  case dialyzer_options:build([{files, Files}, {from, src_code}, {check_plt, false}]) of
+    {error, Message} -> throw({dialyzer_error, Message});
+    #options{} = Options -> analyze(Files, Plt, Options)
+  end.
+
+analyze(Files, Plt, Options) ->
+  Analysis = #analysis{type = Options#options.analysis_type,
+                       defines = Options#options.defines,
+                       include_dirs = Options#options.include_dirs,
+                       files = Files,
+                       start_from = Options#options.from,
+                       plt = Plt,
+                       use_contracts = Options#options.use_contracts},
+  LegalWarnings = Options#options.legal_warnings,
+  Self = self(),
+  process_flag(trap_exit, true),
+  Backend = spawn_link(fun() -> dialyzer_analysis_callgraph:start(Self, LegalWarnings, Analysis) end),
+  collect(Backend, []).
+
+%% The updated PLT sent with done is dropped, so the cached one stays as it was loaded.
+collect(Backend, Warnings) ->
+  receive
+    {Backend, warnings, NewWarnings} -> collect(Backend, NewWarnings ++ Warnings);
+    {Backend, done, _Plt, _DocPlt} -> lists:usort(Warnings);
+    {'EXIT', Backend, normal} -> lists:usort(Warnings);
+    {'EXIT', Backend, {error, Reason}} -> throw({dialyzer_error, Reason});
+    {'EXIT', Backend, Reason} -> throw({dialyzer_error, io_lib:format("~p", [Reason])});
+    {Backend, _Tag, _Value} -> collect(Backend, Warnings);
+    {Backend, _Tag, _Value1, _Value2} -> collect(Backend, Warnings)
+  end.
@@ -17,6 +17,7 @@
 package org.intellij.erlang;
 
 import com.intellij.psi.tree.IElementType;
+import org.intellij.erlang.parser.ErlangClauseBodyElementType;
 import org.intellij.erlang.stubs.types.*;
 import org.jetbrains.annotations.NotNull;
 
@@ -34,6 +35,7 @@ public class ErlangElementTypeFactory {
     else if (name.equals("ERL_INCLUDE"))            return new ErlangIncludeElementType(name);
     else if (name.equals("ERL_INCLUDE_LIB"))        return new ErlangIncludeLibElementType(name);
     else if (name.equals("ERL_CALLBACK_SPEC"))      return new ErlangCallbackStubElementType(name);
+    else if (name.equals("ERL_CLAUSE_BODY"))        return new ErlangClauseBodyElementType(name);
 
     throw new RuntimeException("Unknown element type: " + name);
   }
@@ -44,6 +44,7 @@ import org.intellij.erlang.emacs.EmacsSettings;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.sdk.ErlangSdkType;
 import org.intellij.erlang.utils.ErlangExternalToolsNotificationListener;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 
@@ -100,14 +101,9 @@ public class ErlangEmacsFormatAction extends AnAction implements DumbAware {
         return;
       }
 
-      boolean exists = new File(sdkPath, "lib/erlang/lib").exists();
-
       String emacsCommand = "\n" +
         "(progn (find-file \"" + virtualFile.getCanonicalPath() + "\")\n" +
-        "    (setq erlang-root-dir \"" + sdkPath + "\")\n" +
-        "    (setq load-path (cons (car (file-expand-wildcards (concat erlang-root-dir \"/lib/" + (exists ? "erlang/lib/" : "") + "tools-*/emacs\")))\n" +
-        "                          load-path))\n" +
-        "    (require 'erlang-start)\n" +
+        getErlangModeSetup(sdkPath) +
         "    (erlang-mode)\n" +
         "    (erlang-indent-current-buffer)\n" +
         "    (delete-trailing-whitespace)\n" +
@@ -172,4 +168,16 @@ public class ErlangEmacsFormatAction extends AnAction implements DumbAware {
       LOG.error(ex);
     }
   }
+
+  /**
+   * @return Emacs Lisp forms which load erlang-mode shipped with the SDK
+   */
+  @NotNull
+  static String getErlangModeSetup(@NotNull String sdkPath) {
+    boolean exists = new File(sdkPath, "lib/erlang/lib").exists();
+    return "    (setq erlang-root-dir \"" + sdkPath + "\")\n" +
+      "    (setq load-path (cons (car (file-expand-wildcards (concat erlang-root-dir \"/lib/" + (exists ? "erlang/lib/" : "") + "tools-*/emacs\")))\n" +
+      "                          load-path))\n" +
+      "    (require 'erlang-start)\n";
+  }
 }
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.actions;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.CapturingProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.ErlangFileType;
+import org.intellij.erlang.emacs.EmacsSettings;
+import org.intellij.erlang.sdk.ErlangSdkType;
+import org.intellij.erlang.utils.ErlangExternalToolsNotificationListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Reformats all Erlang files under the selected directories or modules with Emacs.
+ * <p/>
+ * The files are split between a few Emacs processes, each formatting its share in one batch session, so Emacs
+ * and erlang-mode are loaded once per process rather than once per file. Files edited while Emacs runs are left
+ * as they are and reported.
+ */
+public class ErlangEmacsFormatDirectoryAction extends AnAction implements DumbAware {
+  private static final String NOTIFICATION_TITLE = "Reformat code with Emacs";
+  private static final Logger LOG = Logger.getInstance(ErlangEmacsFormatDirectoryAction.class);
+  private static final int MAX_PROCESSES = 4;
+  private static final int FILES_PER_WRITE_ACTION = 50;
+  private static final String FAILURE_PREFIX = "ErlangEmacsFormat failed: ";
+  /**
+   * Separates the file from the error in a failure line. Project paths have no tabs, so splitting on the first one
+   * is unambiguous, while both paths and Emacs error messages may contain ": ".
+   */
+  private static final char FAILURE_SEPARATOR = '\t';
+
+  @Override
+  public void update(AnActionEvent e) {
+    e.getPresentation().setEnabledAndVisible(getEventProject(e) != null && !getRoots(e).isEmpty());
+  }
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    final Project project = getEventProject(e);
+    if (project == null) return;
+    final String groupId = e.getPresentation().getText();
+
+    final String emacsPath = EmacsSettings.getInstance(project).getEmacsPath();
+    if (emacsPath.isEmpty()) {
+      Notifications.Bus.notify(
+        new Notification(groupId, NOTIFICATION_TITLE,
+          "Emacs executable path is empty" +
+          "<br/><a href='configure'>Configure</a>",
+          NotificationType.WARNING, new ErlangExternalToolsNotificationListener(project)), project);
+      return;
+    }
+    final String sdkPath = ErlangSdkType.getSdkPath(project);
+    if (StringUtil.isEmpty(sdkPath)) {
+      Notifications.Bus.notify(
+        new Notification(groupId, NOTIFICATION_TITLE, "Erlang project SDK is not configured",
+          NotificationType.WARNING), project);
+      return;
+    }
+
+    final List<VirtualFile> files = collectErlangFiles(project, getRoots(e));
+    if (files.isEmpty()) return;
+    ApplicationManager.getApplication().saveAll();
+    final Map<VirtualFile, Long> stamps = new HashMap<VirtualFile, Long>();
+    for (VirtualFile file : files) {
+      stamps.put(file, file.getModificationStamp());
+    }
+
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, NOTIFICATION_TITLE, true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        long start = System.currentTimeMillis();
+        Map<VirtualFile, String> formatted = new LinkedHashMap<VirtualFile, String>();
+        Map<VirtualFile, String> failures = new LinkedHashMap<VirtualFile, String>();
+        try {
+          format(emacsPath, sdkPath, files, formatted, failures, indicator);
+        }
+        catch (ProcessCanceledException ex) {
+          throw ex;
+        }
+        catch (InterruptedException ex) {
+          LOG.debug(ex);
+          return;
+        }
+        catch (java.util.concurrent.ExecutionException ex) {
+          notifyFailed(project, groupId, ex.getCause() != null ? ex.getCause() : ex);
+          return;
+        }
+        catch (IOException ex) {
+          notifyFailed(project, groupId, ex);
+          return;
+        }
+        int changed = apply(project, formatted, stamps, failures);
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        notifyFinished(project, groupId, files.size(), changed, failures, elapsed);
+      }
+    });
+  }
+
+  @NotNull
+  private static List<VirtualFile> getRoots(@NotNull AnActionEvent e) {
+    List<VirtualFile> roots = ContainerUtil.newArrayList();
+    VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+    if (files != null) {
+      for (VirtualFile file : files) {
+        if (file.isDirectory()) roots.add(file);
+      }
+    }
+    Module[] modules = e.getData(LangDataKeys.MODULE_CONTEXT_ARRAY);
+    if (roots.isEmpty() && modules != null) {
+      for (Module module : modules) {
+        ContainerUtil.addAll(roots, ModuleRootManager.getInstance(module).getContentRoots());
+      }
+    }
+    return roots;
+  }
+
+  @NotNull
+  private static List<VirtualFile> collectErlangFiles(@NotNull Project project, @NotNull final List<VirtualFile> roots) {
+    final ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+    return ApplicationManager.getApplication().runReadAction(new Computable<List<VirtualFile>>() {
+      @Override
+      public List<VirtualFile> compute() {
+        final Set<VirtualFile> result = new LinkedHashSet<VirtualFile>();
+        for (VirtualFile root : roots) {
+          VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor() {
+            @Override
+            public boolean visitFile(@NotNull VirtualFile file) {
+              if (fileIndex.isExcluded(file)) return false;
+              if (!file.isDirectory() && file.isInLocalFileSystem() && isErlangFile(file)) result.add(file);
+              return true;
+            }
+          });
+        }
+        return ContainerUtil.newArrayList(result);
+      }
+    });
+  }
+
+  private static boolean isErlangFile(@NotNull VirtualFile file) {
+    return file.getFileType() == ErlangFileType.MODULE || file.getFileType() == ErlangFileType.HEADER;
+  }
+
+  private static void format(@NotNull final String emacsPath,
+                             @NotNull final String sdkPath,
+                             @NotNull List<VirtualFile> files,
+                             @NotNull Map<VirtualFile, String> formatted,
+                             @NotNull Map<VirtualFile, String> failures,
+                             @NotNull final ProgressIndicator indicator)
+    throws IOException, InterruptedException, java.util.concurrent.ExecutionException {
+    final File outputDir = FileUtil.createTempDirectory("emacs", null, true);
+    try {
+      format(emacsPath, sdkPath, files, outputDir, formatted, failures, indicator);
+    }
+    finally {
+      FileUtil.delete(outputDir);
+    }
+  }
+
+  private static void format(@NotNull final String emacsPath,
+                             @NotNull final String sdkPath,
+                             @NotNull List<VirtualFile> files,
+                             @NotNull final File outputDir,
+                             @NotNull Map<VirtualFile, String> formatted,
+                             @NotNull Map<VirtualFile, String> failures,
+                             @NotNull final ProgressIndicator indicator) throws InterruptedException, java.util.concurrent.ExecutionException {
+    int processes = Math.min(MAX_PROCESSES, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+    List<List<VirtualFile>> batches = ContainerUtil.newArrayList();
+    for (int i = 0; i < processes; i++) {
+      batches.add(new ArrayList<VirtualFile>());
+    }
+    final Map<VirtualFile, File> outputs = new HashMap<VirtualFile, File>();
+    for (int i = 0; i < files.size(); i++) {
+      batches.get(i % processes).add(files.get(i));
+      outputs.put(files.get(i), new File(outputDir, i + ".erl"));
+    }
+
+    indicator.setText("Formatting " + StringUtil.pluralize(files.size() + " file", files.size()));
+    List<Future<ProcessOutput>> futures = ContainerUtil.newArrayList();
+    for (final List<VirtualFile> batch : batches) {
+      futures.add(ApplicationManager.getApplication().executeOnPooledThread(new Callable<ProcessOutput>() {
+        @Override
+        public ProcessOutput call() throws Exception {
+          return runEmacs(emacsPath, sdkPath, batch, outputs, outputDir, indicator);
+        }
+      }));
+    }
+    Map<String, String> errors = new HashMap<String, String>();
+    for (Future<ProcessOutput> future : futures) {
+      ProcessOutput output = future.get();
+      for (String line : output.getStderrLines()) {
+        if (!line.startsWith(FAILURE_PREFIX)) continue;
+        String failure = line.substring(FAILURE_PREFIX.length());
+        int separator = failure.indexOf(FAILURE_SEPARATOR);
+        if (separator > 0) errors.put(failure.substring(0, separator), failure.substring(separator + 1));
+      }
+    }
+    indicator.checkCanceled();
+
+    for (VirtualFile file : files) {
+      String text = loadText(outputs.get(file));
+      if (StringUtil.isEmptyOrSpaces(text)) {
+        String error = errors.get(file.getPath());
+        failures.put(file, error != null ? error : "Emacs returned an empty file");
+      }
+      else {
+        formatted.put(file, text);
+      }
+    }
+  }
+
+  @NotNull
+  private static ProcessOutput runEmacs(@NotNull String emacsPath,
+                                        @NotNull String sdkPath,
+                                        @NotNull List<VirtualFile> batch,
+                                        @NotNull Map<VirtualFile, File> outputs,
+                                        @NotNull File outputDir,
+                                        @NotNull ProgressIndicator indicator) throws IOException, ExecutionException {
+    StringBuilder files = new StringBuilder();
+    for (VirtualFile file : batch) {
+      files.append("\n      (\"").append(escape(file.getPath())).append("\" . \"")
+        .append(escape(outputs.get(file).getPath())).append("\")");
+    }
+    String script =
+      "(progn\n" +
+      ErlangEmacsFormatAction.getErlangModeSetup(sdkPath) +
+      "    (dolist (file '(" + files + "))\n" +
+      "      (condition-case err\n" +
+      "          (progn (find-file (car file))\n" +
+      "                 (erlang-mode)\n" +
+      "                 (erlang-indent-current-buffer)\n" +
+      "                 (delete-trailing-whitespace)\n" +
+      "                 (untabify (point-min) (point-max))\n" +
+      "                 (write-region (point-min) (point-max) (cdr file))\n" +
+      "                 (kill-buffer))\n" +
+      "        (error (message \"" + FAILURE_PREFIX + "%s\\t%s\" (car file) (error-message-string err)))))\n" +
+      "    (kill-emacs))";
+    File scriptFile = FileUtil.createTempFile(outputDir, "format", ".el", true);
+    FileUtil.writeToFile(scriptFile, script);
+
+    GeneralCommandLine commandLine = new GeneralCommandLine();
+    commandLine.setExePath(emacsPath);
+    commandLine.addParameters("--batch", "--load", scriptFile.getPath());
+    CapturingProcessHandler handler = new CapturingProcessHandler(commandLine.createProcess(), Charset.defaultCharset(), commandLine.getCommandLineString());
+    return handler.runProcessWithProgressIndicator(indicator);
+  }
+
+  @NotNull
+  private static String escape(@NotNull String path) {
+    return path.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+  @NotNull
+  private static String loadText(@NotNull File file) {
+    try {
+      return file.exists() ? FileUtilRt.loadFile(file, true) : "";
+    }
+    catch (IOException e) {
+      return "";
+    }
+  }
+
+  /**
+   * Files changed since their modification stamps were taken are skipped and added to the failures.
+   *
+   * @return the number of documents changed
+   */
+  private static int apply(@NotNull final Project project,
+                           @NotNull Map<VirtualFile, String> formatted,
+                           @NotNull final Map<VirtualFile, Long> stamps,
+                           @NotNull final Map<VirtualFile, String> failures) {
+    final List<Map.Entry<VirtualFile, String>> entries = ContainerUtil.newArrayList(formatted.entrySet());
+    final int[] changed = new int[1];
+    for (int from = 0; from < entries.size(); from += FILES_PER_WRITE_ACTION) {
+      final List<Map.Entry<VirtualFile, String>> batch = entries.subList(from, Math.min(from + FILES_PER_WRITE_ACTION, entries.size()));
+      ApplicationManager.getApplication().invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          if (project.isDisposed()) return;
+          CommandProcessor.getInstance().executeCommand(project, new Runnable() {
+            @Override
+            public void run() {
+              ApplicationManager.getApplication().runWriteAction(new Runnable() {
+                @Override
+                public void run() {
+                  FileDocumentManager documentManager = FileDocumentManager.getInstance();
+                  for (Map.Entry<VirtualFile, String> entry : batch) {
+                    VirtualFile file = entry.getKey();
+                    Document document = documentManager.getDocument(file);
+                    if (document == null || !document.isWritable()) continue;
+                    if (!stamps.get(file).equals(file.getModificationStamp()) || documentManager.isDocumentUnsaved(document)) {
+                      failures.put(file, "Changed while formatting, skipped");
+                      continue;
+                    }
+                    if (entry.getValue().equals(document.getText())) continue;
+                    document.setText(entry.getValue());
+                    changed[0]++;
+                  }
+                }
+              });
+            }
+          }, NOTIFICATION_TITLE, null);
+        }
+      }, ApplicationManager.getApplication().getDefaultModalityState());
+    }
+    return changed[0];
+  }
+
+  private static void notifyFailed(@NotNull Project project, @NotNull String groupId, @NotNull Throwable t) {
+    String message = StringUtil.notNullize(t.getMessage(), t.getClass().getSimpleName());
+    Notifications.Bus.notify(new Notification(groupId, NOTIFICATION_TITLE + " failed", message,
+      NotificationType.ERROR), project);
+    LOG.warn(t);
+  }
+
+  private static void notifyFinished(@NotNull Project project,
+                                     @NotNull String groupId,
+                                     int total,
+                                     int changed,
+                                     @NotNull Map<VirtualFile, String> failures,
+                                     long elapsedMillis) {
+    StringBuilder message = new StringBuilder();
+    message.append(StringUtil.pluralize(total + " file", total)).append(" processed in ")
+      .append(StringUtil.formatDuration(elapsedMillis))
+      .append(String.format(" (%.1f files/s), ", total * 1000.0 / elapsedMillis))
+      .append(changed).append(" changed");
+    if (!failures.isEmpty()) {
+      message.append(", ").append(failures.size()).append(" failed:");
+      for (Map.Entry<VirtualFile, String> failure : failures.entrySet()) {
+        message.append("<br/>").append(failure.getKey().getPresentableUrl()).append(": ").append(failure.getValue());
+      }
+    }
+    Notifications.Bus.notify(new Notification(groupId, NOTIFICATION_TITLE, message.toString(),
+      failures.isEmpty() ? NotificationType.INFORMATION : NotificationType.WARNING), project);
+  }
+}
@@ -16,7 +16,9 @@
 
 package org.intellij.erlang.bif;
 
+import org.intellij.erlang.sdk.ErlangSdkRelease;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public final class ErlangBifDescriptor implements Comparable<ErlangBifDescriptor> {
   @NotNull private final String myModule;
@@ -25,6 +27,7 @@ public final class ErlangBifDescriptor implements Comparable<ErlangBifDescriptor
   @NotNull private final String myParams;
 
   private final boolean myIsAutoImported;
+  @Nullable private final ErlangSdkRelease mySinceRelease;
 
   public ErlangBifDescriptor(@NotNull String module, @NotNull String name, int arity, @NotNull String params) {
     this(module, name, arity, params, false);
@@ -32,17 +35,33 @@ public final class ErlangBifDescriptor implements Comparable<ErlangBifDescriptor
 
   public ErlangBifDescriptor(@NotNull String module, @NotNull String name, int arity, @NotNull String params,
                              boolean isAutoImported) {
+    this(module, name, arity, params, isAutoImported, null);
+  }
+
+  /**
+   * @param sinceRelease the release the BIF appeared in, or null if it's available in all supported releases
+   */
+  public ErlangBifDescriptor(@NotNull String module, @NotNull String name, int arity, @NotNull String params,
+                             boolean isAutoImported, @Nullable ErlangSdkRelease sinceRelease) {
     myModule = module;
     myName = name;
     myArity = arity;
     myParams = params;
     myIsAutoImported = isAutoImported;
+    mySinceRelease = sinceRelease;
   }
 
   public boolean isAutoImported() {
     return myIsAutoImported;
   }
 
+  /**
+   * @param release the SDK release or null if it's unknown, in which case every BIF is considered available
+   */
+  public boolean isAvailableIn(@Nullable ErlangSdkRelease release) {
+    return mySinceRelease == null || release == null || !mySinceRelease.isNewerThan(release);
+  }
+
   @NotNull
   public String getModule() {
     return myModule;
@@ -38,7 +38,9 @@ import org.jetbrains.annotations.NotNull;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -54,6 +56,16 @@ public class ErlangBifParser extends ErlangLightPlatformCodeInsightFixtureTestCa
   private static final String ERLANG_DOC_PATH = "/home/ignatov/Downloads/otp_doc_html_R16B";
   private static final Pattern BIF_DECLARATION = Pattern.compile("bif (\\w+)\\:(\\w+)/(\\d+)");
   private static final Pattern BIF_SEPARATOR = Pattern.compile("# New Bifs in (R.+)");
+  private static final Pattern RELEASE_SEPARATOR = Pattern.compile("# New in (\\d+\\.\\d+)\\.");
+  /**
+   * Constants of {@link ErlangSdkRelease} for the <code># New in</code> sections of bif.tab.txt. BIFs in these sections
+   * are only available to projects on the release or a newer one.
+   */
+  private static final Map<String, String> RELEASE_CONSTANTS = new HashMap<String, String>();
+  static {
+    RELEASE_CONSTANTS.put("17.0", "V_17_0");
+    RELEASE_CONSTANTS.put("18.0", "V_18_0");
+  }
 
   private ErlangDocumentationProvider myDocProvider;
 
@@ -74,12 +86,13 @@ public class ErlangBifParser extends ErlangLightPlatformCodeInsightFixtureTestCa
         "\n" +
         "import org.jetbrains.annotations.NotNull;\n" +
         "import org.jetbrains.annotations.Nullable;\n" +
+        "import com.intellij.openapi.util.Condition;\n" +
+        "import com.intellij.util.containers.ContainerUtil;\n" +
         "import com.intellij.util.containers.MultiMap;\n" +
+        "import gnu.trove.THashMap;\n" +
+        "import org.intellij.erlang.sdk.ErlangSdkRelease;\n" +
         "\n" +
-        "import java.util.ArrayList;\n" +
-        "import java.util.Collection;\n" +
-        "import java.util.TreeSet;\n" +
-        "import java.util.List;\n" +
+        "import java.util.*;\n" +
         "\n" +
         "public final class ErlangBifTable {\n" +
         "  private static final MultiMap<String, ErlangBifDescriptor> bifMap = new MultiMap<String, ErlangBifDescriptor>() {\n" +
@@ -88,15 +101,18 @@ public class ErlangBifParser extends ErlangLightPlatformCodeInsightFixtureTestCa
         "      return new TreeSet<ErlangBifDescriptor>();\n" +
         "    }\n" +
         "  };\n" +
+        "  private static final Map<String, Map<String, List<ErlangBifDescriptor>>> bifsByName = new THashMap<String, Map<String, List<ErlangBifDescriptor>>>();\n" +
         "\n" +
         "  static {\n");
+      String sinceRelease = null;
       for (String s : bifTableText) {
         Matcher matcher;
         if ((matcher = BIF_DECLARATION.matcher(s)).find()) {
           String module = matcher.group(1);
           String name = matcher.group(2);
           String arity = matcher.group(3);
-          String isAuroimport = autoimported.contains(name + "/" + arity) ? ", true" : "";
+          boolean autoimport = autoimported.contains(name + "/" + arity);
+          String isAuroimport = sinceRelease != null ? ", " + autoimport + ", ErlangSdkRelease." + sinceRelease : autoimport ? ", true" : "";
           bifTableJavaBuilder.append("    bifMap.putValue(\"").append(module)
             .append("\", new ErlangBifDescriptor(\"")
             .append(module).append("\", \"").append(name).append("\", ").append(arity)
@@ -106,8 +122,33 @@ public class ErlangBifParser extends ErlangLightPlatformCodeInsightFixtureTestCa
           String version = matcher.group(1).replaceAll("\\.", "");
           bifTableJavaBuilder.append("    // Since ").append(version).append("\n");
         }
+        else if ((matcher = RELEASE_SEPARATOR.matcher(s)).find()) {
+          String version = matcher.group(1);
+          sinceRelease = RELEASE_CONSTANTS.get(version);
+          if (sinceRelease == null) throw new IllegalStateException("Add an ErlangSdkRelease constant for " + version);
+          bifTableJavaBuilder.append("    // Since ").append(version).append("\n");
+        }
+        else if (s.startsWith("# ")) {
+          sinceRelease = null;
+        }
       }
-      bifTableJavaBuilder.append("  }\n" +
+      bifTableJavaBuilder.append("    indexBifsByName();\n" +
+        "  }\n" +
+        "\n" +
+        "  private static void indexBifsByName() {\n" +
+        "    for (String moduleName : bifMap.keySet()) {\n" +
+        "      Map<String, List<ErlangBifDescriptor>> moduleBifs = new THashMap<String, List<ErlangBifDescriptor>>();\n" +
+        "      for (ErlangBifDescriptor bifDescriptor : bifMap.get(moduleName)) {\n" +
+        "        List<ErlangBifDescriptor> overloads = moduleBifs.get(bifDescriptor.getName());\n" +
+        "        if (overloads == null) {\n" +
+        "          overloads = new ArrayList<ErlangBifDescriptor>(1);\n" +
+        "          moduleBifs.put(bifDescriptor.getName(), overloads);\n" +
+        "        }\n" +
+        "        overloads.add(bifDescriptor);\n" +
+        "      }\n" +
+        "      bifsByName.put(moduleName, moduleBifs);\n" +
+        "    }\n" +
+        "  }\n" +
         "\n" +
         "  private ErlangBifTable() {\n" +
         "  }\n" +
@@ -118,27 +159,63 @@ public class ErlangBifParser extends ErlangLightPlatformCodeInsightFixtureTestCa
         "  }\n" +
         "\n" +
         "  @NotNull\n" +
-        "  public static Collection<ErlangBifDescriptor> getBifs(@NotNull String moduleName,\n" +
-        "                                                        @NotNull String functionName) {\n" +
-        "    final List<ErlangBifDescriptor> bifDescriptors = new ArrayList<ErlangBifDescriptor>();\n" +
-        "    for (ErlangBifDescriptor bifDescriptor : bifMap.get(moduleName)) {\n" +
-        "      if (functionName.equals(bifDescriptor.getName())) {\n" +
-        "        bifDescriptors.add(bifDescriptor);\n" +
-        "      }\n" +
-        "    }\n" +
-        "    return bifDescriptors;\n" +
+        "  public static List<ErlangBifDescriptor> getBifs(@NotNull String moduleName, @NotNull String functionName) {\n" +
+        "    Map<String, List<ErlangBifDescriptor>> moduleBifs = bifsByName.get(moduleName);\n" +
+        "    List<ErlangBifDescriptor> bifDescriptors = moduleBifs != null ? moduleBifs.get(functionName) : null;\n" +
+        "    return bifDescriptors != null ? Collections.unmodifiableList(bifDescriptors) : Collections.<ErlangBifDescriptor>emptyList();\n" +
         "  }\n" +
         "\n" +
+        "  @NotNull\n" +
+        "  public static List<ErlangBifDescriptor> getBifs(@Nullable ErlangSdkRelease release, @NotNull String moduleName) {\n" +
+        "    return filterByRelease(release, getBifs(moduleName));\n" +
+        "  }\n" +
         "\n" +
-        "  public static boolean isBif(@NotNull String moduleName, @NotNull String functionName, int arity) {\n" +
-        "    final Collection<ErlangBifDescriptor> erlangBifDescriptors = bifMap.get(moduleName);\n" +
-        "    for (ErlangBifDescriptor bifDescriptor : erlangBifDescriptors) {\n" +
-        "      if (bifDescriptor.getModule().equals(moduleName) && bifDescriptor.getName().equals(functionName) &&\n" +
-        "        bifDescriptor.getArity() == arity) {\n" +
-        "        return true;\n" +
+        "  @NotNull\n" +
+        "  public static List<ErlangBifDescriptor> getBifs(@Nullable ErlangSdkRelease release,\n" +
+        "                                                  @NotNull String moduleName,\n" +
+        "                                                  @NotNull String functionName) {\n" +
+        "    return filterByRelease(release, getBifs(moduleName, functionName));\n" +
+        "  }\n" +
+        "\n" +
+        "  @Nullable\n" +
+        "  public static ErlangBifDescriptor getBif(@Nullable ErlangSdkRelease release,\n" +
+        "                                           @NotNull String moduleName,\n" +
+        "                                           @NotNull String functionName,\n" +
+        "                                           int arity) {\n" +
+        "    ErlangBifDescriptor bifDescriptor = getBif(moduleName, functionName, arity);\n" +
+        "    return bifDescriptor != null && bifDescriptor.isAvailableIn(release) ? bifDescriptor : null;\n" +
+        "  }\n" +
+        "\n" +
+        "  public static boolean isBif(@Nullable ErlangSdkRelease release, @NotNull String moduleName, @NotNull String functionName, int arity) {\n" +
+        "    return getBif(release, moduleName, functionName, arity) != null;\n" +
+        "  }\n" +
+        "\n" +
+        "  @NotNull\n" +
+        "  private static List<ErlangBifDescriptor> filterByRelease(@Nullable final ErlangSdkRelease release,\n" +
+        "                                                           @NotNull Collection<ErlangBifDescriptor> bifDescriptors) {\n" +
+        "    return ContainerUtil.filter(bifDescriptors, new Condition<ErlangBifDescriptor>() {\n" +
+        "      @Override\n" +
+        "      public boolean value(ErlangBifDescriptor bifDescriptor) {\n" +
+        "        return bifDescriptor.isAvailableIn(release);\n" +
+        "      }\n" +
+        "    });\n" +
+        "  }\n" +
+        "\n" +
+        "  @Nullable\n" +
+        "  public static ErlangBifDescriptor getBif(@NotNull String moduleName, @NotNull String functionName, int arity) {\n" +
+        "    Map<String, List<ErlangBifDescriptor>> moduleBifs = bifsByName.get(moduleName);\n" +
+        "    List<ErlangBifDescriptor> bifDescriptors = moduleBifs != null ? moduleBifs.get(functionName) : null;\n" +
+        "    if (bifDescriptors == null) return null;\n" +
+        "    for (ErlangBifDescriptor bifDescriptor : bifDescriptors) {\n" +
+        "      if (arity == bifDescriptor.getArity()) {\n" +
+        "        return bifDescriptor;\n" +
         "      }\n" +
         "    }\n" +
-        "    return false;\n" +
+        "    return null;\n" +
+        "  }\n" +
+        "\n" +
+        "  public static boolean isBif(@NotNull String moduleName, @NotNull String functionName, int arity) {\n" +
+        "    return getBif(moduleName, functionName, arity) != null;\n" +
         "  }\n" +
         "}\n");
     } finally {
@@ -19,13 +19,12 @@ package org.intellij.erlang.bif;
 import com.intellij.openapi.util.Condition;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.MultiMap;
+import gnu.trove.THashMap;
+import org.intellij.erlang.sdk.ErlangSdkRelease;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.TreeSet;
+import java.util.*;
 
 public final class ErlangBifTable {
   private static final MultiMap<String, ErlangBifDescriptor> bifMap = new MultiMap<String, ErlangBifDescriptor>() {
@@ -34,6 +33,7 @@ public final class ErlangBifTable {
       return new TreeSet<ErlangBifDescriptor>();
     }
   };
+  private static final Map<String, Map<String, List<ErlangBifDescriptor>>> bifsByName = new THashMap<String, Map<String, List<ErlangBifDescriptor>>>();
 
   static {
     bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "abs", 1, "Int", true));
@@ -401,10 +401,38 @@ public final class ErlangBifTable {
     bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "float_to_binary", 2, "Float, Options", true));
     bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "binary_to_float", 1, "Binary", true));
     bifMap.putValue("io", new ErlangBifDescriptor("io", "printable_range", 0, ""));
+    // Since 17.0
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "is_map", 1, "Term", true, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "map_size", 1, "Map", true, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "find", 2, "Key, Map", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "from_list", 1, "List", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "get", 2, "Key, Map", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "is_key", 2, "Key, Map", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "keys", 1, "Map", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "merge", 2, "Map1, Map2", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "new", 0, "", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "put", 3, "Key, Value, Map1", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "remove", 2, "Key, Map1", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "to_list", 1, "Map", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "update", 3, "Key, Value, Map1", false, ErlangSdkRelease.V_17_0));
+    bifMap.putValue("maps", new ErlangBifDescriptor("maps", "values", 1, "Map", false, ErlangSdkRelease.V_17_0));
+    // Since 18.0
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "convert_time_unit", 3, "Time, FromUnit, ToUnit", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "get_keys", 0, "", true, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "monotonic_time", 0, "", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "monotonic_time", 1, "Unit", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "system_time", 0, "", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "system_time", 1, "Unit", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "time_offset", 0, "", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "time_offset", 1, "Unit", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "timestamp", 0, "", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "unique_integer", 0, "", false, ErlangSdkRelease.V_18_0));
+    bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "unique_integer", 1, "ModifierList", false, ErlangSdkRelease.V_18_0));
     bifMap.putValue("erlang", new ErlangBifDescriptor("erlang", "hash", 2, "Term, Range"));
 
     putLagerFunctionsToBifMap();
     putGeneratedInfo();
+    indexBifsByName();
   }
 
   public static final String MODULE_INFO = "module_info";
@@ -432,6 +460,21 @@ public final class ErlangBifTable {
     bifMap.putValue("lager", new ErlangBifDescriptor("lager", "emergency",  arity, params));
   }
 
+  private static void indexBifsByName() {
+    for (String moduleName : bifMap.keySet()) {
+      Map<String, List<ErlangBifDescriptor>> moduleBifs = new THashMap<String, List<ErlangBifDescriptor>>();
+      for (ErlangBifDescriptor bifDescriptor : bifMap.get(moduleName)) {
+        List<ErlangBifDescriptor> overloads = moduleBifs.get(bifDescriptor.getName());
+        if (overloads == null) {
+          overloads = new ArrayList<ErlangBifDescriptor>(1);
+          moduleBifs.put(bifDescriptor.getName(), overloads);
+        }
+        overloads.add(bifDescriptor);
+      }
+      bifsByName.put(moduleName, moduleBifs);
+    }
+  }
+
   private ErlangBifTable() {
   }
 
@@ -440,6 +483,11 @@ public final class ErlangBifTable {
     return bifMap.get(moduleName);
   }
 
+  @NotNull
+  public static List<ErlangBifDescriptor> getBifs(@Nullable ErlangSdkRelease release, @NotNull String moduleName) {
+    return filterByRelease(release, getBifs(moduleName));
+  }
+
   @NotNull
   public static Collection<ErlangBifDescriptor> getAutoimportedBifs(@NotNull String moduleName) {
     return ContainerUtil.filter(bifMap.get(moduleName), new Condition<ErlangBifDescriptor>() {
@@ -452,18 +500,17 @@ public final class ErlangBifTable {
 
   @NotNull
   public static List<ErlangBifDescriptor> getBifs(@NotNull String moduleName, @NotNull String functionName) {
-    List<ErlangBifDescriptor> bifDescriptors = new ArrayList<ErlangBifDescriptor>();
-    for (ErlangBifDescriptor bifDescriptor : bifMap.get(moduleName)) {
-      if (functionName.equals(bifDescriptor.getName())) {
-        bifDescriptors.add(bifDescriptor);
-      }
-    }
-    return bifDescriptors;
+    Map<String, List<ErlangBifDescriptor>> moduleBifs = bifsByName.get(moduleName);
+    List<ErlangBifDescriptor> bifDescriptors = moduleBifs != null ? moduleBifs.get(functionName) : null;
+    return bifDescriptors != null ? Collections.unmodifiableList(bifDescriptors) : Collections.<ErlangBifDescriptor>emptyList();
   }
 
   @Nullable
   public static ErlangBifDescriptor getBif(@NotNull String moduleName, @NotNull String functionName, int arity) {
-    for (ErlangBifDescriptor bifDescriptor : getBifs(moduleName, functionName)) {
+    Map<String, List<ErlangBifDescriptor>> moduleBifs = bifsByName.get(moduleName);
+    List<ErlangBifDescriptor> bifDescriptors = moduleBifs != null ? moduleBifs.get(functionName) : null;
+    if (bifDescriptors == null) return null;
+    for (ErlangBifDescriptor bifDescriptor : bifDescriptors) {
       if (arity == bifDescriptor.getArity()) {
         return bifDescriptor;
       }
@@ -471,15 +518,41 @@ public final class ErlangBifTable {
     return null;
   }
 
-
   public static boolean isBif(@NotNull String moduleName, @NotNull String functionName, int arity) {
-    Collection<ErlangBifDescriptor> erlangBifDescriptors = bifMap.get(moduleName);
-    for (ErlangBifDescriptor bifDescriptor : erlangBifDescriptors) {
-      if (bifDescriptor.getModule().equals(moduleName) && bifDescriptor.getName().equals(functionName) &&
-        bifDescriptor.getArity() == arity) {
-        return true;
+    return getBif(moduleName, functionName, arity) != null;
+  }
+
+  @NotNull
+  public static List<ErlangBifDescriptor> getBifs(@Nullable ErlangSdkRelease release,
+                                                  @NotNull String moduleName,
+                                                  @NotNull String functionName) {
+    return filterByRelease(release, getBifs(moduleName, functionName));
+  }
+
+  /**
+   * @return the BIF if it's available in the release, see {@link ErlangBifDescriptor#isAvailableIn(ErlangSdkRelease)}
+   */
+  @Nullable
+  public static ErlangBifDescriptor getBif(@Nullable ErlangSdkRelease release,
+                                           @NotNull String moduleName,
+                                           @NotNull String functionName,
+                                           int arity) {
+    ErlangBifDescriptor bifDescriptor = getBif(moduleName, functionName, arity);
+    return bifDescriptor != null && bifDescriptor.isAvailableIn(release) ? bifDescriptor : null;
+  }
+
+  public static boolean isBif(@Nullable ErlangSdkRelease release, @NotNull String moduleName, @NotNull String functionName, int arity) {
+    return getBif(release, moduleName, functionName, arity) != null;
+  }
+
+  @NotNull
+  private static List<ErlangBifDescriptor> filterByRelease(@Nullable final ErlangSdkRelease release,
+                                                           @NotNull Collection<ErlangBifDescriptor> bifDescriptors) {
+    return ContainerUtil.filter(bifDescriptors, new Condition<ErlangBifDescriptor>() {
+      @Override
+      public boolean value(ErlangBifDescriptor bifDescriptor) {
+        return bifDescriptor.isAvailableIn(release);
       }
-    }
-    return false;
+    });
   }
 }
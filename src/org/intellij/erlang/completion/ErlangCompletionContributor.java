@@ -24,7 +24,6 @@ import com.intellij.openapi.actionSystem.IdeActions;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.io.FileUtil;
@@ -48,8 +47,8 @@ import org.intellij.erlang.ErlangFileType;
 import org.intellij.erlang.ErlangTypes;
 import org.intellij.erlang.formatter.settings.ErlangCodeStyleSettings;
 import org.intellij.erlang.icons.ErlangIcons;
-import org.intellij.erlang.index.ErlangApplicationIndex;
 import org.intellij.erlang.index.ErlangAtomIndex;
+import org.intellij.erlang.index.ErlangHeaderPathIndex;
 import org.intellij.erlang.index.ErlangModuleIndex;
 import org.intellij.erlang.parser.ErlangParserUtil;
 import org.intellij.erlang.psi.*;
@@ -162,8 +161,8 @@ public class ErlangCompletionContributor extends CompletionContributor {
             String prefix = originalColonQExpr != null ?
               StringUtil.first(originalColonQExpr.getText(), parameters.getOffset() - originalColonQExpr.getTextOffset(), false) :
               moduleName != null ? moduleName + ":" : null;
-            (StringUtil.isEmpty(prefix) ? result : result.withPrefixMatcher(result.getPrefixMatcher().cloneWithPrefix(prefix) ))
-              .addAllElements(getAllExportedFunctionsWithModuleLookupElements(file.getProject(), false, moduleName));
+            CompletionResultSet qualifiedResult = StringUtil.isEmpty(prefix) ? result : result.withPrefixMatcher(result.getPrefixMatcher().cloneWithPrefix(prefix));
+            addAllExportedFunctionsWithModuleLookupElements(file.getProject(), qualifiedResult, false, moduleName);
           }
           else if (grandPa instanceof ErlangRecordField || grandPa instanceof ErlangRecordTuple) {
             Pair<List<ErlangTypedExpr>, List<ErlangQAtom>> recordFields = getRecordFields(grandPa);
@@ -201,7 +200,7 @@ public class ErlangCompletionContributor extends CompletionContributor {
             && grandPa instanceof ErlangExpression
             && (inFunction(position) || inConsole || PsiTreeUtil.getParentOfType(position, ErlangTypedRecordFields.class) != null)) {
             result.addAllElements(getFunctionLookupElements(file, false, null));
-            result.addAllElements(getAllExportedFunctionsWithModuleLookupElements(file.getProject(), false, null));
+            addAllExportedFunctionsWithModuleLookupElements(file.getProject(), result, false, null);
           }
 
           int invocationCount = parameters.getInvocationCount();
@@ -281,51 +280,51 @@ public class ErlangCompletionContributor extends CompletionContributor {
     String pathSeparator = includeText.endsWith("/") ? "/" : "";
     String libRelativePath = split.size() > 1 ? StringUtil.join(split.subList(1, split.size()), "/") + pathSeparator : "";
     boolean completingAppName = split.size() == 1 && !includeText.endsWith("/");
-    List<VirtualFile> appDirs = getApplicationDirectories(file.getProject(), appName, !completingAppName);
-    List<VirtualFile> matchingFiles = new ArrayList<VirtualFile>();
+    Project project = file.getProject();
+    GlobalSearchScope searchScope = GlobalSearchScope.allScope(project);
 
-    for (VirtualFile appRoot : appDirs) {
-      final String appFullName = appRoot != null ? appRoot.getName() : null;
-      String appShortName = appFullName != null ? getAppShortName(appFullName) : null;
-      if (appRoot == null) continue;
-      if (completingAppName) {
-        result.add(getDefaultPathLookupElementBuilder(includeText, appRoot, appShortName)
-          .withPresentableText(appShortName + "/")
-          .withTypeText("in " + appFullName, true));
-        continue;
+    if (completingAppName) {
+      for (String name : ErlangHeaderPathIndex.getApplicationNames(project)) {
+        ErlangHeaderPathIndex.ApplicationHeaders headers = name.startsWith(appName) ?
+          ErlangHeaderPathIndex.getApplicationHeaders(name, searchScope) : null;
+        if (headers == null) continue;
+        VirtualFile appRoot = headers.getRoot();
+        result.add(getDefaultPathLookupElementBuilder(includeText, appRoot, name)
+          .withPresentableText(name + "/")
+          .withTypeText("in " + appRoot.getName(), true));
       }
-      addMatchingFiles(appRoot, libRelativePath, matchingFiles);
-      result.addAll(ContainerUtil.mapNotNull(matchingFiles, new Function<VirtualFile, LookupElement>() {
-        @Nullable
-        @Override
-        public LookupElement fun(@NotNull VirtualFile f) {
-          return f.equals(virtualFile) ? null : getDefaultPathLookupElementBuilder(includeText, f, null).withTypeText("in " + appFullName, true);
+    }
+    else {
+      ErlangHeaderPathIndex.ApplicationHeaders headers = ErlangHeaderPathIndex.getApplicationHeaders(appName, searchScope);
+      if (headers != null) {
+        VirtualFile appRoot = headers.getRoot();
+        for (VirtualFile f : getMatchingFiles(appRoot, headers.getRelativePaths(), libRelativePath)) {
+          if (f.equals(virtualFile)) continue;
+          result.add(getDefaultPathLookupElementBuilder(includeText, f, null).withTypeText("in " + appRoot.getName(), true));
         }
-      }));
-      matchingFiles.clear();
+      }
     }
     result.addAll(getModulePathLookupElements(file, includeText));
     return result;
   }
 
+  /**
+   * @return files and directories next to the last segment of the path being completed which lead to the headers
+   */
   @NotNull
-  private static List<VirtualFile> getApplicationDirectories(@NotNull Project project, @NotNull final String appName, boolean nameIsComplete) {
-    GlobalSearchScope searchScope = GlobalSearchScope.allScope(project);
-    if (nameIsComplete) {
-      return ContainerUtil.createMaybeSingletonList(ErlangApplicationIndex.getApplicationDirectoryByName(appName, searchScope));
+  private static Collection<VirtualFile> getMatchingFiles(@NotNull VirtualFile appRoot,
+                                                          @NotNull List<String> headerPaths,
+                                                          @NotNull String libRelativePath) {
+    int lastSlashIdx = libRelativePath.lastIndexOf('/');
+    String directoryPath = libRelativePath.substring(0, lastSlashIdx + 1);
+    Set<VirtualFile> result = new LinkedHashSet<VirtualFile>();
+    for (String headerPath : headerPaths) {
+      if (!headerPath.startsWith(libRelativePath)) continue;
+      int childEndIdx = headerPath.indexOf('/', directoryPath.length());
+      String childPath = childEndIdx != -1 ? headerPath.substring(0, childEndIdx) : headerPath;
+      ContainerUtil.addIfNotNull(appRoot.findFileByRelativePath(childPath), result);
     }
-    return ContainerUtil.filter(ErlangApplicationIndex.getAllApplicationDirectories(project, searchScope), new Condition<VirtualFile>() {
-      @Override
-      public boolean value(@Nullable VirtualFile virtualFile) {
-        return virtualFile != null && virtualFile.getName().startsWith(appName);
-      }
-    });
-  }
-
-  @NotNull
-  private static String getAppShortName(@NotNull String appFullName) {
-    int dashIdx = appFullName.indexOf('-');
-    return dashIdx != -1 ? appFullName.substring(0, dashIdx) : appFullName;
+    return result;
   }
 
   @NotNull
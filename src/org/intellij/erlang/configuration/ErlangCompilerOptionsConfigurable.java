@@ -41,6 +41,7 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
   private JCheckBox myUseRebarCompilerCheckBox;
   private JButton myConfigureRebarButton;
   private JCheckBox myAddDebugInfoCheckBox;
+  private JCheckBox myCompileChangedAppsOnlyCheckBox;
   private final ErlangCompilerSettings mySettings;
   private final Project myProject;
 
@@ -63,6 +64,12 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
         }
       }
     });
+    myUseRebarCompilerCheckBox.addActionListener(new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        myCompileChangedAppsOnlyCheckBox.setEnabled(myUseRebarCompilerCheckBox.isSelected());
+      }
+    });
     myRootPanel.addAncestorListener(new AncestorAdapter() {
       @Override
       public void ancestorAdded(AncestorEvent event) {
@@ -94,17 +101,21 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
     myConfigureRebarButton.setVisible(!rebarPathIsSet);
     myUseRebarCompilerCheckBox.setSelected(rebarPathIsSet && mySettings.isUseRebarCompilerEnabled());
     myAddDebugInfoCheckBox.setSelected(mySettings.isAddDebugInfoEnabled());
+    myCompileChangedAppsOnlyCheckBox.setSelected(mySettings.isRebarCompileChangedAppsOnly());
+    myCompileChangedAppsOnlyCheckBox.setEnabled(myUseRebarCompilerCheckBox.isSelected());
   }
 
   @Override
   public void apply() throws ConfigurationException {
     mySettings.setUseRebarCompilerEnabled(myUseRebarCompilerCheckBox.isSelected());
     mySettings.setAddDebugInfoEnabled(myAddDebugInfoCheckBox.isSelected());
+    mySettings.setRebarCompileChangedAppsOnly(myCompileChangedAppsOnlyCheckBox.isSelected());
   }
 
   @Override
   public boolean isModified() {
     return myUseRebarCompilerCheckBox.isSelected() != mySettings.isUseRebarCompilerEnabled() ||
-      myAddDebugInfoCheckBox.isSelected() != mySettings.isAddDebugInfoEnabled();
+      myAddDebugInfoCheckBox.isSelected() != mySettings.isAddDebugInfoEnabled() ||
+      myCompileChangedAppsOnlyCheckBox.isSelected() != mySettings.isRebarCompileChangedAppsOnly();
   }
 }
@@ -60,6 +60,14 @@ public class ErlangCompilerSettings implements PersistentStateComponent<ErlangCo
     myCompilerOptions.myAddDebugInfoEnabled = useDebugInfo;
   }
 
+  public boolean isRebarCompileChangedAppsOnly() {
+    return myCompilerOptions.myRebarCompileChangedAppsOnly;
+  }
+
+  public void setRebarCompileChangedAppsOnly(boolean changedAppsOnly) {
+    myCompilerOptions.myRebarCompileChangedAppsOnly = changedAppsOnly;
+  }
+
   @NotNull
   public static ErlangCompilerSettings getInstance(@NotNull Project project) {
     ErlangCompilerSettings persisted = ServiceManager.getService(project, ErlangCompilerSettings.class);
@@ -31,6 +31,8 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+
 public class ErlangConsoleCommandLineState extends CommandLineState {
   @NotNull private final ErlangConsoleRunConfiguration myConfig;
 
@@ -43,6 +45,11 @@ public class ErlangConsoleCommandLineState extends CommandLineState {
       public ConsoleView getConsole() {
         ErlangConsoleView consoleView = new ErlangConsoleView(myConfig.getProject());
         ErlangConsoleUtil.attachFilters(myConfig.getProject(), consoleView);
+        if (myConfig.isReloadModules()) {
+          List<String> outputDirPaths =
+            ErlangConsoleUtil.getOutputDirPaths(myConfig.getProject(), myConfig.getConfigurationModule().getModule());
+          ErlangConsoleModuleReloader.install(consoleView, outputDirPaths);
+        }
         return consoleView;
       }
     };
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.console;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.compiler.CompilationStatusAdapter;
+import com.intellij.openapi.compiler.CompileContext;
+import com.intellij.openapi.compiler.CompilerTopics;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Loads .beam files updated by a make into the console node, so that the shell keeps its bindings
+ * and doesn't need to be restarted to pick up edited code.
+ */
+final class ErlangConsoleModuleReloader implements Disposable {
+  private static final String BEAM_EXTENSION = ".beam";
+
+  @NotNull private final ErlangConsoleView myConsoleView;
+  @NotNull private final List<String> myOutputDirPaths;
+  private final Map<String, Long> myBeamStamps = new HashMap<String, Long>();
+
+  private ErlangConsoleModuleReloader(@NotNull ErlangConsoleView consoleView, @NotNull List<String> outputDirPaths) {
+    myConsoleView = consoleView;
+    myOutputDirPaths = outputDirPaths;
+  }
+
+  static void install(@NotNull ErlangConsoleView consoleView, @NotNull List<String> outputDirPaths) {
+    final ErlangConsoleModuleReloader reloader = new ErlangConsoleModuleReloader(consoleView, outputDirPaths);
+    reloader.collectChangedBeams();
+    consoleView.getProject().getMessageBus().connect(reloader).subscribe(CompilerTopics.COMPILATION_STATUS,
+      new CompilationStatusAdapter() {
+        @Override
+        public void compilationFinished(boolean aborted, int errors, int warnings, CompileContext compileContext) {
+          if (aborted) return;
+          ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+              reloader.reloadChangedModules();
+            }
+          });
+        }
+      });
+    Disposer.register(consoleView, reloader);
+  }
+
+  @Override
+  public void dispose() {
+  }
+
+  private void reloadChangedModules() {
+    List<File> changedBeams = collectChangedBeams();
+    if (changedBeams.isEmpty()) return;
+    List<String> moduleNames = new ArrayList<String>(changedBeams.size());
+    for (File beam : changedBeams) {
+      moduleNames.add(getModuleName(beam));
+    }
+    myConsoleView.print("Reloading " + StringUtil.join(moduleNames, ", ") + "\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+    myConsoleView.sendToProcess(getReloadExpression(changedBeams) + "\n");
+  }
+
+  /**
+   * @return .beam files which were created or modified since the previous call
+   */
+  @NotNull
+  private synchronized List<File> collectChangedBeams() {
+    List<File> changedBeams = new ArrayList<File>();
+    for (String outputDirPath : myOutputDirPaths) {
+      File[] files = new File(outputDirPath).listFiles();
+      if (files == null) continue;
+      for (File file : files) {
+        if (!file.getName().endsWith(BEAM_EXTENSION)) continue;
+        Long previousStamp = myBeamStamps.put(file.getPath(), file.lastModified());
+        if (previousStamp == null || previousStamp != file.lastModified()) {
+          changedBeams.add(file);
+        }
+      }
+    }
+    return changedBeams;
+  }
+
+  /**
+   * Builds a single shell expression which doesn't bind any variables, so that it can't clash with the user's ones.
+   */
+  @NotNull
+  static String getReloadExpression(@NotNull List<File> beams) {
+    StringBuilder builder = new StringBuilder("[");
+    for (File beam : beams) {
+      String module = quoteAtom(getModuleName(beam));
+      String path = quoteString(FileUtil.toSystemIndependentName(beam.getPath()));
+      if (builder.length() > 1) builder.append(", ");
+      builder.append("begin code:purge(").append(module).append("), ")
+        .append("code:load_binary(").append(module).append(", ").append(path)
+        .append(", element(2, file:read_file(").append(path).append("))) end");
+    }
+    return builder.append("].").toString();
+  }
+
+  @NotNull
+  private static String getModuleName(@NotNull File beam) {
+    return StringUtil.trimEnd(beam.getName(), BEAM_EXTENSION);
+  }
+
+  @NotNull
+  private static String quoteAtom(@NotNull String name) {
+    return "'" + name.replace("\\", "\\\\").replace("'", "\\'") + "'";
+  }
+
+  @NotNull
+  private static String quoteString(@NotNull String text) {
+    return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+}
@@ -41,11 +41,13 @@ import java.util.Collection;
 public final class ErlangConsoleRunConfiguration extends ModuleBasedConfiguration<RunConfigurationModule> {
   @NotNull private String myWorkingDirPath;
   private String myConsoleArgs;
+  private boolean myReloadModules;
 
   public ErlangConsoleRunConfiguration(@NotNull String name, @NotNull Project project) {
     super(name, new RunConfigurationModule(project), ErlangConsoleRunConfigurationFactory.getInstance());
     myWorkingDirPath = ObjectUtils.assertNotNull(project.getBasePath());
     myConsoleArgs = "";
+    myReloadModules = true;
   }
 
   @NotNull
@@ -116,4 +118,12 @@ public final class ErlangConsoleRunConfiguration extends ModuleBasedConfiguratio
   public String getConsoleArgs() {
     return myConsoleArgs;
   }
+
+  public void setReloadModules(boolean reloadModules) {
+    myReloadModules = reloadModules;
+  }
+
+  public boolean isReloadModules() {
+    return myReloadModules;
+  }
 }
@@ -37,6 +37,7 @@ public final class ErlangConsoleRunConfigurationForm extends SettingsEditor<Erla
   private RawCommandLineEditor myConsoleArgsEditor;
   private TextFieldWithBrowseButton myWorkingDirPathField;
   private JComboBox myModuleComboBox;
+  private JCheckBox myReloadModulesCheckBox;
 
   @Nullable private final Module myInitialModule;
 
@@ -62,6 +63,7 @@ public final class ErlangConsoleRunConfigurationForm extends SettingsEditor<Erla
     myWorkingDirPathField.setText(config.getWorkingDirPath());
     myModuleComboBox.setSelectedItem(config.getConfigurationModule().getModule());
     myConsoleArgsEditor.setText(config.getConsoleArgs());
+    myReloadModulesCheckBox.setSelected(config.isReloadModules());
   }
 
   @Override
@@ -69,6 +71,7 @@ public final class ErlangConsoleRunConfigurationForm extends SettingsEditor<Erla
     config.setModule((Module) myModuleComboBox.getSelectedItem());
     config.setWorkingDirPath(myWorkingDirPathField.getText());
     config.setConsoleArgs(myConsoleArgsEditor.getText());
+    config.setReloadModules(myReloadModulesCheckBox.isSelected());
   }
 
   @NotNull
@@ -25,6 +25,7 @@ import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.CompilerModuleExtension;
 import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.Processor;
 import org.jetbrains.annotations.NotNull;
@@ -54,21 +55,7 @@ public final class ErlangConsoleUtil {
 
   @NotNull
   public static List<String> getCodePath(@NotNull Project project, @Nullable Module module, boolean useTestOutputPath) {
-    final Set<Module> codePathModules = new HashSet<Module>();
-    if (module != null) {
-      ModuleRootManager moduleRootMgr = ModuleRootManager.getInstance(module);
-      moduleRootMgr.orderEntries().recursively().forEachModule(new Processor<Module>() {
-        @Override
-        public boolean process(@NotNull Module dependencyModule) {
-          codePathModules.add(dependencyModule);
-          return true;
-        }
-      });
-    }
-    else {
-      codePathModules.addAll(Arrays.asList(ModuleManager.getInstance(project).getModules()));
-    }
-
+    Set<Module> codePathModules = getCodePathModules(project, module);
     List<String> codePath = new ArrayList<String>(codePathModules.size() * 2);
     for (Module codePathModule : codePathModules) {
       ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(codePathModule);
@@ -90,6 +77,41 @@ public final class ErlangConsoleUtil {
     return codePath;
   }
 
+  /**
+   * @return production output directories of the modules which {@link #getCodePath} puts on the code path
+   */
+  @NotNull
+  static List<String> getOutputDirPaths(@NotNull Project project, @Nullable Module module) {
+    List<String> outputDirPaths = new ArrayList<String>();
+    for (Module codePathModule : getCodePathModules(project, module)) {
+      CompilerModuleExtension compilerModuleExt = CompilerModuleExtension.getInstance(codePathModule);
+      String outputUrl = compilerModuleExt != null ? compilerModuleExt.getCompilerOutputUrl() : null;
+      if (outputUrl != null) {
+        outputDirPaths.add(VfsUtilCore.urlToPath(outputUrl));
+      }
+    }
+    return outputDirPaths;
+  }
+
+  @NotNull
+  private static Set<Module> getCodePathModules(@NotNull Project project, @Nullable Module module) {
+    final Set<Module> codePathModules = new HashSet<Module>();
+    if (module != null) {
+      ModuleRootManager moduleRootMgr = ModuleRootManager.getInstance(module);
+      moduleRootMgr.orderEntries().recursively().forEachModule(new Processor<Module>() {
+        @Override
+        public boolean process(@NotNull Module dependencyModule) {
+          codePathModules.add(dependencyModule);
+          return true;
+        }
+      });
+    }
+    else {
+      codePathModules.addAll(Arrays.asList(ModuleManager.getInstance(project).getModules()));
+    }
+    return codePathModules;
+  }
+
   @Nullable
   private static VirtualFile getCompilerOutputPathForTests(CompilerModuleExtension module) {
     VirtualFile testPath = module.getCompilerOutputPathForTests();
@@ -114,9 +114,17 @@ public final class ErlangConsoleView extends LanguageConsoleImpl {
     addToHistoryInner(new TextRange(0, text.length()), consoleEditor, true, true);
     myHistoryController.addToHistory(text);
     for (String line : text.split("\n")) {
+      sendToProcess(line + "\n");
+    }
+  }
+
+  void sendToProcess(@NotNull String text) {
+    OutputStreamWriter processInputWriter = myProcessInputWriter;
+    if (processInputWriter == null) return;
+    synchronized (processInputWriter) {
       try {
-        myProcessInputWriter.write(line + "\n");
-        myProcessInputWriter.flush();
+        processInputWriter.write(text);
+        processInputWriter.flush();
       } catch (IOException e) { // Ignore
       }
     }
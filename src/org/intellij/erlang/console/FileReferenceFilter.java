@@ -19,6 +19,7 @@ import com.intellij.execution.filters.Filter;
 import com.intellij.execution.filters.HyperlinkInfo;
 import com.intellij.execution.filters.InvalidExpressionException;
 import com.intellij.execution.filters.OpenFileHyperlinkInfo;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -27,11 +28,15 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.ProjectScope;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -45,12 +50,27 @@ public final class FileReferenceFilter implements Filter {
   private static final String NUMBER_REGEXP = "([0-9]+)";
 
   private static final Pattern PATTERN_FILENAME = Pattern.compile("[/\\\\]?([^/\\\\]*?\\.erl)$");
+  private static final String REGEXP_METACHARACTERS = "\\.[]{}()*+?^$|";
+  private static final int CACHE_SIZE = 512;
+  private static final long NEGATIVE_RESULT_TTL = 10 * 1000;
+  private static final long INDEX_LOOKUP_BUDGET_WINDOW = 1000;
+  private static final long INDEX_LOOKUP_BUDGET = 50;
 
   private final Pattern myPattern;
   private final Project myProject;
   private final int myFileMatchGroup;
   private final int myLineMatchGroup;
   private final int myColumnMatchGroup;
+  @Nullable private final String myRequiredText;
+  private final Map<String, Resolution> myResolutions = new LinkedHashMap<String, Resolution>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Resolution> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+  private final Set<String> myPendingResolutions = ContainerUtil.newConcurrentSet();
+  private long myIndexLookupWindowStart;
+  private long myIndexLookupTime;
 
   public FileReferenceFilter(@NotNull Project project, @NonNls @NotNull String expression) {
     myProject = project;
@@ -64,6 +84,7 @@ public final class FileReferenceFilter implements Filter {
     if (filePathIndex == -1) {
       throw new InvalidExpressionException("Expression must contain " + PATH_MACROS + " macros.");
     }
+    myRequiredText = getRequiredText(expression);
     TreeMap<Integer,String> map = new TreeMap<Integer, String>();
     map.put(filePathIndex, PATH_MACROS);
     expression = StringUtil.replace(expression, PATH_MACROS, FILE_PATH_REGEXP);
@@ -102,6 +123,9 @@ public final class FileReferenceFilter implements Filter {
   }
 
   public Result applyFilter(@NotNull String line, int entireLength) {
+    if (myRequiredText != null && !line.contains(myRequiredText)) {
+      return null;
+    }
     Matcher matcher = myPattern.matcher(line);
     if (!matcher.find()) {
       return null;
@@ -111,10 +135,129 @@ public final class FileReferenceFilter implements Filter {
     int fileCol = matchGroupToNumber(matcher, myColumnMatchGroup);
     int highlightStartOffset = entireLength - line.length() + matcher.start(0);
     int highlightEndOffset = highlightStartOffset + matcher.end(0) - matcher.start(0);
-    VirtualFile absolutePath = resolveAbsolutePath(filePath);
-    HyperlinkInfo hyperLink = absolutePath != null
-      ? new OpenFileHyperlinkInfo(myProject, absolutePath, fileLine, fileCol) : null;
-    return new Result(highlightStartOffset, highlightEndOffset, hyperLink);
+    return new Result(highlightStartOffset, highlightEndOffset, createHyperlink(filePath, fileLine, fileCol));
+  }
+
+  @Nullable
+  private HyperlinkInfo createHyperlink(@NotNull final String filePath, final int fileLine, final int fileCol) {
+    Resolution resolution = getCachedResolution(filePath);
+    if (resolution == null) {
+      VirtualFile file = resolveLocalPath(filePath);
+      if (file == null && isIndexLookupAllowed()) {
+        long start = System.currentTimeMillis();
+        file = resolveByFileName(filePath);
+        addIndexLookupTime(System.currentTimeMillis() - start);
+      }
+      else if (file == null) {
+        resolveInBackground(filePath);
+        return new HyperlinkInfo() {
+          @Override
+          public void navigate(Project project) {
+            Resolution resolution = getCachedResolution(filePath);
+            VirtualFile file = resolution != null ? resolution.myFile : resolve(filePath);
+            if (file != null) {
+              new OpenFileHyperlinkInfo(project, file, fileLine, fileCol).navigate(project);
+            }
+          }
+        };
+      }
+      resolution = cacheResolution(filePath, file);
+    }
+    return resolution.myFile != null ? new OpenFileHyperlinkInfo(myProject, resolution.myFile, fileLine, fileCol) : null;
+  }
+
+  /**
+   * Index lookups are limited per time window, the links which didn't fit are resolved in background
+   * so that a burst of output isn't held back by them.
+   */
+  private synchronized boolean isIndexLookupAllowed() {
+    long now = System.currentTimeMillis();
+    if (now - myIndexLookupWindowStart > INDEX_LOOKUP_BUDGET_WINDOW) {
+      myIndexLookupWindowStart = now;
+      myIndexLookupTime = 0;
+    }
+    return myIndexLookupTime < INDEX_LOOKUP_BUDGET;
+  }
+
+  private synchronized void addIndexLookupTime(long time) {
+    myIndexLookupTime += time;
+  }
+
+  private void resolveInBackground(@NotNull final String path) {
+    if (!myPendingResolutions.add(path)) return;
+    ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          ApplicationManager.getApplication().runReadAction(new Runnable() {
+            @Override
+            public void run() {
+              if (!myProject.isDisposed()) resolve(path);
+            }
+          });
+        }
+        finally {
+          myPendingResolutions.remove(path);
+        }
+      }
+    });
+  }
+
+  @Nullable
+  private VirtualFile resolve(@NotNull String path) {
+    VirtualFile file = resolveAbsolutePath(path);
+    cacheResolution(path, file);
+    return file;
+  }
+
+  @Nullable
+  private Resolution getCachedResolution(@NotNull String path) {
+    synchronized (myResolutions) {
+      Resolution resolution = myResolutions.get(path);
+      if (resolution == null) return null;
+      if (resolution.myFile != null ? resolution.myFile.isValid() : System.currentTimeMillis() - resolution.myTimeStamp < NEGATIVE_RESULT_TTL) {
+        return resolution;
+      }
+      myResolutions.remove(path);
+      return null;
+    }
+  }
+
+  @NotNull
+  private Resolution cacheResolution(@NotNull String path, @Nullable VirtualFile file) {
+    Resolution resolution = new Resolution(file);
+    synchronized (myResolutions) {
+      myResolutions.put(path, resolution);
+    }
+    return resolution;
+  }
+
+  /**
+   * @return the longest piece of the expression which is matched literally, every matching line contains it
+   */
+  @Nullable
+  private static String getRequiredText(@NotNull String expression) {
+    String longest = null;
+    for (String part : expression.split(Pattern.quote(PATH_MACROS) + "|" + Pattern.quote(LINE_MACROS) + "|" + Pattern.quote(COLUMN_MACROS))) {
+      StringBuilder literal = new StringBuilder();
+      boolean isLiteral = true;
+      for (int i = 0; i < part.length() && isLiteral; i++) {
+        char c = part.charAt(i);
+        if (c == '\\' && i + 1 < part.length() && !Character.isLetterOrDigit(part.charAt(i + 1))) {
+          literal.append(part.charAt(++i));
+        }
+        else if (REGEXP_METACHARACTERS.indexOf(c) != -1) {
+          isLiteral = false;
+        }
+        else {
+          literal.append(c);
+        }
+      }
+      if (isLiteral && (longest == null || literal.length() > longest.length())) {
+        longest = literal.toString();
+      }
+    }
+    return StringUtil.nullize(longest);
   }
 
   private static int matchGroupToNumber(@NotNull Matcher matcher, int matchGroup) {
@@ -130,16 +273,23 @@ public final class FileReferenceFilter implements Filter {
 
   @Nullable
   private VirtualFile resolveAbsolutePath(@NotNull String path) {
+    VirtualFile localFile = resolveLocalPath(path);
+    return localFile != null ? localFile : resolveByFileName(path);
+  }
+
+  @Nullable
+  private VirtualFile resolveLocalPath(@NotNull String path) {
     VirtualFile asIsFile = pathToVirtualFile(path);
     if (asIsFile != null) {
       return asIsFile;
     }
     String projectBasedPath = path.startsWith(myProject.getBasePath())
       ? path : new File(myProject.getBasePath(), path).getAbsolutePath();
-    VirtualFile projectBasedFile = pathToVirtualFile(projectBasedPath);
-    if (projectBasedFile != null) {
-      return projectBasedFile;
-    }
+    return pathToVirtualFile(projectBasedPath);
+  }
+
+  @Nullable
+  private VirtualFile resolveByFileName(@NotNull String path) {
     Matcher filenameMatcher = PATTERN_FILENAME.matcher(path);
     if (filenameMatcher.find()) {
       String filename = filenameMatcher.group(1);
@@ -162,4 +312,13 @@ public final class FileReferenceFilter implements Filter {
     String normalizedPath = path.replace(File.separatorChar, '/');
     return LocalFileSystem.getInstance().findFileByPath(normalizedPath);
   }
+
+  private static class Resolution {
+    @Nullable private final VirtualFile myFile;
+    private final long myTimeStamp = System.currentTimeMillis();
+
+    private Resolution(@Nullable VirtualFile file) {
+      myFile = file;
+    }
+  }
 }
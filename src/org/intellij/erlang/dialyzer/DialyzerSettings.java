@@ -22,6 +22,10 @@ import com.intellij.util.xmlb.XmlSerializerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 @State(
   name = "DialyzerSettings",
   storages = {
@@ -32,6 +36,12 @@ import org.jetbrains.annotations.Nullable;
 public final class DialyzerSettings implements PersistentStateComponent<DialyzerSettings> {
   @NotNull
   private String myCurrentPltPath = "";
+  @NotNull
+  private String myPltApps = "erts kernel stdlib";
+  @NotNull
+  private List<String> myPltDirectories = new ArrayList<String>();
+  @NotNull
+  private String myPltDirectoriesPltPath = "";
 
   @NotNull
   public static DialyzerSettings getInstance(@NotNull Project project) {
@@ -59,6 +69,53 @@ public final class DialyzerSettings implements PersistentStateComponent<Dialyzer
     myCurrentPltPath = currentPltPath;
   }
 
+  /**
+   * SDK applications the project PLT is built from.
+   */
+  @NotNull
+  public String getPltApps() {
+    return myPltApps;
+  }
+
+  public void setPltApps(@NotNull String pltApps) {
+    myPltApps = pltApps;
+  }
+
+  /**
+   * @return dependency directories already added to the PLT at the path, or an empty list if the recorded
+   * directories belong to another PLT
+   */
+  @NotNull
+  public List<String> getPltDirectories(@NotNull String pltPath) {
+    return pltPath.equals(myPltDirectoriesPltPath) ? myPltDirectories : Collections.<String>emptyList();
+  }
+
+  public void setPltDirectories(@NotNull String pltPath, @NotNull List<String> pltDirectories) {
+    myPltDirectoriesPltPath = pltPath;
+    myPltDirectories = pltDirectories;
+  }
+
+  @NotNull
+  public List<String> getPltDirectories() {
+    return myPltDirectories;
+  }
+
+  public void setPltDirectories(@NotNull List<String> pltDirectories) {
+    myPltDirectories = pltDirectories;
+  }
+
+  /**
+   * The PLT the {@link #getPltDirectories() directories} were added to.
+   */
+  @NotNull
+  public String getPltDirectoriesPltPath() {
+    return myPltDirectoriesPltPath;
+  }
+
+  public void setPltDirectoriesPltPath(@NotNull String pltPath) {
+    myPltDirectoriesPltPath = pltPath;
+  }
+
   @Override
   public String toString() {
     return "DialyzerSettings(myCurrentPltPath='" + myCurrentPltPath + "')";
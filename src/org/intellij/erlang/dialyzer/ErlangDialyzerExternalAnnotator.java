@@ -29,9 +29,9 @@ import com.intellij.notification.NotificationType;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.ModuleRootManager;
-import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -77,11 +77,12 @@ public class ErlangDialyzerExternalAnnotator extends ExternalAnnotator<ErlangDia
     if (!profile.isToolEnabled(key)) return null;
 
     String workingDir = file.getProject().getBasePath();
-    String dialyzerPath = homePath + "/bin/dialyzer" + (SystemInfo.isWindows ? ".exe" : "");
+    if (workingDir == null) return null;
+    String dialyzerPath = ErlangDialyzerProjectAnalyzer.getDialyzerPath(homePath);
 
-    String currentPltPath = DialyzerSettings.getInstance(file.getProject()).getCurrentPltPath();
+    String currentPltPath = ErlangDialyzerProjectAnalyzer.getInstance(file.getProject()).getExistingPltPath();
 
-    return new State(dialyzerPath, currentPltPath, canonicalPath, workingDir);
+    return new State(file.getProject(), homePath, dialyzerPath, currentPltPath, canonicalPath, workingDir);
   }
 
   @Nullable
@@ -89,6 +90,30 @@ public class ErlangDialyzerExternalAnnotator extends ExternalAnnotator<ErlangDia
   public State doAnnotate(State state) {
     if (state == null) return null;
 
+    List<ErlangDialyzerServer.Problem> projectProblems = ErlangDialyzerProjectAnalyzer.getInstance(state.myProject).getProblems(state.myFilePath);
+    if (projectProblems != null) {
+      for (ErlangDialyzerServer.Problem problem : projectProblems) {
+        state.problems.add(new Problem(problem.getLine(), problem.getDescription()));
+      }
+      return state;
+    }
+
+    try {
+      String pltPath = StringUtil.notNullize(state.myCurrentPltPath).trim();
+      ErlangDialyzerServer server = ErlangDialyzerServer.getInstance(state.myProject);
+      for (ErlangDialyzerServer.Problem problem : server.analyze(state.mySdkHome, state.myWorkingDir, pltPath, state.myFilePath)) {
+        state.problems.add(new Problem(problem.getLine(), problem.getDescription()));
+      }
+      return state;
+    }
+    catch (ErlangDialyzerServer.DialyzerException e) {
+      NOTIFICATION_GROUP.createNotification("dialyzer: " + e.getMessage(), NotificationType.WARNING).notify(state.myProject);
+      return state;
+    }
+    catch (ExecutionException e) {
+      LOG.debug("Dialyzer node is unavailable, falling back to the command line", e);
+    }
+
     ProcessOutput output = null;
     try {
       String[] params = StringUtil.isEmptyOrSpaces(state.myCurrentPltPath) ? new String[]{state.myFilePath} : new String[]{"--plt", state.myCurrentPltPath, state.myFilePath};
@@ -118,16 +143,10 @@ public class ErlangDialyzerExternalAnnotator extends ExternalAnnotator<ErlangDia
     if (annotationResult == null || !file.isValid()) return;
     String text = file.getText();
     for (Problem problem : annotationResult.problems) {
-      int offset = StringUtil.lineColToOffset(text, problem.myLine - 1, 0);
+      TextRange problemRange = getLineRange(text, problem.myLine);
+      if (problemRange == null) continue;
 
-      if (offset == -1) continue;
-
-      int width = 0;
-      while (offset + width < text.length() && !StringUtil.isLineBreak(text.charAt(offset + width))) width++;
-
-      TextRange problemRange = TextRange.create(offset, offset + width);
-      String message = "Dialyzer: " + problem.myDescription;
-      Annotation annotation = holder.createWarningAnnotation(problemRange, message);
+      Annotation annotation = holder.createWarningAnnotation(problemRange, getMessage(problem.myDescription));
       HighlightDisplayKey key = HighlightDisplayKey.find(ErlangDialyzerInspection.INSPECTION_SHORT_NAME);
       annotation.registerFix(new DisableInspectionToolAction(key) {
         @NotNull
@@ -139,6 +158,24 @@ public class ErlangDialyzerExternalAnnotator extends ExternalAnnotator<ErlangDia
     }
   }
 
+  /**
+   * @return the range of the whole line Dialyzer reports a problem at, or null if the file has no such line
+   */
+  @Nullable
+  public static TextRange getLineRange(@NotNull CharSequence text, int line) {
+    int offset = StringUtil.lineColToOffset(text, line - 1, 0);
+    if (offset == -1) return null;
+
+    int width = 0;
+    while (offset + width < text.length() && !StringUtil.isLineBreak(text.charAt(offset + width))) width++;
+    return TextRange.create(offset, offset + width);
+  }
+
+  @NotNull
+  public static String getMessage(@NotNull String description) {
+    return "Dialyzer: " + description;
+  }
+
   public static class Problem {
     private final int myLine;
     private final String myDescription;
@@ -159,12 +196,16 @@ public class ErlangDialyzerExternalAnnotator extends ExternalAnnotator<ErlangDia
 
   public static class State {
     public final List<Problem> problems = new ArrayList<Problem>();
+    private final Project myProject;
+    private final String mySdkHome;
     private final String myDialyzerPath;
     private final String myCurrentPltPath;
     private final String myFilePath;
     private final String myWorkingDir;
 
-    public State(String dialyzerPath, String currentPltPath, String filePath, String workingDir) {
+    public State(Project project, String sdkHome, String dialyzerPath, String currentPltPath, String filePath, String workingDir) {
+      myProject = project;
+      mySdkHome = sdkHome;
       myDialyzerPath = dialyzerPath;
       myCurrentPltPath = currentPltPath;
       myFilePath = filePath;
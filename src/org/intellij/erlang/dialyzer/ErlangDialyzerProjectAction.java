@@ -0,0 +1,38 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.dialyzer;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+
+public class ErlangDialyzerProjectAction extends AnAction {
+  @Override
+  public void update(AnActionEvent e) {
+    Project project = getEventProject(e);
+    e.getPresentation().setEnabled(project != null && !ErlangDialyzerProjectAnalyzer.getInstance(project).isRunning());
+  }
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    Project project = getEventProject(e);
+    if (project == null) return;
+    ApplicationManager.getApplication().saveAll();
+    ErlangDialyzerProjectAnalyzer.getInstance(project).analyze();
+  }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.dialyzer;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.CapturingProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiSearchHelper;
+import com.intellij.util.Processor;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
+import org.intellij.erlang.ErlangFileType;
+import org.intellij.erlang.sdk.ErlangSdkType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs Dialyzer over the project in the background: builds or updates a PLT shared by all modules, then analyses
+ * all the modules changed since the previous run, together with the modules which mention them, in one pass.
+ * The annotator reads the results per file.
+ */
+public class ErlangDialyzerProjectAnalyzer {
+  private static final Logger LOG = Logger.getInstance(ErlangDialyzerProjectAnalyzer.class);
+  private static final String TITLE = "Dialyzer analysis";
+
+  private final Project myProject;
+  private final Map<String, FileResult> myResults = ContainerUtil.newConcurrentMap();
+  private final AtomicBoolean myRunning = new AtomicBoolean();
+
+  public ErlangDialyzerProjectAnalyzer(@NotNull Project project) {
+    myProject = project;
+  }
+
+  @NotNull
+  public static ErlangDialyzerProjectAnalyzer getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, ErlangDialyzerProjectAnalyzer.class);
+  }
+
+  /**
+   * @return problems found by the last project analysis or null if the file was changed since
+   */
+  @Nullable
+  public List<ErlangDialyzerServer.Problem> getProblems(@NotNull String filePath) {
+    String path = FileUtil.toSystemIndependentName(filePath);
+    FileResult result = myResults.get(path);
+    return result != null && result.isUpToDate(new File(path)) ? result.myProblems : null;
+  }
+
+  public boolean isRunning() {
+    return myRunning.get();
+  }
+
+  public void analyze() {
+    if (!myRunning.compareAndSet(false, true)) return;
+    ProgressManager.getInstance().run(new Task.Backgroundable(myProject, TITLE, true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        try {
+          doAnalyze(indicator);
+        }
+        catch (ExecutionException e) {
+          LOG.debug(e);
+          ErlangDialyzerExternalAnnotator.NOTIFICATION_GROUP
+            .createNotification(TITLE + " failed: " + e.getMessage(), NotificationType.WARNING).notify(myProject);
+        }
+        finally {
+          myRunning.set(false);
+        }
+      }
+    });
+  }
+
+  private void doAnalyze(@NotNull ProgressIndicator indicator) throws ExecutionException {
+    String sdkHome = ErlangSdkType.getSdkPath(myProject);
+    String workingDir = myProject.getBasePath();
+    if (StringUtil.isEmpty(sdkHome) || workingDir == null) throw new ExecutionException("Erlang SDK is not configured");
+
+    DialyzerSettings settings = DialyzerSettings.getInstance(myProject);
+    String pltPath = getPltPath();
+
+    indicator.setText("Updating PLT");
+    updatePlt(sdkHome, workingDir, pltPath, settings, indicator);
+
+    indicator.setText("Looking for changed modules");
+    List<String> modulePaths = collectModulePaths();
+    Set<String> changed = ContainerUtil.newLinkedHashSet();
+    for (String path : modulePaths) {
+      if (getProblems(path) == null) changed.add(path);
+    }
+    if (changed.isEmpty()) return;
+    changed.addAll(collectDependentPaths(changed, modulePaths));
+
+    Map<String, FileResult> stamps = ContainerUtil.newHashMap();
+    for (String path : changed) {
+      stamps.put(path, new FileResult(new File(path)));
+    }
+    indicator.setText("Analyzing " + StringUtil.pluralize(changed.size() + " module", changed.size()));
+    indicator.checkCanceled();
+    List<ErlangDialyzerServer.Problem> problems = ErlangDialyzerServer.getInstance(myProject).analyze(sdkHome, workingDir, pltPath, changed);
+
+    MultiMap<String, ErlangDialyzerServer.Problem> problemsByFile = MultiMap.create();
+    for (ErlangDialyzerServer.Problem problem : problems) {
+      problemsByFile.putValue(FileUtil.toSystemIndependentName(problem.getFilePath()), problem);
+    }
+    for (Map.Entry<String, FileResult> entry : stamps.entrySet()) {
+      FileResult result = entry.getValue();
+      result.myProblems.addAll(problemsByFile.get(entry.getKey()));
+      myResults.put(entry.getKey(), result);
+    }
+
+    ApplicationManager.getApplication().invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        if (!myProject.isDisposed()) DaemonCodeAnalyzer.getInstance(myProject).restart();
+      }
+    });
+  }
+
+  /**
+   * Builds the PLT from the SDK applications and project dependencies, or brings an existing one up to date
+   * and adds the dependencies which appeared since.
+   */
+  private void updatePlt(@NotNull String sdkHome,
+                         @NotNull String workingDir,
+                         @NotNull String pltPath,
+                         @NotNull DialyzerSettings settings,
+                         @NotNull ProgressIndicator indicator) throws ExecutionException {
+    String dialyzerPath = getDialyzerPath(sdkHome);
+    List<String> dependencies = collectDependencyDirectories();
+    if (!new File(pltPath).exists()) {
+      FileUtil.createParentDirs(new File(pltPath));
+      List<String> params = ContainerUtil.newArrayList("--build_plt", "--output_plt", pltPath, "--apps");
+      params.addAll(StringUtil.split(settings.getPltApps(), " "));
+      if (!dependencies.isEmpty()) {
+        params.add("-r");
+        params.addAll(dependencies);
+      }
+      runDialyzer(workingDir, dialyzerPath, params, indicator);
+      settings.setPltDirectories(pltPath, dependencies);
+      return;
+    }
+
+    runDialyzer(workingDir, dialyzerPath, ContainerUtil.newArrayList("--check_plt", "--plt", pltPath), indicator);
+    List<String> added = ContainerUtil.newArrayList(dependencies);
+    added.removeAll(settings.getPltDirectories(pltPath));
+    if (added.isEmpty()) return;
+    List<String> params = ContainerUtil.newArrayList("--add_to_plt", "--plt", pltPath, "-r");
+    params.addAll(added);
+    runDialyzer(workingDir, dialyzerPath, params, indicator);
+    List<String> directories = ContainerUtil.newArrayList(settings.getPltDirectories(pltPath));
+    directories.addAll(added);
+    settings.setPltDirectories(pltPath, directories);
+  }
+
+  private static void runDialyzer(@NotNull String workingDir,
+                                  @NotNull String dialyzerPath,
+                                  @NotNull List<String> params,
+                                  @NotNull ProgressIndicator indicator) throws ExecutionException {
+    GeneralCommandLine commandLine = new GeneralCommandLine();
+    commandLine.setWorkDirectory(workingDir);
+    commandLine.setExePath(dialyzerPath);
+    commandLine.addParameters(params);
+    LOG.debug(commandLine.getCommandLineString());
+
+    CapturingProcessHandler handler = new CapturingProcessHandler(commandLine.createProcess(), Charset.defaultCharset(), commandLine.getCommandLineString());
+    ProcessOutput output = handler.runProcessWithProgressIndicator(indicator);
+    if (output.isCancelled()) throw new ProcessCanceledException();
+    // exit code 2 means Dialyzer emitted warnings, e.g. about unknown functions while building the PLT
+    if (output.getExitCode() != 0 && output.getExitCode() != 2) {
+      throw new ExecutionException(StringUtil.notNullize(ContainerUtil.getLastItem(output.getStdoutLines()), output.getStderr()));
+    }
+  }
+
+  @NotNull
+  private List<String> collectDependencyDirectories() {
+    return ApplicationManager.getApplication().runReadAction(new Computable<List<String>>() {
+      @Override
+      public List<String> compute() {
+        List<String> result = ContainerUtil.newArrayList();
+        for (Module module : ModuleManager.getInstance(myProject).getModules()) {
+          for (VirtualFile contentRoot : ModuleRootManager.getInstance(module).getContentRoots()) {
+            VirtualFile deps = contentRoot.findChild("deps");
+            if (deps == null || !deps.isDirectory()) continue;
+            for (VirtualFile dependency : deps.getChildren()) {
+              VirtualFile ebin = dependency.findChild("ebin");
+              if (ebin != null && ebin.isDirectory()) ContainerUtil.addIfNotNull(result, ebin.getCanonicalPath());
+            }
+          }
+        }
+        return ContainerUtil.newArrayList(ContainerUtil.newLinkedHashSet(result));
+      }
+    });
+  }
+
+  @NotNull
+  private List<String> collectModulePaths() {
+    return DumbService.getInstance(myProject).runReadActionInSmartMode(new Computable<List<String>>() {
+      @Override
+      public List<String> compute() {
+        ProjectFileIndex fileIndex = ProjectRootManager.getInstance(myProject).getFileIndex();
+        List<String> result = ContainerUtil.newArrayList();
+        for (VirtualFile file : FileTypeIndex.getFiles(ErlangFileType.MODULE, GlobalSearchScope.projectScope(myProject))) {
+          String path = file.getCanonicalPath();
+          if (path == null || path.contains("/deps/") || !fileIndex.isInSourceContent(file)) continue;
+          result.add(path);
+        }
+        return result;
+      }
+    });
+  }
+
+  /**
+   * Modules whose text mentions the name of a changed module, e.g. in a remote call or a remote type: the types
+   * Dialyzer infers for them depend on the changed one, so their results are stale as well.
+   */
+  @NotNull
+  private Set<String> collectDependentPaths(@NotNull final Collection<String> changed, @NotNull final List<String> modulePaths) {
+    return DumbService.getInstance(myProject).runReadActionInSmartMode(new Computable<Set<String>>() {
+      @Override
+      public Set<String> compute() {
+        final Set<String> modules = ContainerUtil.newHashSet(modulePaths);
+        final Set<String> result = ContainerUtil.newHashSet();
+        PsiSearchHelper searchHelper = PsiSearchHelper.SERVICE.getInstance(myProject);
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(myProject);
+        for (String path : changed) {
+          searchHelper.processAllFilesWithWord(FileUtil.getNameWithoutExtension(new File(path).getName()), scope, new Processor<PsiFile>() {
+            @Override
+            public boolean process(PsiFile file) {
+              VirtualFile virtualFile = file.getVirtualFile();
+              String dependent = virtualFile != null ? virtualFile.getCanonicalPath() : null;
+              if (dependent != null && modules.contains(dependent)) result.add(dependent);
+              return true;
+            }
+          }, true);
+        }
+        return result;
+      }
+    });
+  }
+
+  /**
+   * @return the PLT set in {@link DialyzerSettings}, or the project's own one in the system directory. The default
+   * is resolved on each call rather than written to the settings, so it follows the system directory and the project.
+   */
+  @NotNull
+  public String getPltPath() {
+    String pltPath = DialyzerSettings.getInstance(myProject).getCurrentPltPath().trim();
+    return pltPath.isEmpty() ? getDefaultPltPath() : pltPath;
+  }
+
+  /**
+   * @return the PLT for analysing a single file: the one from {@link #getPltPath()} unless it's the default
+   * which hasn't been built yet, then an empty string, so Dialyzer uses its own default
+   */
+  @NotNull
+  public String getExistingPltPath() {
+    String pltPath = DialyzerSettings.getInstance(myProject).getCurrentPltPath().trim();
+    if (!pltPath.isEmpty()) return pltPath;
+    String defaultPltPath = getDefaultPltPath();
+    return new File(defaultPltPath).isFile() ? defaultPltPath : "";
+  }
+
+  @NotNull
+  private String getDefaultPltPath() {
+    return PathManager.getSystemPath() + "/erlang/dialyzer/" + myProject.getName() + "." + myProject.getLocationHash() + ".plt";
+  }
+
+  @NotNull
+  static String getDialyzerPath(@NotNull String sdkHome) {
+    return sdkHome + "/bin/dialyzer" + (SystemInfo.isWindows ? ".exe" : "");
+  }
+
+  private static class FileResult {
+    private final List<ErlangDialyzerServer.Problem> myProblems = ContainerUtil.newArrayList();
+    private final long myTimeStamp;
+    private final long myLength;
+
+    private FileResult(@NotNull File file) {
+      myTimeStamp = file.lastModified();
+      myLength = file.length();
+    }
+
+    private boolean isUpToDate(@NotNull File file) {
+      return file.lastModified() == myTimeStamp && file.length() == myLength;
+    }
+  }
+}
@@ -0,0 +1,509 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.dialyzer;
+
+import com.ericsson.otp.erlang.*;
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.StreamUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.ResourceUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.SLRUMap;
+import com.intellij.util.io.URLUtil;
+import org.intellij.erlang.jps.model.JpsErlangSdkType;
+import org.intellij.erlang.sdk.ErlangSystemUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-lived Erlang node which runs Dialyzer on request, so an analysis doesn't pay for starting a node
+ * and loading Dialyzer each time. The node keeps the last PLT it read and reloads it only when the file changes.
+ * Requests are tagged with an id, so several analyses may run at once and a cancelled one is stopped in the node.
+ * Results are cached by the content hash of the analysed files.
+ */
+public class ErlangDialyzerServer implements Disposable {
+  private static final Logger LOG = Logger.getInstance(ErlangDialyzerServer.class);
+  private static final String MODULE = "dialyzer_server";
+  private static final String PLT_MODULE = "dialyzer_server_plt";
+  private static final int CONNECT_TIMEOUT = 30 * 1000;
+  private static final int ANALYSIS_TIMEOUT = 10 * 60 * 1000;
+  private static final int CANCEL_CHECK_INTERVAL = 100;
+  private static final int RESTART_DELAY = 60 * 1000;
+
+  private final SLRUMap<String, List<Problem>> myResults = new SLRUMap<String, List<Problem>>(100, 100);
+  private final Object myLock = new Object();
+  private final Map<String, File> myCompiledModules = ContainerUtil.newHashMap();
+  private final Map<String, Long> myFailedStarts = ContainerUtil.newHashMap();
+  private long myNextRequestId;
+  @Nullable
+  private Node myNode;
+
+  @NotNull
+  public static ErlangDialyzerServer getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, ErlangDialyzerServer.class);
+  }
+
+  /**
+   * @throws DialyzerException if Dialyzer failed to analyse the file, e.g. the PLT is missing
+   * @throws ExecutionException if the node can't be started
+   */
+  @NotNull
+  public List<Problem> analyze(@NotNull String sdkHome,
+                               @NotNull String workingDir,
+                               @NotNull String pltPath,
+                               @NotNull String filePath) throws ExecutionException {
+    String key = getResultKey(pltPath, filePath);
+    synchronized (myResults) {
+      List<Problem> cached = key != null ? myResults.get(key) : null;
+      if (cached != null) return cached;
+    }
+    List<Problem> problems = analyze(sdkHome, workingDir, pltPath, Collections.singletonList(filePath));
+    if (key != null) {
+      synchronized (myResults) {
+        myResults.put(key, problems);
+      }
+    }
+    return problems;
+  }
+
+  /**
+   * Runs a single Dialyzer pass over all the files. The lock is only held while the request is sent,
+   * the wait for the reply checks for cancellation and cancels the analysis in the node.
+   */
+  @NotNull
+  public List<Problem> analyze(@NotNull String sdkHome,
+                               @NotNull String workingDir,
+                               @NotNull String pltPath,
+                               @NotNull Collection<String> filePaths) throws ExecutionException {
+    OtpErlangObject[] files = new OtpErlangObject[filePaths.size()];
+    int i = 0;
+    for (String filePath : filePaths) {
+      files[i++] = new OtpErlangString(filePath);
+    }
+    OtpErlangObject request = new OtpErlangTuple(new OtpErlangObject[]{
+      new OtpErlangAtom("analyze"), new OtpErlangList(files), new OtpErlangString(pltPath)});
+
+    Node node;
+    long id;
+    PendingReply reply = new PendingReply();
+    synchronized (myLock) {
+      node = ensureStarted(sdkHome, workingDir);
+      id = myNextRequestId++;
+      node.myPendingReplies.put(id, reply);
+      try {
+        send(node.mySocket, new OtpErlangTuple(new OtpErlangObject[]{new OtpErlangLong(id), request}));
+      }
+      catch (IOException e) {
+        stop();
+        throw new ExecutionException("Dialyzer node failed", e);
+      }
+    }
+    return parseReply(await(node, id, reply));
+  }
+
+  @Override
+  public void dispose() {
+    synchronized (myLock) {
+      stop();
+      for (File directory : myCompiledModules.values()) {
+        FileUtil.delete(directory);
+      }
+      myCompiledModules.clear();
+    }
+  }
+
+  @NotNull
+  private OtpErlangObject await(@NotNull Node node, long id, @NotNull PendingReply reply) throws ExecutionException {
+    boolean received = false;
+    try {
+      long deadline = System.currentTimeMillis() + ANALYSIS_TIMEOUT;
+      while (!reply.myLatch.await(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+        ProgressManager.checkCanceled();
+        if (System.currentTimeMillis() > deadline) {
+          throw new ExecutionException("Dialyzer analysis timed out");
+        }
+      }
+      received = true;
+    }
+    catch (InterruptedException e) {
+      throw new ExecutionException("Interrupted while waiting for Dialyzer", e);
+    }
+    finally {
+      if (!received) cancel(node, id);
+    }
+    if (reply.myError != null) throw new ExecutionException("Dialyzer node failed", reply.myError);
+    OtpErlangObject value = reply.myValue;
+    assert value != null;
+    return value;
+  }
+
+  private void cancel(@NotNull Node node, long id) {
+    synchronized (myLock) {
+      if (node.myPendingReplies.remove(id) == null || node != myNode) return;
+      try {
+        send(node.mySocket, new OtpErlangTuple(new OtpErlangObject[]{new OtpErlangAtom("cancel"), new OtpErlangLong(id)}));
+      }
+      catch (IOException e) {
+        LOG.debug(e);
+      }
+    }
+  }
+
+  @NotNull
+  private Node ensureStarted(@NotNull String sdkHome, @NotNull String workingDir) throws ExecutionException {
+    String nodeKey = sdkHome + "|" + workingDir;
+    if (myNode != null && !myNode.myProcessHandler.isProcessTerminated() && nodeKey.equals(myNode.myKey)) {
+      return myNode;
+    }
+    stop();
+    Long failedAt = myFailedStarts.get(nodeKey);
+    if (failedAt != null && System.currentTimeMillis() - failedAt < RESTART_DELAY) {
+      throw new ExecutionException("Dialyzer node failed to start recently");
+    }
+
+    LOG.debug("Starting Dialyzer node.");
+    try {
+      Node node = startNode(sdkHome, workingDir, nodeKey);
+      myFailedStarts.remove(nodeKey);
+      return node;
+    }
+    catch (ExecutionException e) {
+      myFailedStarts.put(nodeKey, System.currentTimeMillis());
+      throw e;
+    }
+  }
+
+  @NotNull
+  private Node startNode(@NotNull String sdkHome, @NotNull String workingDir, @NotNull String nodeKey) throws ExecutionException {
+    File codePath = getServerModuleDirectory(sdkHome, workingDir);
+    OSProcessHandler processHandler = null;
+    try {
+      ServerSocket serverSocket = new ServerSocket(0);
+      try {
+        serverSocket.setSoTimeout(CONNECT_TIMEOUT);
+        GeneralCommandLine commandLine = new GeneralCommandLine();
+        commandLine.setWorkDirectory(workingDir);
+        commandLine.setExePath(JpsErlangSdkType.getByteCodeInterpreterExecutable(sdkHome).getAbsolutePath());
+        commandLine.addParameters("-noshell", "-pa", codePath.getPath(), "-run", MODULE, "main", String.valueOf(serverSocket.getLocalPort()));
+        processHandler = new OSProcessHandler(commandLine.createProcess(), commandLine.getCommandLineString());
+        processHandler.startNotify();
+
+        final Node node = new Node(nodeKey, processHandler, serverSocket.accept());
+        myNode = node;
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+          @Override
+          public void run() {
+            readReplies(node);
+          }
+        });
+        LOG.debug("Dialyzer node connected.");
+        return node;
+      }
+      finally {
+        serverSocket.close();
+      }
+    }
+    catch (IOException e) {
+      if (processHandler != null) processHandler.destroyProcess();
+      throw new ExecutionException("Failed to start Dialyzer node", e);
+    }
+  }
+
+  /**
+   * Hands each reply to the request with the same id. Replies to cancelled requests are dropped.
+   */
+  private void readReplies(@NotNull Node node) {
+    try {
+      //noinspection InfiniteLoopStatement
+      while (true) {
+        OtpErlangObject message = receive(node.mySocket);
+        if (message instanceof OtpErlangTuple && ((OtpErlangTuple) message).arity() == 2 &&
+            ((OtpErlangTuple) message).elementAt(0) instanceof OtpErlangLong) {
+          long id = ((OtpErlangLong) ((OtpErlangTuple) message).elementAt(0)).longValue();
+          PendingReply reply = node.myPendingReplies.remove(id);
+          if (reply != null) reply.complete(((OtpErlangTuple) message).elementAt(1));
+        }
+        else {
+          LOG.warn("Unexpected message from Dialyzer node: " + message);
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+      synchronized (myLock) {
+        if (myNode == node) stop();
+        node.fail(e);
+      }
+    }
+  }
+
+  private void stop() {
+    Node node = myNode;
+    if (node == null) return;
+    myNode = null;
+    try {
+      node.mySocket.close();
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+    }
+    node.myProcessHandler.destroyProcess();
+    node.fail(new IOException("Dialyzer node stopped"));
+  }
+
+  @NotNull
+  private File getServerModuleDirectory(@NotNull String sdkHome, @NotNull String workingDir) throws ExecutionException {
+    File directory = myCompiledModules.get(sdkHome);
+    if (directory == null || !new File(directory, MODULE + ".beam").exists()) {
+      directory = compileServerModule(sdkHome, workingDir);
+      myCompiledModules.put(sdkHome, directory);
+    }
+    return directory;
+  }
+
+  /**
+   * The modules are compiled with the SDK they run on, so a beam built by a newer release is never loaded by an older one.
+   * {@value #PLT_MODULE} needs Dialyzer's sources, without it the node reads the PLT on every request.
+   */
+  @NotNull
+  private static File compileServerModule(@NotNull String sdkHome, @NotNull String workingDir) throws ExecutionException {
+    File directory = null;
+    boolean compiled = false;
+    try {
+      directory = FileUtil.createTempDirectory("intellij_erlang_dialyzer_", null, true);
+      String erlc = JpsErlangSdkType.getByteCodeCompilerExecutable(sdkHome).getAbsolutePath();
+      ProcessOutput output = compileModule(directory, workingDir, erlc, MODULE);
+      if (!new File(directory, MODULE + ".beam").exists()) {
+        throw new ExecutionException("Failed to compile " + MODULE + ".erl: " + output.getStdout() + output.getStderr());
+      }
+      output = compileModule(directory, workingDir, erlc, PLT_MODULE);
+      if (!new File(directory, PLT_MODULE + ".beam").exists()) {
+        LOG.debug("PLT will be read on every request, failed to compile " + PLT_MODULE + ".erl: " + output.getStdout() + output.getStderr());
+      }
+      compiled = true;
+      return directory;
+    }
+    catch (IOException e) {
+      throw new ExecutionException("Failed to set up Dialyzer node", e);
+    }
+    finally {
+      if (!compiled && directory != null) FileUtil.delete(directory);
+    }
+  }
+
+  @NotNull
+  private static ProcessOutput compileModule(@NotNull File directory,
+                                             @NotNull String workingDir,
+                                             @NotNull String erlc,
+                                             @NotNull String module) throws IOException, ExecutionException {
+    File source = new File(directory, module + ".erl");
+    URL url = ResourceUtil.getResource(ErlangDialyzerServer.class, "/dialyzer/src", source.getName());
+    if (url == null) throw new ExecutionException("Failed to locate " + source.getName());
+    InputStream inputStream = URLUtil.openStream(url);
+    try {
+      FileUtil.writeToFile(source, StreamUtil.loadFromStream(inputStream));
+    }
+    finally {
+      inputStream.close();
+    }
+    return ErlangSystemUtil.getProcessOutput(workingDir, erlc, "-o", directory.getPath(), source.getPath());
+  }
+
+  @NotNull
+  private static List<Problem> parseReply(@NotNull OtpErlangObject reply) throws ExecutionException {
+    if (reply instanceof OtpErlangTuple && ((OtpErlangTuple) reply).arity() == 2) {
+      OtpErlangObject status = ((OtpErlangTuple) reply).elementAt(0);
+      OtpErlangObject value = ((OtpErlangTuple) reply).elementAt(1);
+      if (status instanceof OtpErlangAtom && "error".equals(((OtpErlangAtom) status).atomValue()) && value instanceof OtpErlangBinary) {
+        throw new DialyzerException(toString((OtpErlangBinary) value));
+      }
+      if (status instanceof OtpErlangAtom && "ok".equals(((OtpErlangAtom) status).atomValue()) && value instanceof OtpErlangList) {
+        List<Problem> problems = ContainerUtil.newArrayList();
+        for (OtpErlangObject warning : ((OtpErlangList) value).elements()) {
+          ContainerUtil.addIfNotNull(problems, parseWarning(warning));
+        }
+        return problems;
+      }
+    }
+    throw new ExecutionException("Unexpected reply from Dialyzer node: " + reply);
+  }
+
+  @Nullable
+  private static Problem parseWarning(@NotNull OtpErlangObject warning) {
+    if (!(warning instanceof OtpErlangTuple) || ((OtpErlangTuple) warning).arity() != 3) return null;
+    OtpErlangTuple tuple = (OtpErlangTuple) warning;
+    OtpErlangObject file = tuple.elementAt(0);
+    OtpErlangObject line = tuple.elementAt(1);
+    OtpErlangObject message = tuple.elementAt(2);
+    if (!(file instanceof OtpErlangBinary) || !(line instanceof OtpErlangLong) || !(message instanceof OtpErlangBinary)) return null;
+    return new Problem(toString((OtpErlangBinary) file), (int) ((OtpErlangLong) line).longValue(), toString((OtpErlangBinary) message));
+  }
+
+  @NotNull
+  private static String toString(@NotNull OtpErlangBinary binary) {
+    try {
+      return new String(binary.binaryValue(), "UTF-8");
+    }
+    catch (UnsupportedEncodingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void send(@NotNull Socket socket, @NotNull OtpErlangObject message) throws IOException {
+    byte[] bytes = new OtpOutputStream(message).toByteArray();
+    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+    out.writeInt(1 + bytes.length);
+    out.write(OtpExternal.versionTag);
+    out.write(bytes);
+    out.flush();
+  }
+
+  @NotNull
+  private static OtpErlangObject receive(@NotNull Socket socket) throws IOException {
+    DataInputStream in = new DataInputStream(socket.getInputStream());
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    try {
+      return new OtpInputStream(bytes).read_any();
+    }
+    catch (OtpErlangDecodeException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * @return a key which changes with the contents of the file and the PLT
+   */
+  @Nullable
+  private static String getResultKey(@NotNull String pltPath, @NotNull String filePath) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      digest.update(FileUtil.loadFileBytes(new File(filePath)));
+      long pltStamp = StringUtil.isEmpty(pltPath) ? 0 : new File(pltPath).lastModified();
+      return filePath + "|" + pltPath + "|" + pltStamp + "|" + StringUtil.toHexString(digest.digest());
+    }
+    catch (NoSuchAlgorithmException e) {
+      LOG.debug(e);
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+    }
+    return null;
+  }
+
+  public static class Problem {
+    private final String myFilePath;
+    private final int myLine;
+    private final String myDescription;
+
+    public Problem(@NotNull String filePath, int line, @NotNull String description) {
+      myFilePath = filePath;
+      myLine = line;
+      myDescription = description;
+    }
+
+    @NotNull
+    public String getFilePath() {
+      return myFilePath;
+    }
+
+    public int getLine() {
+      return myLine;
+    }
+
+    @NotNull
+    public String getDescription() {
+      return myDescription;
+    }
+
+    @Override
+    public String toString() {
+      return "Problem{" +
+        "myFilePath='" + myFilePath + '\'' +
+        ", myLine=" + myLine +
+        ", myDescription='" + myDescription + '\'' +
+        '}';
+    }
+  }
+
+  private static class Node {
+    private final String myKey;
+    private final OSProcessHandler myProcessHandler;
+    private final Socket mySocket;
+    private final Map<Long, PendingReply> myPendingReplies = ContainerUtil.newConcurrentMap();
+
+    private Node(@NotNull String key, @NotNull OSProcessHandler processHandler, @NotNull Socket socket) {
+      myKey = key;
+      myProcessHandler = processHandler;
+      mySocket = socket;
+    }
+
+    private void fail(@NotNull IOException error) {
+      for (Long id : ContainerUtil.newArrayList(myPendingReplies.keySet())) {
+        PendingReply reply = myPendingReplies.remove(id);
+        if (reply != null) reply.fail(error);
+      }
+    }
+  }
+
+  private static class PendingReply {
+    private final CountDownLatch myLatch = new CountDownLatch(1);
+    @Nullable
+    private volatile OtpErlangObject myValue;
+    @Nullable
+    private volatile IOException myError;
+
+    private void complete(@NotNull OtpErlangObject value) {
+      myValue = value;
+      myLatch.countDown();
+    }
+
+    private void fail(@NotNull IOException error) {
+      myError = error;
+      myLatch.countDown();
+    }
+  }
+
+  public static class DialyzerException extends ExecutionException {
+    public DialyzerException(String message) {
+      super(message);
+    }
+  }
+}
@@ -83,7 +83,20 @@ abstract class ErlangSdkDocProviderBase implements ElementDocProvider {
   @Nullable
   @Override
   public String getDocText() {
-    List<String> fileUrls = getFileUrls(getOrderEntries(), myVirtualFile);
+    String docPath = httpDocRelPath(myVirtualFile);
+    List<String> fileUrls = new ArrayList<String>();
+    for (VirtualFile docRoot : getLocalDocRoots(getOrderEntries())) {
+      ErlangSdkDocStore store = ErlangSdkDocStore.getStore(docRoot.getPath());
+      if (store != null && store.isIndexed(docPath)) {
+        String doc = store.getDoc(docPath + getInDocRef());
+        if (doc != null) {
+          return decorateRetrievedHtml(doc);
+        }
+      }
+      else {
+        fileUrls.add(docRoot.getUrl() + "/" + docPath);
+      }
+    }
     List<String> httpUrls = getExternalDocUrls();
     List<String> urls = new ArrayList<String>(fileUrls.size() + httpUrls.size());
     urls.addAll(fileUrls);
@@ -132,9 +145,10 @@ abstract class ErlangSdkDocProviderBase implements ElementDocProvider {
         return null;
       }
       StringBuilder builder = new StringBuilder(1024);
-      appendCorrectedLine(builder, line);
+      String moduleName = myVirtualFile.getNameWithoutExtension();
+      appendCorrectedLine(builder, line, moduleName);
       while ((line = reader.readLine()) != null && !isDocEnd(line)) {
-        appendCorrectedLine(builder, line);
+        appendCorrectedLine(builder, line, moduleName);
         builder.append("\n");
       }
       return builder.toString();
@@ -149,14 +163,14 @@ abstract class ErlangSdkDocProviderBase implements ElementDocProvider {
   }
 
   @NotNull
-  private String appendCorrectedLine(@NotNull StringBuilder builder, @NotNull String line) {
+  static String appendCorrectedLine(@NotNull StringBuilder builder, @NotNull String line, @NotNull String moduleName) {
     Matcher matcher = PATTERN_HREF.matcher(line);
     int lastCopiedChar = 0;
     while (matcher.find()) {
       MatchResult matchResult = matcher.toMatchResult();
       builder.append(line.substring(lastCopiedChar, matchResult.start()));
       String linkHref = matchResult.group(1);
-      String convertedLink = convertLink(linkHref);
+      String convertedLink = convertLink(linkHref, moduleName);
       builder.append("<a href=\"")
         .append(convertedLink)
         .append("\">");
@@ -190,22 +204,20 @@ abstract class ErlangSdkDocProviderBase implements ElementDocProvider {
   }
 
   @NotNull
-  private static List<String> getFileUrls(@NotNull List<OrderEntry> orderEntries,
-                                          @NotNull VirtualFile virtualFile) {
-    List<String> fileUrls = null;
+  private static List<VirtualFile> getLocalDocRoots(@NotNull List<OrderEntry> orderEntries) {
+    List<VirtualFile> docRoots = null;
     for (OrderEntry orderEntry : orderEntries) {
       VirtualFile[] docRootFiles = orderEntry.getFiles(JavadocOrderRootType.getInstance());
-      String sdkHttpDocRelPath = httpDocRelPath(virtualFile);
       for (VirtualFile docRootFile : docRootFiles) {
         if (docRootFile.isInLocalFileSystem()) {
-          if (fileUrls == null) {
-            fileUrls = new ArrayList<String>();
+          if (docRoots == null) {
+            docRoots = new ArrayList<VirtualFile>();
           }
-          fileUrls.add(docRootFile.getUrl() + "/" + sdkHttpDocRelPath);
+          docRoots.add(docRootFile);
         }
       }
     }
-    return fileUrls != null ? fileUrls : Collections.<String>emptyList();
+    return docRoots != null ? docRoots : Collections.<VirtualFile>emptyList();
   }
 
   @Nullable
@@ -226,7 +238,7 @@ abstract class ErlangSdkDocProviderBase implements ElementDocProvider {
     return null;
   }
 
-  @Nullable
+  @NotNull
   private static String httpDocRelPath(@NotNull VirtualFile virtualFile) {
     String appDirName = virtualFile.getParent().getParent().getName();
     String prefix;
@@ -269,7 +281,7 @@ abstract class ErlangSdkDocProviderBase implements ElementDocProvider {
   }
 
   @NotNull
-  private String convertLink(@NotNull String href) {
+  private static String convertLink(@NotNull String href, @NotNull String moduleName) {
     Matcher evaluatedLinkMatcher = PATTERN_EVALUATED_LINK.matcher(href);
     String concreteHref = evaluatedLinkMatcher.matches() ? evaluatedLinkMatcher.group(1) : href;
     Matcher externalLinkMatcher = PATTERN_EXTERNAL_LINK.matcher(concreteHref);
@@ -277,7 +289,7 @@ abstract class ErlangSdkDocProviderBase implements ElementDocProvider {
       return PSI_ELEMENT_PROTOCOL + externalLinkMatcher.group(1) + "#" + externalLinkMatcher.group(2);
     }
     if (concreteHref.charAt(0) == '#') {
-      return PSI_ELEMENT_PROTOCOL + myVirtualFile.getNameWithoutExtension() + concreteHref;
+      return PSI_ELEMENT_PROTOCOL + moduleName + concreteHref;
     }
     if (concreteHref.endsWith(".html")) {
       return PSI_ELEMENT_PROTOCOL + concreteHref.substring(0, concreteHref.length() - 5);
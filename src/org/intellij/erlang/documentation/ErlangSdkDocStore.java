@@ -0,0 +1,367 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.documentation;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * SDK HTML documentation split into fragments, one per module, function and type, with links already converted.
+ * <p/>
+ * The fragments are keyed the same way as the documentation urls, e.g. <code>lib/stdlib-1.18.2/doc/html/lists.html#map-2</code>,
+ * and stored in a hash table file under the system directory. Only the slot table is kept in memory; fragments are
+ * read from the file on lookup, so the file is never held open. The store is rebuilt when the documentation root
+ * path or the size or modification time of any of its pages change, see {@link #computeStamp(File)}.
+ */
+public final class ErlangSdkDocStore {
+  private static final Logger LOG = Logger.getInstance(ErlangSdkDocStore.class);
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int MAGIC = 0x45534453;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+  private static final String PAGE_MARKER = "!";
+
+  private static final Map<String, ErlangSdkDocStore> ourStores = ContainerUtil.newConcurrentMap();
+  private static final Set<String> ourPendingDocRoots = ContainerUtil.newConcurrentSet();
+  /**
+   * Stamps of the documentation roots which failed to index, so they aren't indexed again until they change.
+   */
+  private static final Map<String, Long> ourFailedStamps = ContainerUtil.newConcurrentMap();
+
+  private final File myFile;
+  private final long myStamp;
+  private final int[] mySlots;
+
+  private ErlangSdkDocStore(@NotNull File file, long stamp, @NotNull int[] slots) {
+    myFile = file;
+    myStamp = stamp;
+    mySlots = slots;
+  }
+
+  /**
+   * Indexes the documentation in background unless it's already indexed, or failed to index, and unchanged.
+   */
+  public static void prepare(@NotNull final String docRootPath) {
+    if (!ourPendingDocRoots.add(docRootPath)) return;
+    ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          index(docRootPath);
+        }
+        finally {
+          ourPendingDocRoots.remove(docRootPath);
+        }
+      }
+    });
+  }
+
+  private static void index(@NotNull String docRootPath) {
+    File docRoot = new File(docRootPath);
+    long stamp = computeStamp(docRoot);
+    ErlangSdkDocStore current = ourStores.get(docRootPath);
+    if (current != null && current.myStamp == stamp) return;
+    Long failedStamp = ourFailedStamps.get(docRootPath);
+    if (failedStamp != null && failedStamp == stamp) return;
+    try {
+      File storeFile = getStoreFile(docRoot);
+      ErlangSdkDocStore store = open(storeFile, stamp);
+      if (store == null) {
+        build(docRoot, storeFile);
+        store = open(storeFile, stamp);
+      }
+      if (store != null) {
+        ourStores.put(docRootPath, store);
+        ourFailedStamps.remove(docRootPath);
+        return;
+      }
+    }
+    catch (IOException e) {
+      LOG.warn("Failed to index documentation in " + docRootPath, e);
+    }
+    ourStores.remove(docRootPath);
+    ourFailedStamps.put(docRootPath, stamp);
+  }
+
+  /**
+   * @return the store for the documentation root or null if it isn't indexed yet, in which case indexing is started
+   * unless the same documentation failed to index before
+   */
+  @Nullable
+  static ErlangSdkDocStore getStore(@NotNull String docRootPath) {
+    ErlangSdkDocStore store = ourStores.get(docRootPath);
+    if (store == null) prepare(docRootPath);
+    return store;
+  }
+
+  boolean isIndexed(@NotNull String docPath) {
+    return get(docPath + PAGE_MARKER) != null;
+  }
+
+  @Nullable
+  String getDoc(@NotNull String key) {
+    return get(key);
+  }
+
+  @Nullable
+  private String get(@NotNull String key) {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    RandomAccessFile file = null;
+    try {
+      for (int slot = getSlot(key, mySlots.length); ; slot = (slot + 1) & (mySlots.length - 1)) {
+        int offset = mySlots[slot];
+        if (offset == 0) return null;
+        if (file == null) file = new RandomAccessFile(myFile, "r");
+        file.seek(offset);
+        if (file.readInt() == keyBytes.length && matches(file, keyBytes)) {
+          byte[] value = new byte[file.readInt()];
+          file.readFully(value);
+          return new String(value, UTF_8);
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.warn("Failed to read documentation from " + myFile, e);
+      return null;
+    }
+    finally {
+      closeQuietly(file);
+    }
+  }
+
+  private static boolean matches(@NotNull DataInput input, @NotNull byte[] bytes) throws IOException {
+    byte[] actual = new byte[bytes.length];
+    input.readFully(actual);
+    return Arrays.equals(actual, bytes);
+  }
+
+  private static void closeQuietly(@Nullable Closeable closeable) {
+    if (closeable == null) return;
+    try {
+      closeable.close();
+    }
+    catch (IOException ignored) {
+    }
+  }
+
+  private static int getSlot(@NotNull String key, int slotCount) {
+    int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & (slotCount - 1);
+  }
+
+  @NotNull
+  private static File getStoreFile(@NotNull File docRoot) {
+    String path = FileUtil.toSystemIndependentName(docRoot.getAbsolutePath());
+    String name = FileUtil.sanitizeFileName(docRoot.getName()) + "." + Integer.toHexString(path.hashCode()) + ".dat";
+    return new File(PathManager.getSystemPath() + "/erlang/sdkDoc", name);
+  }
+
+  /**
+   * @return the store or null if the file doesn't exist or was built for another version of the documentation
+   */
+  @Nullable
+  static ErlangSdkDocStore open(@NotNull File storeFile, long docRootStamp) throws IOException {
+    if (!storeFile.isFile()) return null;
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(storeFile)));
+    try {
+      if (storeFile.length() < HEADER_SIZE || in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != docRootStamp) {
+        return null;
+      }
+      int[] slots = new int[in.readInt()];
+      for (int i = 0; i < slots.length; i++) {
+        slots[i] = in.readInt();
+      }
+      return new ErlangSdkDocStore(storeFile, docRootStamp, slots);
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  /**
+   * @return a hash of the root's path and of the path, size and modification time of every documentation page
+   */
+  static long computeStamp(@NotNull File docRoot) {
+    long stamp = FileUtil.toSystemIndependentName(docRoot.getAbsolutePath()).hashCode();
+    for (Map.Entry<String, File> page : listPages(docRoot).entrySet()) {
+      stamp = stamp * 31 + page.getKey().hashCode();
+      stamp = stamp * 31 + page.getValue().length();
+      stamp = stamp * 31 + page.getValue().lastModified();
+    }
+    return stamp;
+  }
+
+  /**
+   * Splits all <code>erts-*&#47;doc/html/*.html</code> and <code>lib/*&#47;doc/html/*.html</code> pages of the root.
+   */
+  static void build(@NotNull File docRoot, @NotNull File storeFile) throws IOException {
+    Map<String, String> fragments = new LinkedHashMap<String, String>();
+    for (Map.Entry<String, File> page : listPages(docRoot).entrySet()) {
+      String name = page.getValue().getName();
+      indexPage(readLines(page.getValue()), name.substring(0, name.length() - ".html".length()), page.getKey(), fragments);
+    }
+    write(fragments, computeStamp(docRoot), storeFile);
+  }
+
+  /**
+   * @return documentation pages by their paths relative to the root, sorted by path
+   */
+  @NotNull
+  private static Map<String, File> listPages(@NotNull File docRoot) {
+    Map<String, File> pages = new TreeMap<String, File>();
+    File[] rootChildren = docRoot.listFiles();
+    for (File child : rootChildren != null ? rootChildren : new File[0]) {
+      if (child.getName().startsWith("erts")) {
+        listApplicationPages(child, child.getName() + "/doc/html/", pages);
+      }
+    }
+    File[] applications = new File(docRoot, "lib").listFiles();
+    for (File application : applications != null ? applications : new File[0]) {
+      listApplicationPages(application, "lib/" + application.getName() + "/doc/html/", pages);
+    }
+    return pages;
+  }
+
+  private static void listApplicationPages(@NotNull File application, @NotNull String docPath, @NotNull Map<String, File> pages) {
+    File[] files = new File(application, "doc/html").listFiles();
+    if (files == null) return;
+    for (File page : files) {
+      if (page.isFile() && page.getName().endsWith(".html")) pages.put(docPath + page.getName(), page);
+    }
+  }
+
+  static void indexPage(@NotNull List<String> lines,
+                        @NotNull String moduleName,
+                        @NotNull String pagePath,
+                        @NotNull Map<String, String> fragments) {
+    fragments.put(pagePath + PAGE_MARKER, "");
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i);
+      if (ErlangSdkModuleDocProvider.isModuleDocBegin(line) && !fragments.containsKey(pagePath)) {
+        fragments.put(pagePath, collectDoc(lines, i, moduleName, DocKind.MODULE));
+      }
+      String typeName = ErlangSdkTypeDocProvider.getTypeName(line);
+      if (typeName != null && !fragments.containsKey(pagePath + "#type-" + typeName)) {
+        fragments.put(pagePath + "#type-" + typeName, collectDoc(lines, i, moduleName, DocKind.TYPE));
+      }
+      for (String anchor : ErlangSdkFunctionDocProvider.getDocAnchors(line)) {
+        if (!fragments.containsKey(pagePath + "#" + anchor)) {
+          fragments.put(pagePath + "#" + anchor, collectDoc(lines, i, moduleName, DocKind.FUNCTION));
+        }
+      }
+    }
+  }
+
+  @NotNull
+  private static String collectDoc(@NotNull List<String> lines, int begin, @NotNull String moduleName, @NotNull DocKind kind) {
+    StringBuilder builder = new StringBuilder(1024);
+    ErlangSdkDocProviderBase.appendCorrectedLine(builder, lines.get(begin), moduleName);
+    for (int i = begin + 1; i < lines.size() && !kind.isDocEnd(lines.get(i)); i++) {
+      ErlangSdkDocProviderBase.appendCorrectedLine(builder, lines.get(i), moduleName);
+      builder.append("\n");
+    }
+    return builder.toString();
+  }
+
+  @NotNull
+  private static List<String> readLines(@NotNull File file) throws IOException {
+    List<String> lines = new ArrayList<String>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+    finally {
+      reader.close();
+    }
+    return lines;
+  }
+
+  private static void write(@NotNull Map<String, String> fragments, long docRootStamp, @NotNull File storeFile) throws IOException {
+    int slotCount = Integer.highestOneBit(Math.max(fragments.size(), 1) * 2) * 2;
+    int[] slots = new int[slotCount];
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(data);
+    int dataStart = HEADER_SIZE + 4 * slotCount;
+    for (Map.Entry<String, String> entry : fragments.entrySet()) {
+      int slot = getSlot(entry.getKey(), slotCount);
+      while (slots[slot] != 0) slot = (slot + 1) & (slotCount - 1);
+      slots[slot] = dataStart + dataOut.size();
+      byte[] key = entry.getKey().getBytes(UTF_8);
+      byte[] value = entry.getValue().getBytes(UTF_8);
+      dataOut.writeInt(key.length);
+      dataOut.write(key);
+      dataOut.writeInt(value.length);
+      dataOut.write(value);
+    }
+
+    FileUtil.createParentDirs(storeFile);
+    File tempFile = new File(storeFile.getPath() + ".tmp");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(docRootStamp);
+      out.writeInt(slotCount);
+      for (int offset : slots) {
+        out.writeInt(offset);
+      }
+      data.writeTo(out);
+    }
+    finally {
+      out.close();
+    }
+    FileUtil.delete(storeFile);
+    if (!tempFile.renameTo(storeFile)) {
+      throw new IOException("Failed to rename " + tempFile + " to " + storeFile);
+    }
+  }
+
+  private enum DocKind {
+    MODULE {
+      @Override
+      boolean isDocEnd(@NotNull String line) {
+        return ErlangSdkModuleDocProvider.isModuleDocEnd(line);
+      }
+    },
+    TYPE {
+      @Override
+      boolean isDocEnd(@NotNull String line) {
+        return ErlangSdkTypeDocProvider.isTypeDocEnd(line);
+      }
+    },
+    FUNCTION {
+      @Override
+      boolean isDocEnd(@NotNull String line) {
+        return ErlangSdkFunctionDocProvider.isFunctionDocEnd(line);
+      }
+    };
+
+    abstract boolean isDocEnd(@NotNull String line);
+  }
+}
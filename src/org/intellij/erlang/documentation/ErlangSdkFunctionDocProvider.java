@@ -20,6 +20,9 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,23 +49,31 @@ final class ErlangSdkFunctionDocProvider extends ErlangSdkDocProviderBase {
 
   @Override
   public boolean isDocBegin(@NotNull String line) {
-    Matcher matcher = PATTERN_FUNC_BEGIN.matcher(line);
-    while (matcher.find()) {
-      if (matcher.group(1).equals(myFuncSignature)) {
-        return true;
-      }
-    }
-    matcher = PATTERN_BIF_BEGIN.matcher(line);
-    while (matcher.find()) {
-      if (matcher.group(1).equals(myFuncSignature)) {
-        return true;
-      }
-    }
-    return false;
+    return getDocAnchors(line).contains(myFuncSignature);
   }
 
   @Override
   public boolean isDocEnd(@NotNull String line) {
+    return isFunctionDocEnd(line);
+  }
+
+  /**
+   * @return <code>name-arity</code> anchors of the functions documented starting from the line
+   */
+  @NotNull
+  static List<String> getDocAnchors(@NotNull String line) {
+    List<String> anchors = null;
+    for (Pattern pattern : new Pattern[]{PATTERN_FUNC_BEGIN, PATTERN_BIF_BEGIN}) {
+      Matcher matcher = pattern.matcher(line);
+      while (matcher.find()) {
+        if (anchors == null) anchors = new ArrayList<String>(1);
+        anchors.add(matcher.group(1));
+      }
+    }
+    return anchors != null ? anchors : Collections.<String>emptyList();
+  }
+
+  static boolean isFunctionDocEnd(@NotNull String line) {
     return PATTERN_FUNC_BEGIN.matcher(line).find() || PATTERN_BIF_BEGIN.matcher(line).find()
       || PATTERN_END_OF_DOC.matcher(line).matches();
   }
@@ -38,11 +38,19 @@ final class ErlangSdkModuleDocProvider extends ErlangSdkDocProviderBase {
 
   @Override
   public boolean isDocBegin(@NotNull String line) {
-    return PATTERN_MODULE_BEGIN.matcher(line).matches();
+    return isModuleDocBegin(line);
   }
 
   @Override
   public boolean isDocEnd(@NotNull String line) {
+    return isModuleDocEnd(line);
+  }
+
+  static boolean isModuleDocBegin(@NotNull String line) {
+    return PATTERN_MODULE_BEGIN.matcher(line).matches();
+  }
+
+  static boolean isModuleDocEnd(@NotNull String line) {
     return PATTERN_MODULE_END.matcher(line).matches();
   }
 }
@@ -19,6 +19,7 @@ package org.intellij.erlang.documentation;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -43,12 +44,24 @@ final class ErlangSdkTypeDocProvider extends ErlangSdkDocProviderBase {
 
   @Override
   protected boolean isDocBegin(@NotNull String line) {
-    Matcher matcher = PATTERN_TYPE_BEGIN.matcher(line);
-    return matcher.matches() && matcher.group(1).equals(myTypeName);
+    return myTypeName.equals(getTypeName(line));
   }
 
   @Override
   protected boolean isDocEnd(@NotNull String line) {
+    return isTypeDocEnd(line);
+  }
+
+  /**
+   * @return the name of the type documented starting from the line
+   */
+  @Nullable
+  static String getTypeName(@NotNull String line) {
+    Matcher matcher = PATTERN_TYPE_BEGIN.matcher(line);
+    return matcher.matches() ? matcher.group(1) : null;
+  }
+
+  static boolean isTypeDocEnd(@NotNull String line) {
     return PATTERN_TYPE_BEGIN.matcher(line).matches() || PATTERN_FUNC_BEGIN.matcher(line).matches();
   }
 }
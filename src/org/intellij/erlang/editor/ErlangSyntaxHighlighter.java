@@ -58,7 +58,7 @@ public class ErlangSyntaxHighlighter extends SyntaxHighlighterBase {
   @NotNull
   @Override
   public Lexer getHighlightingLexer() {
-    return new ErlangLexer();
+    return new ErlangLexer(true);
   }
 
   @NotNull
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.intellij.erlang.ErlangFileType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Maps an OTP application name to paths of its header files relative to the application directory,
+ * e.g. <code>stdlib -> include/qlc.hrl</code>, which is what <code>-include_lib</code> refers to.
+ * <p/>
+ * The application directory of a header is the parent of its closest <code>include</code> or <code>src</code> ancestor,
+ * its name with the version suffix dropped is the application name.
+ */
+public class ErlangHeaderPathIndex extends FileBasedIndexExtension<String, String> {
+  private static final ID<String, String> ERLANG_HEADER_PATH_INDEX = ID.create("ErlangHeaderPathIndex");
+  private static final int INDEX_VERSION = 1;
+  private static final EnumeratorStringDescriptor DESCRIPTOR = new EnumeratorStringDescriptor();
+  private static final FileBasedIndex.InputFilter INPUT_FILTER = new FileBasedIndex.InputFilter() {
+    @Override
+    public boolean acceptInput(@NotNull VirtualFile file) {
+      return file.getFileType() == ErlangFileType.HEADER;
+    }
+  };
+
+  @NotNull
+  private final DataIndexer<String, String, FileContent> myDataIndexer = new MyDataIndexer();
+
+  @NotNull
+  @Override
+  public ID<String, String> getName() {
+    return ERLANG_HEADER_PATH_INDEX;
+  }
+
+  @Override
+  public int getVersion() {
+    return INDEX_VERSION;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, String, FileContent> getIndexer() {
+    return myDataIndexer;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return DESCRIPTOR;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<String> getValueExternalizer() {
+    return DESCRIPTOR;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return INPUT_FILTER;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return false;
+  }
+
+  /**
+   * @return names of applications having header files
+   */
+  @NotNull
+  public static Collection<String> getApplicationNames(@NotNull Project project) {
+    return FileBasedIndex.getInstance().getAllKeys(ERLANG_HEADER_PATH_INDEX, project);
+  }
+
+  /**
+   * @return header files of the application, taken from its latest version when there are several of them
+   */
+  @Nullable
+  public static ApplicationHeaders getApplicationHeaders(@NotNull final String appName, @NotNull GlobalSearchScope searchScope) {
+    final Map<VirtualFile, ApplicationHeaders> headersByRoot = new HashMap<VirtualFile, ApplicationHeaders>();
+    FileBasedIndex.getInstance().processValues(ERLANG_HEADER_PATH_INDEX, appName, null, new FileBasedIndex.ValueProcessor<String>() {
+      @Override
+      public boolean process(@NotNull VirtualFile file, @NotNull String relativePath) {
+        VirtualFile appRoot = file;
+        for (int i = StringUtil.countChars(relativePath, '/'); i >= 0 && appRoot != null; i--) {
+          appRoot = appRoot.getParent();
+        }
+        if (appRoot == null) return true;
+        ApplicationHeaders headers = headersByRoot.get(appRoot);
+        if (headers == null) {
+          headers = new ApplicationHeaders(appRoot);
+          headersByRoot.put(appRoot, headers);
+        }
+        headers.myRelativePaths.add(relativePath);
+        return true;
+      }
+    }, searchScope);
+
+    ApplicationHeaders result = null;
+    for (ApplicationHeaders headers : headersByRoot.values()) {
+      // applications with no version specification have higher priority
+      String name = headers.getRoot().getName();
+      if (result == null || name.equals(appName) ||
+          !result.getRoot().getName().equals(appName) && result.getRoot().getName().compareTo(name) < 0) {
+        result = headers;
+      }
+    }
+    return result;
+  }
+
+  @NotNull
+  public static String getApplicationName(@NotNull VirtualFile appRoot) {
+    String appFullName = appRoot.getName();
+    int dashIdx = appFullName.indexOf('-');
+    return dashIdx != -1 ? appFullName.substring(0, dashIdx) : appFullName;
+  }
+
+  public static final class ApplicationHeaders {
+    private final VirtualFile myRoot;
+    private final List<String> myRelativePaths = new ArrayList<String>();
+
+    private ApplicationHeaders(@NotNull VirtualFile root) {
+      myRoot = root;
+    }
+
+    @NotNull
+    public VirtualFile getRoot() {
+      return myRoot;
+    }
+
+    /**
+     * @return '/'-separated paths relative to the application directory
+     */
+    @NotNull
+    public List<String> getRelativePaths() {
+      return myRelativePaths;
+    }
+  }
+
+  private static class MyDataIndexer implements DataIndexer<String, String, FileContent> {
+    @NotNull
+    @Override
+    public Map<String, String> map(@NotNull FileContent inputData) {
+      VirtualFile file = inputData.getFile();
+      String relativePath = file.getName();
+      for (VirtualFile dir = file.getParent(); dir != null; dir = dir.getParent()) {
+        relativePath = dir.getName() + "/" + relativePath;
+        VirtualFile appRoot = dir.getParent();
+        if (appRoot != null && ("include".equals(dir.getName()) || "src".equals(dir.getName()))) {
+          return Collections.singletonMap(getApplicationName(appRoot), relativePath);
+        }
+      }
+      return Collections.emptyMap();
+    }
+  }
+}
@@ -105,6 +105,24 @@ public class ErlangModuleIndex extends ScalarIndexExtension<String> {
     });
   }
 
+  /**
+   * Same as {@link #getFilesByName} but the files are not ordered, which is too costly to do for every module,
+   * e.g. while looking through all of them for completion.
+   */
+  @NotNull
+  public static List<ErlangFile> getFilesByNameUnordered(@NotNull Project project, @NotNull String name, @NotNull GlobalSearchScope searchScope) {
+    final PsiManager psiManager = PsiManager.getInstance(project);
+    Collection<VirtualFile> virtualFiles = FileBasedIndex.getInstance().getContainingFiles(ERLANG_MODULE_INDEX, name, searchScope);
+    return ContainerUtil.mapNotNull(virtualFiles, new Function<VirtualFile, ErlangFile>() {
+      @Nullable
+      @Override
+      public ErlangFile fun(@NotNull VirtualFile virtualFile) {
+        PsiFile psiFile = psiManager.findFile(virtualFile);
+        return psiFile instanceof ErlangFile ? (ErlangFile) psiFile : null;
+      }
+    });
+  }
+
   @NotNull
   private static <T> List<T> getByName(@NotNull Project project, @NotNull String name, @NotNull GlobalSearchScope searchScope, @NotNull final Function<ErlangFile, T> psiMapper) {
     final PsiManager psiManager = PsiManager.getInstance(project);
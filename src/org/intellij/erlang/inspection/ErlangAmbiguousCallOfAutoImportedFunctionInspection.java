@@ -48,7 +48,7 @@ public class ErlangAmbiguousCallOfAutoImportedFunctionInspection extends ErlangI
         if (o.getQAtom().getMacros() != null) return;
         String name = o.getName();
         int arity = o.getArgumentList().getExpressionList().size();
-        ErlangBifDescriptor bifDescriptor = ErlangBifTable.getBif("erlang", name, arity);
+        ErlangBifDescriptor bifDescriptor = ErlangBifTable.getBif(ErlangSdkType.getRelease(o), "erlang", name, arity);
         if (bifDescriptor == null
           || !bifDescriptor.isAutoImported()
           || ((ErlangFile) o.getContainingFile()).isNoAutoImport(name, arity)
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import com.intellij.codeHighlighting.Pass;
+import com.intellij.codeHighlighting.TextEditorHighlightingPass;
+import com.intellij.codeHighlighting.TextEditorHighlightingPassFactory;
+import com.intellij.codeHighlighting.TextEditorHighlightingPassRegistrar;
+import com.intellij.codeInsight.daemon.HighlightDisplayKey;
+import com.intellij.codeInsight.daemon.impl.DaemonCodeAnalyzerEx;
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.codeInsight.daemon.impl.UpdateHighlightersUtil;
+import com.intellij.codeInspection.InspectionProfile;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.psi.ErlangFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Shows the problems {@link ErlangInspectionCache} keeps for an unchanged file as soon as it's opened. They are put
+ * into the highlighter groups of the inspections and external annotators passes, so those passes replace them
+ * with their own results once they complete.
+ */
+public class ErlangCachedProblemsPassFactory extends AbstractProjectComponent implements TextEditorHighlightingPassFactory {
+  public ErlangCachedProblemsPassFactory(@NotNull Project project, @NotNull TextEditorHighlightingPassRegistrar registrar) {
+    super(project);
+    registrar.registerTextEditorHighlightingPass(this, null, null, false, -1);
+  }
+
+  @Override
+  public void projectOpened() {
+    if (ApplicationManager.getApplication().isUnitTestMode()) return;
+    ErlangInspectionCache.getInstance(myProject).startPrewarmingOnIdle();
+  }
+
+  @Override
+  public void projectClosed() {
+    if (ApplicationManager.getApplication().isUnitTestMode()) return;
+    ErlangInspectionCache cache = ErlangInspectionCache.getInstance(myProject);
+    cache.stopPrewarmingOnIdle();
+    cache.saveIfModified();
+  }
+
+  @Nullable
+  @Override
+  public TextEditorHighlightingPass createHighlightingPass(@NotNull PsiFile file, @NotNull Editor editor) {
+    if (!(file instanceof ErlangFile) || !ErlangInspectionCacheSettings.getInstance(myProject).isEnabled()) return null;
+    return new CachedProblemsPass((ErlangFile) file, editor.getDocument());
+  }
+
+  private static class CachedProblemsPass extends TextEditorHighlightingPass {
+    private final ErlangFile myFile;
+    private final List<HighlightInfo> myInspectionInfos = ContainerUtil.newArrayList();
+    private final List<HighlightInfo> myExternalInfos = ContainerUtil.newArrayList();
+
+    CachedProblemsPass(@NotNull ErlangFile file, @NotNull Document document) {
+      super(file.getProject(), document, false);
+      myFile = file;
+    }
+
+    @Override
+    public void doCollectInformation(@NotNull ProgressIndicator progress) {
+      if (!isPending(Pass.LOCAL_INSPECTIONS) && !isPending(Pass.EXTERNAL_TOOLS)) return;
+      List<ErlangInspectionCache.CachedProblem> problems = ErlangInspectionCache.getInstance(myProject).getProblems(myFile);
+      if (problems == null) return;
+
+      InspectionProfile profile = InspectionProjectProfileManager.getInstance(myProject).getInspectionProfile();
+      int length = myDocument.getTextLength();
+      for (ErlangInspectionCache.CachedProblem problem : problems) {
+        HighlightDisplayKey key = HighlightDisplayKey.find(problem.getToolId());
+        if (key == null || !profile.isToolEnabled(key, myFile) || problem.getEndOffset() > length) continue;
+        HighlightInfo info = HighlightInfo.newHighlightInfo(problem.getKind().getHighlightInfoType())
+          .range(problem.getStartOffset(), problem.getEndOffset())
+          .descriptionAndTooltip(problem.getMessage())
+          .create();
+        ContainerUtil.addIfNotNull(problem.getPassId() == Pass.LOCAL_INSPECTIONS ? myInspectionInfos : myExternalInfos, info);
+      }
+    }
+
+    @Override
+    public void doApplyInformationToEditor() {
+      applyInfos(myInspectionInfos, Pass.LOCAL_INSPECTIONS);
+      applyInfos(myExternalInfos, Pass.EXTERNAL_TOOLS);
+    }
+
+    private void applyInfos(@NotNull List<HighlightInfo> infos, int passId) {
+      if (infos.isEmpty() || !isPending(passId)) return;
+      UpdateHighlightersUtil.setHighlightersToEditor(myProject, myDocument, 0, myDocument.getTextLength(), infos, getColorsScheme(), passId);
+    }
+
+    /**
+     * Cached problems are shown only until the pass they stand in for has analysed the file, so that its own
+     * results, which come with quick fixes, are never overwritten.
+     */
+    private boolean isPending(int passId) {
+      return DaemonCodeAnalyzerEx.getInstanceEx(myProject).getFileStatusMap().getFileDirtyScope(myDocument, passId) != null;
+    }
+  }
+}
@@ -19,6 +19,7 @@ package org.intellij.erlang.inspection;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
 import org.intellij.erlang.ErlangFileType;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunction;
@@ -36,14 +37,15 @@ public class ErlangDefiningImportedFunctionInspection extends ErlangInspectionBa
     return file.getFileType() == ErlangFileType.MODULE && !file.isExportedAll();
   }
 
-  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder) {
+  @Override
+  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder, @NotNull ErlangInspectionSession session) {
     Set<String> importedFunctionNames = ContainerUtil.newHashSet();
     for (ErlangImportFunction f : file.getImportedFunctions()) {
       importedFunctionNames.add(ErlangPsiImplUtil.createFunctionPresentation(f));
     }
-    for (ErlangFunction function : file.getFunctions()) {
-      String fullName = ErlangPsiImplUtil.createFunctionPresentation(function);
-      if (importedFunctionNames.contains(fullName)) {
+    MultiMap<String, ErlangFunction> functions = session.getFunctionsBySignature();
+    for (String fullName : importedFunctionNames) {
+      for (ErlangFunction function : functions.get(fullName)) {
         problemsHolder.registerProblem(
           function.getNameIdentifier(),
           "Defining imported function '" + fullName + "'",
@@ -17,36 +17,24 @@
 package org.intellij.erlang.inspection;
 
 import com.intellij.codeInspection.ProblemsHolder;
-import com.intellij.psi.PsiElement;
-import com.intellij.util.containers.ContainerUtil;
-import org.intellij.erlang.psi.*;
-import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import com.intellij.util.containers.MultiMap;
+import org.intellij.erlang.psi.ErlangExportFunction;
+import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.quickfixes.ErlangRemoveDuplicateFunctionExportFix;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-import java.util.Set;
-
 public class ErlangDuplicateFunctionExportInspection extends ErlangInspectionBase {
   @Override
-  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder) {
-    Set<String> exported = ContainerUtil.newHashSet();
-    for (ErlangAttribute attribute : file.getAttributes()) {
-      ErlangExport export = attribute.getExport();
-      ErlangExportFunctions exportFunctions = export != null ? export.getExportFunctions() : null;
-      if (exportFunctions == null) continue;
-      List<ErlangExportFunction> list = exportFunctions.getExportFunctionList();
-      for (ErlangExportFunction exportFunction : list) {
-        PsiElement integer = exportFunction.getInteger();
-        if (integer == null) continue;
-        String s = ErlangPsiImplUtil.getExportFunctionName(exportFunction) + "/" + integer.getText();
-        if (exported.contains(s)) {
+  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder, @NotNull ErlangInspectionSession session) {
+    MultiMap<String, ErlangExportFunction> exports = session.getExportsBySignature();
+    for (String s : exports.keySet()) {
+      boolean exported = false;
+      for (ErlangExportFunction exportFunction : exports.get(s)) {
+        if (exported) {
           problemsHolder.registerProblem(exportFunction, "Function " + "'" + s + "' has been already exported.",
             new ErlangRemoveDuplicateFunctionExportFix());
         }
-        else {
-          exported.add(s);
-        }
+        exported = true;
       }
     }
   }
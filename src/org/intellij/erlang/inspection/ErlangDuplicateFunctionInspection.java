@@ -17,7 +17,6 @@
 package org.intellij.erlang.inspection;
 
 import com.intellij.codeInspection.ProblemsHolder;
-import com.intellij.openapi.util.Pair;
 import com.intellij.util.containers.MultiMap;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunction;
@@ -27,17 +26,13 @@ import java.util.Collection;
 
 public class ErlangDuplicateFunctionInspection extends ErlangInspectionBase {
   @Override
-  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder) {
-    MultiMap<Pair<String, Integer>, ErlangFunction> map = new MultiMap<Pair<String, Integer>, ErlangFunction>();
-    for (ErlangFunction fun : file.getFunctions()) {
-      map.putValue(Pair.create(fun.getName(), fun.getArity()), fun);
-    }
-
-    for (Pair<String, Integer> pair : map.keySet()) {
-      Collection<ErlangFunction> erlangFunctions = map.get(pair);
+  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder, @NotNull ErlangInspectionSession session) {
+    MultiMap<String, ErlangFunction> map = session.getFunctionsBySignature();
+    for (String signature : map.keySet()) {
+      Collection<ErlangFunction> erlangFunctions = map.get(signature);
       if (erlangFunctions.size() > 1) {
         for (ErlangFunction fun : erlangFunctions) {
-          problemsHolder.registerProblem(fun.getNameIdentifier(), "Duplicate function " + "'" + fun.getName() + "/" + fun.getArity() + "'");
+          problemsHolder.registerProblem(fun.getNameIdentifier(), "Duplicate function " + "'" + signature + "'");
         }
       }
     }
@@ -17,6 +17,7 @@
 package org.intellij.erlang.inspection;
 
 import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.containers.ContainerUtil;
 import org.intellij.erlang.bif.ErlangOperatorTable;
 import org.intellij.erlang.psi.*;
@@ -42,42 +43,15 @@ public class ErlangIllegalGuardInspection extends ErlangInspectionBase {
     "size/1", "tl/1", "trunc/1", "tuple_size/1");
 
   @Override
-  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder holder) {
-    for (ErlangFunction function : file.getFunctions()) {
-      for (ErlangFunctionClause clause : function.getFunctionClauseList()) {
-        ErlangClauseGuard guard = clause.getClauseGuard();
-        if (guard != null) {
-          guard.accept(new GuardInspector(holder));
-        }
-        ErlangClauseBody clauseBody = clause.getClauseBody();
-        if (clauseBody != null) {
-          clauseBody.accept(new GuardDetector(holder));
-        }
+  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder holder, @NotNull ErlangInspectionSession session) {
+    for (ErlangGuard guard : session.getElements(ErlangGuard.class)) {
+      // nested guards are checked along with the outermost one
+      if (PsiTreeUtil.getParentOfType(guard, ErlangGuard.class, ErlangFunction.class) instanceof ErlangFunction) {
+        guard.accept(new GuardInspector(holder));
       }
     }
   }
 
-  private class GuardDetector extends ErlangRecursiveVisitor {
-    private final ProblemsHolder myHolder;
-
-    public GuardDetector(ProblemsHolder holder) {
-      this.myHolder = holder;
-    }
-
-    @Override
-    public void visitClauseGuard(@NotNull ErlangClauseGuard o) {
-      ErlangGuard guard = o.getGuard();
-      if (guard != null) {
-        guard.accept(new GuardInspector(myHolder));
-      }
-    }
-
-    @Override
-    public void visitGuard(@NotNull ErlangGuard o) {
-      o.accept(new GuardInspector(myHolder));
-    }
-  }
-
   private class GuardInspector extends ErlangRecursiveVisitor {
     private final ProblemsHolder myHolder;
 
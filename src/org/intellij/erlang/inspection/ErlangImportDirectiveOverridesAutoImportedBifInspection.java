@@ -36,11 +36,12 @@ public class ErlangImportDirectiveOverridesAutoImportedBifInspection extends Erl
   }
 
   protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder) {
+    ErlangSdkRelease release = ErlangSdkType.getRelease(file);
     for (ErlangImportFunction importFunction : file.getImportedFunctions()) {
       String name = ErlangPsiImplUtil.getName(importFunction);
       int arity = ErlangPsiImplUtil.getArity(importFunction);
 
-      ErlangBifDescriptor bifDescriptor = ErlangBifTable.getBif("erlang", name, arity);
+      ErlangBifDescriptor bifDescriptor = ErlangBifTable.getBif(release, "erlang", name, arity);
       if (bifDescriptor == null || !bifDescriptor.isAutoImported() || file.isNoAutoImport(name, arity)) continue;
 
       String errorMessage = "Import directive overrides pre R14 auto-imported BIF '" +
@@ -63,15 +63,24 @@ abstract public class ErlangInspectionBase extends LocalInspectionTool implement
   }
 
   @NotNull
-  protected ErlangVisitor buildErlangVisitor(@NotNull final ProblemsHolder holder, @NotNull LocalInspectionToolSession session) {
+  protected ErlangVisitor buildErlangVisitor(@NotNull final ProblemsHolder holder, @NotNull final LocalInspectionToolSession session) {
     return new ErlangVisitor() {
       @Override
       public void visitFile(PsiFile file) {
-        checkFile((ErlangFile)file, holder);
+        checkFile((ErlangFile)file, holder, getErlangSession(session));
       }
     };
   }
 
+  @NotNull
+  protected static ErlangInspectionSession getErlangSession(@NotNull LocalInspectionToolSession session) {
+    return ErlangInspectionSession.getSession(session, (ErlangFile) session.getFile());
+  }
+
+  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder, @NotNull ErlangInspectionSession session) {
+    checkFile(file, problemsHolder);
+  }
+
   protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder) {
   }
 
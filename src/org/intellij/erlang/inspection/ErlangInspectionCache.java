@@ -0,0 +1,569 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import com.intellij.codeHighlighting.Pass;
+import com.intellij.codeInsight.daemon.HighlightDisplayKey;
+import com.intellij.codeInsight.daemon.impl.HighlightInfoType;
+import com.intellij.codeInspection.*;
+import com.intellij.codeInspection.ex.InspectionToolWrapper;
+import com.intellij.codeInspection.ex.LocalInspectionToolWrapper;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.IdeEventQueue;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
+import com.intellij.psi.*;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import com.intellij.util.TimeoutUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.IOUtil;
+import gnu.trove.TObjectIntHashMap;
+import org.intellij.erlang.ErlangFileType;
+import org.intellij.erlang.dialyzer.ErlangDialyzerExternalAnnotator;
+import org.intellij.erlang.dialyzer.ErlangDialyzerInspection;
+import org.intellij.erlang.dialyzer.ErlangDialyzerProjectAnalyzer;
+import org.intellij.erlang.dialyzer.ErlangDialyzerServer;
+import org.intellij.erlang.psi.ErlangFile;
+import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Problems found in project modules by Erlang inspections, kept per file on disk between sessions. Each file's
+ * problems are keyed by a hash of its text, the texts of the headers it includes and the enabled inspections,
+ * so they are shown only while none of those change, see {@link ErlangCachedProblemsPassFactory}.
+ * Problems from the last Dialyzer project analysis aren't stored, they live only as long as the analysis results,
+ * so they are added to the cached ones when those are read.
+ * <p/>
+ * When enabled in {@link ErlangInspectionCacheSettings}, files whose problems are missing or stale are analysed
+ * while the IDE is idle, by {@link JobLauncher} under the task's progress indicator and in read actions which
+ * give way to write actions.
+ */
+public class ErlangInspectionCache {
+  private static final Logger LOG = Logger.getInstance(ErlangInspectionCache.class);
+  private static final String TITLE = "Pre-analyzing Erlang files";
+  private static final int FORMAT_VERSION = 3;
+  private static final int IDLE_TIMEOUT_MS = 30 * 1000;
+  private static final int WRITE_ACTION_BACKOFF_MS = 50;
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final Project myProject;
+  private final Map<String, FileDigest> myDigests = ContainerUtil.newConcurrentMap();
+  private final AtomicBoolean myRunning = new AtomicBoolean();
+  private final Runnable myIdleListener = new Runnable() {
+    @Override
+    public void run() {
+      if (ErlangInspectionCacheSettings.getInstance(myProject).isEnabled()) prewarm();
+    }
+  };
+  private boolean myLoaded;
+  private volatile boolean myModified;
+  private volatile long myPrewarmedModificationCount = -1;
+
+  public ErlangInspectionCache(@NotNull Project project) {
+    myProject = project;
+  }
+
+  @NotNull
+  public static ErlangInspectionCache getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, ErlangInspectionCache.class);
+  }
+
+  /**
+   * @return problems found in the file when it had exactly the same text, included headers and enabled inspections,
+   * together with its current Dialyzer problems, or null
+   */
+  @Nullable
+  public List<CachedProblem> getProblems(@NotNull ErlangFile file) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    if (virtualFile == null) return null;
+    ensureLoaded();
+    FileDigest digest = myDigests.get(virtualFile.getPath());
+    if (digest == null || digest.myKey != computeAnalysisKey(file)) return null;
+    List<CachedProblem> dialyzerProblems = getDialyzerProblems(file);
+    return dialyzerProblems.isEmpty() ? digest.myProblems : ContainerUtil.concat(digest.myProblems, dialyzerProblems);
+  }
+
+  public boolean isRunning() {
+    return myRunning.get();
+  }
+
+  public void startPrewarmingOnIdle() {
+    IdeEventQueue.getInstance().addIdleListener(myIdleListener, IDLE_TIMEOUT_MS);
+  }
+
+  public void stopPrewarmingOnIdle() {
+    IdeEventQueue.getInstance().removeIdleListener(myIdleListener);
+  }
+
+  /**
+   * Analyses project modules whose problems are missing or stale in the background, unless nothing has changed
+   * since the previous complete run.
+   */
+  public void prewarm() {
+    if (myProject.isDisposed() || DumbService.isDumb(myProject)) return;
+    final long modificationCount = PsiManager.getInstance(myProject).getModificationTracker().getModificationCount();
+    if (modificationCount == myPrewarmedModificationCount || !myRunning.compareAndSet(false, true)) return;
+    ProgressManager.getInstance().run(new Task.Backgroundable(myProject, TITLE, true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        try {
+          doPrewarm(indicator);
+          if (!indicator.isCanceled()) myPrewarmedModificationCount = modificationCount;
+        }
+        finally {
+          myRunning.set(false);
+        }
+      }
+    });
+  }
+
+  private void doPrewarm(@NotNull final ProgressIndicator indicator) {
+    ensureLoaded();
+    List<VirtualFile> files = collectModuleFiles();
+    Set<String> paths = ContainerUtil.newHashSet();
+    for (VirtualFile file : files) {
+      paths.add(file.getPath());
+    }
+    if (myDigests.keySet().retainAll(paths)) myModified = true;
+
+    final AtomicInteger analysed = new AtomicInteger();
+    final int total = files.size();
+    try {
+      JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, false, new Processor<VirtualFile>() {
+        @Override
+        public boolean process(VirtualFile file) {
+          analyzeWithWriteActionPriority(file, indicator);
+          indicator.setFraction((double) analysed.incrementAndGet() / total);
+          return !indicator.isCanceled();
+        }
+      });
+    }
+    finally {
+      saveIfModified();
+    }
+  }
+
+  private void analyzeWithWriteActionPriority(@NotNull final VirtualFile file, @NotNull ProgressIndicator indicator) {
+    Runnable analysis = new Runnable() {
+      @Override
+      public void run() {
+        if (myProject.isDisposed() || !file.isValid()) return;
+        PsiFile psiFile = PsiManager.getInstance(myProject).findFile(file);
+        if (!(psiFile instanceof ErlangFile)) return;
+        try {
+          analyze((ErlangFile) psiFile);
+        }
+        catch (ProcessCanceledException e) {
+          throw e;
+        }
+        catch (RuntimeException e) {
+          LOG.warn("Failed to analyse " + file.getPath(), e);
+        }
+      }
+    };
+    while (!indicator.isCanceled() && !ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(analysis)) {
+      TimeoutUtil.sleep(WRITE_ACTION_BACKOFF_MS);
+    }
+  }
+
+  /**
+   * Runs the inspections on the file unless its problems are up to date. Requires a read action.
+   *
+   * @return whether the file was analysed
+   */
+  boolean analyze(@NotNull ErlangFile file) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    if (virtualFile == null) return false;
+    ensureLoaded();
+    long key = computeAnalysisKey(file);
+    FileDigest digest = myDigests.get(virtualFile.getPath());
+    if (digest != null && digest.myKey == key) return false;
+    myDigests.put(virtualFile.getPath(), new FileDigest(key, inspect(file)));
+    myModified = true;
+    return true;
+  }
+
+  @NotNull
+  private List<CachedProblem> inspect(@NotNull ErlangFile file) {
+    final List<PsiElement> elements = ContainerUtil.newArrayList();
+    file.accept(new PsiRecursiveElementWalkingVisitor() {
+      @Override
+      public void visitElement(PsiElement element) {
+        elements.add(element);
+        super.visitElement(element);
+      }
+    });
+
+    List<CachedProblem> problems = ContainerUtil.newArrayList();
+    InspectionProfile profile = InspectionProjectProfileManager.getInstance(myProject).getInspectionProfile();
+    InspectionManager manager = InspectionManager.getInstance(myProject);
+    LocalInspectionToolSession session = new LocalInspectionToolSession(file, 0, file.getTextLength());
+    for (InspectionToolWrapper wrapper : profile.getInspectionTools(file)) {
+      if (!(wrapper instanceof LocalInspectionToolWrapper)) continue;
+      LocalInspectionTool tool = ((LocalInspectionToolWrapper) wrapper).getTool();
+      HighlightDisplayKey key = HighlightDisplayKey.find(wrapper.getShortName());
+      if (key == null || !isEnabledErlangInspection(profile, tool, key, file)) continue;
+
+      ProblemsHolder holder = new ProblemsHolder(manager, file, true);
+      PsiElementVisitor visitor = tool.buildVisitor(holder, true, session);
+      tool.inspectionStarted(session, true);
+      for (PsiElement element : elements) {
+        element.accept(visitor);
+      }
+      tool.inspectionFinished(session, holder);
+
+      HighlightSeverity severity = profile.getErrorLevel(key, file).getSeverity();
+      for (ProblemDescriptor descriptor : holder.getResults()) {
+        PsiElement element = descriptor.getPsiElement();
+        if (element == null || tool.isSuppressedFor(element)) continue;
+        TextRange range = descriptor instanceof ProblemDescriptorBase ? ((ProblemDescriptorBase) descriptor).getTextRange() : element.getTextRange();
+        if (range == null) continue;
+        String message = ProblemDescriptorUtil.renderDescriptionMessage(descriptor, element);
+        Kind kind = Kind.of(descriptor.getHighlightType(), severity);
+        problems.add(new CachedProblem(wrapper.getShortName(), false, kind, range.getStartOffset(), range.getEndOffset(), message));
+      }
+    }
+    return problems;
+  }
+
+  /**
+   * The file's problems from the last Dialyzer project analysis, shown in place of the external annotator's.
+   */
+  @NotNull
+  private List<CachedProblem> getDialyzerProblems(@NotNull ErlangFile file) {
+    InspectionProfile profile = InspectionProjectProfileManager.getInstance(myProject).getInspectionProfile();
+    HighlightDisplayKey dialyzerKey = HighlightDisplayKey.find(ErlangDialyzerInspection.INSPECTION_SHORT_NAME);
+    VirtualFile virtualFile = file.getVirtualFile();
+    String path = virtualFile != null ? virtualFile.getCanonicalPath() : null;
+    if (path == null || dialyzerKey == null || !profile.isToolEnabled(dialyzerKey, file)) return Collections.emptyList();
+    List<ErlangDialyzerServer.Problem> dialyzerProblems = ErlangDialyzerProjectAnalyzer.getInstance(myProject).getProblems(path);
+    if (dialyzerProblems == null) return Collections.emptyList();
+
+    CharSequence text = file.getViewProvider().getContents();
+    List<CachedProblem> problems = ContainerUtil.newArrayList();
+    for (ErlangDialyzerServer.Problem problem : dialyzerProblems) {
+      TextRange range = ErlangDialyzerExternalAnnotator.getLineRange(text, problem.getLine());
+      if (range == null) continue;
+      String message = ErlangDialyzerExternalAnnotator.getMessage(problem.getDescription());
+      problems.add(new CachedProblem(ErlangDialyzerInspection.INSPECTION_SHORT_NAME, true, Kind.WARNING,
+                                     range.getStartOffset(), range.getEndOffset(), message));
+    }
+    return problems;
+  }
+
+  private static boolean isEnabledErlangInspection(@NotNull InspectionProfile profile,
+                                                   @NotNull LocalInspectionTool tool,
+                                                   @NotNull HighlightDisplayKey key,
+                                                   @NotNull ErlangFile file) {
+    return tool instanceof ErlangInspectionBase && profile.isToolEnabled(key, file);
+  }
+
+  @NotNull
+  private List<VirtualFile> collectModuleFiles() {
+    return ApplicationManager.getApplication().runReadAction(new Computable<List<VirtualFile>>() {
+      @Override
+      public List<VirtualFile> compute() {
+        if (myProject.isDisposed()) return Collections.emptyList();
+        ProjectFileIndex fileIndex = ProjectRootManager.getInstance(myProject).getFileIndex();
+        List<VirtualFile> result = ContainerUtil.newArrayList();
+        for (VirtualFile file : FileTypeIndex.getFiles(ErlangFileType.MODULE, GlobalSearchScope.projectScope(myProject))) {
+          if (fileIndex.isInSourceContent(file)) result.add(file);
+        }
+        return result;
+      }
+    });
+  }
+
+  /**
+   * A hash of the file text combined with the hashes of the paths and texts of all headers it includes,
+   * directly or not.
+   */
+  static long computeKey(@NotNull ErlangFile file) {
+    long headers = 0;
+    for (ErlangFile header : ErlangPsiImplUtil.getIncludedFiles(file)) {
+      long hash = hash(FNV_OFFSET, header.getViewProvider().getVirtualFile().getPath());
+      headers += hash(hash, header.getViewProvider().getContents());
+    }
+    return hash(FNV_OFFSET, file.getViewProvider().getContents()) * 31 + headers;
+  }
+
+  /**
+   * {@link #computeKey} combined with a hash of the enabled Erlang inspections with their severities.
+   */
+  long computeAnalysisKey(@NotNull ErlangFile file) {
+    InspectionProfile profile = InspectionProjectProfileManager.getInstance(myProject).getInspectionProfile();
+    long inspections = 0;
+    for (InspectionToolWrapper wrapper : profile.getInspectionTools(file)) {
+      if (!(wrapper instanceof LocalInspectionToolWrapper)) continue;
+      HighlightDisplayKey key = HighlightDisplayKey.find(wrapper.getShortName());
+      if (key == null || !isEnabledErlangInspection(profile, ((LocalInspectionToolWrapper) wrapper).getTool(), key, file)) continue;
+      long hash = hash(FNV_OFFSET, wrapper.getShortName());
+      inspections += hash(hash, profile.getErrorLevel(key, file).getSeverity().getName());
+    }
+    return computeKey(file) * 31 + inspections;
+  }
+
+  private static long hash(long hash, @NotNull CharSequence text) {
+    for (int i = 0; i < text.length(); i++) {
+      hash ^= text.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private synchronized void ensureLoaded() {
+    if (myLoaded) return;
+    myLoaded = true;
+    if (!ApplicationManager.getApplication().isUnitTestMode()) load(getCacheFile());
+  }
+
+  public void saveIfModified() {
+    if (myModified) save(getCacheFile());
+  }
+
+  void save(@NotNull File file) {
+    myModified = false;
+    DataOutputStream out = null;
+    try {
+      FileUtil.createParentDirs(file);
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      Map<String, FileDigest> digests = ContainerUtil.newHashMap(myDigests);
+
+      List<String> tools = ContainerUtil.newArrayList();
+      TObjectIntHashMap<String> toolIndices = new TObjectIntHashMap<String>();
+      for (FileDigest digest : digests.values()) {
+        for (CachedProblem problem : digest.myProblems) {
+          if (!toolIndices.containsKey(problem.myToolId)) {
+            toolIndices.put(problem.myToolId, tools.size());
+            tools.add(problem.myToolId);
+          }
+        }
+      }
+
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(tools.size());
+      for (String tool : tools) {
+        out.writeUTF(tool);
+      }
+      out.writeInt(digests.size());
+      for (Map.Entry<String, FileDigest> entry : digests.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeLong(entry.getValue().myKey);
+        out.writeInt(entry.getValue().myProblems.size());
+        for (CachedProblem problem : entry.getValue().myProblems) {
+          out.writeShort(toolIndices.get(problem.myToolId));
+          out.writeBoolean(problem.myExternal);
+          out.writeByte(problem.myKind.ordinal());
+          out.writeInt(problem.myStartOffset);
+          out.writeInt(problem.myEndOffset);
+          IOUtil.writeString(problem.myMessage, out);
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Failed to save Erlang inspection results to " + file.getPath(), e);
+    }
+    finally {
+      closeQuietly(out);
+    }
+  }
+
+  void load(@NotNull File file) {
+    if (!file.isFile()) return;
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (in.readInt() != FORMAT_VERSION) return;
+      String[] tools = new String[in.readInt()];
+      for (int i = 0; i < tools.length; i++) {
+        tools[i] = in.readUTF();
+      }
+      Kind[] kinds = Kind.values();
+      int fileCount = in.readInt();
+      for (int i = 0; i < fileCount; i++) {
+        String path = in.readUTF();
+        long key = in.readLong();
+        int problemCount = in.readInt();
+        List<CachedProblem> problems = ContainerUtil.newArrayListWithCapacity(problemCount);
+        for (int j = 0; j < problemCount; j++) {
+          String tool = tools[in.readShort()];
+          boolean external = in.readBoolean();
+          Kind kind = kinds[in.readByte()];
+          int start = in.readInt();
+          int end = in.readInt();
+          problems.add(new CachedProblem(tool, external, kind, start, end, IOUtil.readString(in)));
+        }
+        myDigests.put(path, new FileDigest(key, problems));
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Failed to load Erlang inspection results from " + file.getPath(), e);
+      myDigests.clear();
+    }
+    catch (ArrayIndexOutOfBoundsException e) {
+      LOG.info("Erlang inspection results are corrupted: " + file.getPath(), e);
+      myDigests.clear();
+    }
+    finally {
+      closeQuietly(in);
+    }
+  }
+
+  @NotNull
+  private File getCacheFile() {
+    return new File(PathManager.getSystemPath() + "/erlang/inspections/" + myProject.getName() + "." + myProject.getLocationHash() + ".dat");
+  }
+
+  private static void closeQuietly(@Nullable Closeable closeable) {
+    if (closeable == null) return;
+    try {
+      closeable.close();
+    }
+    catch (IOException ignored) {
+    }
+  }
+
+  private static class FileDigest {
+    private final long myKey;
+    private final List<CachedProblem> myProblems;
+
+    private FileDigest(long key, @NotNull List<CachedProblem> problems) {
+      myKey = key;
+      myProblems = problems;
+    }
+  }
+
+  /**
+   * How a problem is highlighted, derived from the highlight type the inspection reported it with and the
+   * severity the profile sets for the inspection.
+   */
+  public enum Kind {
+    ERROR, WARNING, WEAK_WARNING, UNUSED_SYMBOL, DEPRECATED, INFORMATION;
+
+    @NotNull
+    static Kind of(@NotNull ProblemHighlightType type, @NotNull HighlightSeverity severity) {
+      switch (type) {
+        case ERROR:
+        case GENERIC_ERROR:
+          return ERROR;
+        case LIKE_UNUSED_SYMBOL:
+          return UNUSED_SYMBOL;
+        case LIKE_DEPRECATED:
+          return DEPRECATED;
+        case WEAK_WARNING:
+          return WEAK_WARNING;
+        case INFORMATION:
+          return INFORMATION;
+        default:
+          break;
+      }
+      if (severity.compareTo(HighlightSeverity.ERROR) >= 0) return ERROR;
+      if (severity.compareTo(HighlightSeverity.WARNING) >= 0) return WARNING;
+      if (severity.compareTo(HighlightSeverity.WEAK_WARNING) >= 0) return WEAK_WARNING;
+      return INFORMATION;
+    }
+
+    @NotNull
+    public HighlightInfoType getHighlightInfoType() {
+      switch (this) {
+        case ERROR: return HighlightInfoType.ERROR;
+        case WARNING: return HighlightInfoType.WARNING;
+        case WEAK_WARNING: return HighlightInfoType.WEAK_WARNING;
+        case UNUSED_SYMBOL: return HighlightInfoType.UNUSED_SYMBOL;
+        case DEPRECATED: return HighlightInfoType.DEPRECATED;
+        default: return HighlightInfoType.INFORMATION;
+      }
+    }
+  }
+
+  public static class CachedProblem {
+    private final String myToolId;
+    private final boolean myExternal;
+    private final Kind myKind;
+    private final int myStartOffset;
+    private final int myEndOffset;
+    private final String myMessage;
+
+    CachedProblem(@NotNull String toolId, boolean external, @NotNull Kind kind, int startOffset, int endOffset, @NotNull String message) {
+      myToolId = toolId;
+      myExternal = external;
+      myKind = kind;
+      myStartOffset = startOffset;
+      myEndOffset = endOffset;
+      myMessage = message;
+    }
+
+    @NotNull
+    public String getToolId() {
+      return myToolId;
+    }
+
+    /**
+     * @return the highlighting pass whose results the problem stands in for
+     */
+    public int getPassId() {
+      return myExternal ? Pass.EXTERNAL_TOOLS : Pass.LOCAL_INSPECTIONS;
+    }
+
+    @NotNull
+    public Kind getKind() {
+      return myKind;
+    }
+
+    public int getStartOffset() {
+      return myStartOffset;
+    }
+
+    public int getEndOffset() {
+      return myEndOffset;
+    }
+
+    @NotNull
+    public String getMessage() {
+      return myMessage;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.Project;
+
+public class ErlangInspectionCacheAction extends ToggleAction {
+  @Override
+  public void update(AnActionEvent e) {
+    super.update(e);
+    e.getPresentation().setEnabled(getEventProject(e) != null);
+  }
+
+  @Override
+  public boolean isSelected(AnActionEvent e) {
+    Project project = getEventProject(e);
+    return project != null && ErlangInspectionCacheSettings.getInstance(project).isEnabled();
+  }
+
+  @Override
+  public void setSelected(AnActionEvent e, boolean state) {
+    Project project = getEventProject(e);
+    if (project == null) return;
+    ErlangInspectionCacheSettings.getInstance(project).setEnabled(state);
+    if (state) ErlangInspectionCache.getInstance(project).prewarm();
+  }
+}
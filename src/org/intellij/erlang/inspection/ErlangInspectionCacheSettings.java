@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import com.intellij.openapi.components.*;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Whether project files are analysed in the background while the IDE is idle, see {@link ErlangInspectionCache}.
+ * It's a personal choice, so it's kept in the workspace file.
+ */
+@State(
+  name = "ErlangInspectionCacheSettings",
+  storages = @Storage(file = StoragePathMacros.WORKSPACE_FILE)
+)
+public final class ErlangInspectionCacheSettings implements PersistentStateComponent<ErlangInspectionCacheSettings> {
+  private boolean myEnabled;
+
+  @NotNull
+  public static ErlangInspectionCacheSettings getInstance(@NotNull Project project) {
+    ErlangInspectionCacheSettings persisted = ServiceManager.getService(project, ErlangInspectionCacheSettings.class);
+    return persisted != null ? persisted : new ErlangInspectionCacheSettings();
+  }
+
+  @Nullable
+  @Override
+  public ErlangInspectionCacheSettings getState() {
+    return this;
+  }
+
+  @Override
+  public void loadState(@NotNull ErlangInspectionCacheSettings settings) {
+    XmlSerializerUtil.copyBean(settings, this);
+  }
+
+  public boolean isEnabled() {
+    return myEnabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    myEnabled = enabled;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.openapi.util.AtomicNotNullLazyValue;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiReference;
+import com.intellij.util.ObjectUtils;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
+import org.intellij.erlang.psi.*;
+import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.intellij.erlang.psi.impl.ErlangUsageCensus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per highlighting pass data shared by all enabled {@link ErlangInspectionBase} inspections of a file:
+ * a single traversal of the file, resolved references, function and export tables.
+ */
+public class ErlangInspectionSession {
+  private static final Key<ErlangInspectionSession> SESSION_KEY = Key.create("ERLANG_INSPECTION_SESSION");
+
+  private final ErlangFile myFile;
+  private final ConcurrentMap<PsiElement, Object> myResolveResults = ContainerUtil.newConcurrentMap();
+  private final ConcurrentMap<Class, List<? extends PsiElement>> myElementsByClass = ContainerUtil.newConcurrentMap();
+
+  private final AtomicNotNullLazyValue<List<PsiElement>> myElements = new AtomicNotNullLazyValue<List<PsiElement>>() {
+    @NotNull
+    @Override
+    protected List<PsiElement> compute() {
+      final List<PsiElement> result = ContainerUtil.newArrayList();
+      myFile.accept(new PsiRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitElement(PsiElement element) {
+          if (element instanceof ErlangCompositeElement) {
+            result.add(element);
+          }
+          super.visitElement(element);
+        }
+      });
+      return result;
+    }
+  };
+  private final AtomicNotNullLazyValue<MultiMap<String, ErlangFunction>> myFunctionsBySignature = new AtomicNotNullLazyValue<MultiMap<String, ErlangFunction>>() {
+    @NotNull
+    @Override
+    protected MultiMap<String, ErlangFunction> compute() {
+      MultiMap<String, ErlangFunction> map = new MultiMap<String, ErlangFunction>();
+      for (ErlangFunction function : myFile.getFunctions()) {
+        map.putValue(ErlangPsiImplUtil.createFunctionPresentation(function), function);
+      }
+      return map;
+    }
+  };
+  private final AtomicNotNullLazyValue<MultiMap<String, ErlangExportFunction>> myExportsBySignature = new AtomicNotNullLazyValue<MultiMap<String, ErlangExportFunction>>() {
+    @NotNull
+    @Override
+    protected MultiMap<String, ErlangExportFunction> compute() {
+      MultiMap<String, ErlangExportFunction> map = MultiMap.createLinked();
+      for (ErlangAttribute attribute : myFile.getAttributes()) {
+        ErlangExport export = attribute.getExport();
+        ErlangExportFunctions exportFunctions = export != null ? export.getExportFunctions() : null;
+        if (exportFunctions == null) continue;
+        for (ErlangExportFunction exportFunction : exportFunctions.getExportFunctionList()) {
+          PsiElement integer = exportFunction.getInteger();
+          if (integer == null) continue;
+          map.putValue(ErlangPsiImplUtil.getExportFunctionName(exportFunction) + "/" + integer.getText(), exportFunction);
+        }
+      }
+      return map;
+    }
+  };
+
+  private ErlangInspectionSession(@NotNull ErlangFile file) {
+    myFile = file;
+  }
+
+  @NotNull
+  public static ErlangInspectionSession getSession(@NotNull LocalInspectionToolSession session, @NotNull ErlangFile file) {
+    ErlangInspectionSession erlangSession = session.getUserData(SESSION_KEY);
+    if (erlangSession == null) {
+      erlangSession = session.putUserDataIfAbsent(SESSION_KEY, new ErlangInspectionSession(file));
+    }
+    return erlangSession;
+  }
+
+  @NotNull
+  public ErlangFile getFile() {
+    return myFile;
+  }
+
+  @NotNull
+  public ErlangUsageCensus getCensus() {
+    return ErlangUsageCensus.getCensus(myFile);
+  }
+
+  /**
+   * Resolves the reference of the element once per session.
+   */
+  @Nullable
+  public PsiElement resolve(@NotNull PsiElement element) {
+    Object cached = myResolveResults.get(element);
+    if (cached == null) {
+      PsiReference reference = element.getReference();
+      PsiElement resolved = reference != null ? reference.resolve() : null;
+      cached = ObjectUtils.notNull(resolved, ObjectUtils.NULL);
+      myResolveResults.put(element, cached);
+    }
+    return cached instanceof PsiElement ? (PsiElement) cached : null;
+  }
+
+  /**
+   * @return composite elements of the given class in the order of a single traversal of the file
+   */
+  @NotNull
+  public <T extends PsiElement> List<T> getElements(@NotNull Class<T> clazz) {
+    //noinspection unchecked
+    List<T> elements = (List<T>) myElementsByClass.get(clazz);
+    if (elements == null) {
+      elements = ContainerUtil.findAll(myElements.getValue(), clazz);
+      myElementsByClass.put(clazz, elements);
+    }
+    return elements;
+  }
+
+  /**
+   * @return functions of the file grouped by name/arity
+   */
+  @NotNull
+  public MultiMap<String, ErlangFunction> getFunctionsBySignature() {
+    return myFunctionsBySignature.getValue();
+  }
+
+  /**
+   * @return export attribute entries of the file grouped by name/arity in declaration order
+   */
+  @NotNull
+  public MultiMap<String, ErlangExportFunction> getExportsBySignature() {
+    return myExportsBySignature.getValue();
+  }
+}
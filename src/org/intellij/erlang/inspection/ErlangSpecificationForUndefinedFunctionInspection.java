@@ -18,7 +18,6 @@ package org.intellij.erlang.inspection;
 
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.psi.PsiReference;
 import org.intellij.erlang.ErlangFileType;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunTypeSigs;
@@ -32,13 +31,12 @@ public class ErlangSpecificationForUndefinedFunctionInspection extends ErlangIns
   }
 
   @Override
-  protected void checkFile(@NotNull ErlangFile file, @NotNull final ProblemsHolder problemsHolder) {
+  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder, @NotNull ErlangInspectionSession session) {
     for (ErlangSpecification spec : file.getSpecifications()) {
       //supported functions without modules only for now
       ErlangFunTypeSigs signature = spec.getSignature();
       if (signature != null) {
-        PsiReference reference = signature.getReference();
-        if (reference != null && reference.resolve() == null) {
+        if (signature.getReference() != null && session.resolve(signature) == null) {
           problemsHolder.registerProblem(spec, "Specification for undefined function '" + signature.getSpecFun().getText() + "'");
         }
       }
@@ -25,7 +25,6 @@ import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiReference;
 import com.intellij.psi.util.PsiUtilBase;
 import org.intellij.erlang.psi.ErlangClauseBody;
 import org.intellij.erlang.psi.ErlangQVar;
@@ -39,6 +38,7 @@ public class ErlangUnboundVariableInspection extends ErlangInspectionBase {
   @NotNull
   @Override
   protected ErlangVisitor buildErlangVisitor(@NotNull final ProblemsHolder holder, @NotNull LocalInspectionToolSession session) {
+    final ErlangInspectionSession erlangSession = getErlangSession(session);
     return new ErlangVisitor() {
       @Override
       public void visitQVar(@NotNull ErlangQVar o) {
@@ -49,8 +49,7 @@ public class ErlangUnboundVariableInspection extends ErlangInspectionBase {
           || inCallback(o) || inRecordDefinition(o)) {
           return;
         }
-        PsiReference reference = o.getReference();
-        if (reference != null && reference.resolve() == null) {
+        if (o.getReference() != null && erlangSession.resolve(o) == null) {
           registerProblem(holder, o, "Variable " + "'" + o.getText() + "' is unbound", new ErlangIntroduceVariableQuickFix());
         }
       }
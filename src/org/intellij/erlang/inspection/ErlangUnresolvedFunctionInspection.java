@@ -33,11 +33,12 @@ public class ErlangUnresolvedFunctionInspection extends ErlangInspectionBase {
   @Override
   protected ErlangVisitor buildErlangVisitor(@NotNull final ProblemsHolder holder,
                                              @NotNull LocalInspectionToolSession session) {
+    final ErlangInspectionSession erlangSession = getErlangSession(session);
     return new ErlangVisitor() {
       @Override
       public void visitFunctionCallExpression(@NotNull ErlangFunctionCallExpression o) {
         PsiReference reference = o.getReference();
-        if (reference instanceof ErlangFunctionReference && reference.resolve() == null) {
+        if (reference instanceof ErlangFunctionReference && erlangSession.resolve(o) == null) {
           if (o.getQAtom().getMacros() != null) return;
           ErlangFunctionReference r = (ErlangFunctionReference) reference;
 
@@ -75,7 +76,7 @@ public class ErlangUnresolvedFunctionInspection extends ErlangInspectionBase {
 
       private void inspect(PsiElement what, ErlangQAtom target, @Nullable PsiReference reference) {
         if (PsiTreeUtil.getParentOfType(what, ErlangCallbackSpec.class) != null || target.getMacros() != null ||
-          !(reference instanceof ErlangFunctionReference) || reference.resolve() != null) {
+          !(reference instanceof ErlangFunctionReference) || erlangSession.resolve(what) != null) {
           return;
         }
 
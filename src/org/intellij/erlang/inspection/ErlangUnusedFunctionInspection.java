@@ -21,9 +21,6 @@ import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.util.Condition;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.LocalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.containers.ContainerUtil;
 import org.intellij.erlang.ErlangFileType;
@@ -31,11 +28,12 @@ import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunction;
 import org.intellij.erlang.psi.ErlangSpecification;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.intellij.erlang.psi.impl.ErlangUsageCensus;
 import org.intellij.erlang.quickfixes.ErlangExportFunctionFix;
 import org.intellij.erlang.quickfixes.ErlangRemoveFunctionFix;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
+import java.util.Collection;
 
 public class ErlangUnusedFunctionInspection extends ErlangInspectionBase {
   @Override
@@ -44,9 +42,10 @@ public class ErlangUnusedFunctionInspection extends ErlangInspectionBase {
   }
 
   @Override
-  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder holder) {
+  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder holder, @NotNull ErlangInspectionSession session) {
+    boolean eunitImported = ErlangPsiImplUtil.isEunitImported(file);
     for (ErlangFunction function : file.getFunctions()) {
-      if (!isUnusedFunction(file, function)) continue;
+      if (eunitImported && ErlangPsiImplUtil.isEunitTestFunction(function) || !isUnused(session.getCensus(), function)) continue;
 
       PsiElement identifier = function.getNameIdentifier();
       String message = "Unused function " + "'" + function.getName() + "/" + function.getArity() + "'";
@@ -56,16 +55,18 @@ public class ErlangUnusedFunctionInspection extends ErlangInspectionBase {
     }
   }
 
-  public static boolean isUnusedFunction(@NotNull ErlangFile file, @NotNull final ErlangFunction function) {
+  public static boolean isUnusedFunction(@NotNull ErlangFile file, @NotNull ErlangFunction function) {
     if (ErlangPsiImplUtil.isEunitImported(file) && ErlangPsiImplUtil.isEunitTestFunction(function)) return false;
-    LocalSearchScope scope = new LocalSearchScope(file);
-    List<PsiReference> refs = ContainerUtil.filter(ReferencesSearch.search(function, scope).findAll(), new Condition<PsiReference>() { // filtered specs out
+    return isUnused(ErlangUsageCensus.getCensus(file), function);
+  }
+
+  private static boolean isUnused(@NotNull ErlangUsageCensus census, @NotNull final ErlangFunction function) {
+    Collection<PsiElement> usages = census.getUsages(function);
+    return ContainerUtil.find(usages, new Condition<PsiElement>() { // filtered specs out
       @Override
-      public boolean value(PsiReference psiReference) {
-        PsiElement element = psiReference.getElement();
+      public boolean value(PsiElement element) {
         return PsiTreeUtil.getParentOfType(element, ErlangSpecification.class) == null && !ErlangPsiImplUtil.isRecursiveCall(element, function);
       }
-    });
-    return ContainerUtil.getFirstItem(refs) == null;
+    }) == null;
   }
 }
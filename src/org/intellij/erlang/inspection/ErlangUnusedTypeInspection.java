@@ -18,22 +18,19 @@ package org.intellij.erlang.inspection;
 
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.LocalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
-import com.intellij.util.Query;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangTypeDefinition;
+import org.intellij.erlang.psi.impl.ErlangUsageCensus;
 import org.intellij.erlang.quickfixes.ErlangExportTypeFix;
 import org.intellij.erlang.quickfixes.ErlangRemoveTypeFix;
 import org.jetbrains.annotations.NotNull;
 
 public class ErlangUnusedTypeInspection extends ErlangInspectionBase {
   @Override
-  protected void checkFile(@NotNull ErlangFile file, @NotNull final ProblemsHolder problemsHolder) {
+  protected void checkFile(@NotNull ErlangFile file, @NotNull ProblemsHolder problemsHolder, @NotNull ErlangInspectionSession session) {
+    ErlangUsageCensus census = session.getCensus();
     for (ErlangTypeDefinition o : file.getTypes()) {
-      Query<PsiReference> search = ReferencesSearch.search(o, new LocalSearchScope(o.getContainingFile()));
-      if (search.findFirst() == null) {
+      if (census.getUsages(o).isEmpty()) {
         problemsHolder.registerProblem(o.getNameIdentifier(),
           "Unused type " + "'" + o.getName() + "'",
           ProblemHighlightType.LIKE_UNUSED_SYMBOL,
@@ -19,12 +19,9 @@ package org.intellij.erlang.inspection;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.LocalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
-import com.intellij.util.Query;
+import com.intellij.psi.util.PsiTreeUtil;
 import org.intellij.erlang.psi.*;
-import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.intellij.erlang.psi.impl.ErlangUsageCensus;
 import org.intellij.erlang.quickfixes.ErlangRenameVariableFix;
 import org.jetbrains.annotations.NotNull;
 
@@ -32,7 +29,8 @@ import static org.intellij.erlang.psi.impl.ErlangPsiImplUtil.*;
 
 public class ErlangUnusedVariableInspection extends ErlangInspectionBase {
   @Override
-  protected void checkFile(@NotNull ErlangFile file, @NotNull final ProblemsHolder problemsHolder) {
+  protected void checkFile(@NotNull ErlangFile file, @NotNull final ProblemsHolder problemsHolder, @NotNull final ErlangInspectionSession session) {
+    final ErlangUsageCensus census = session.getCensus();
     for (ErlangFunction function : file.getFunctions()) {
       for (final ErlangFunctionClause functionClause : function.getFunctionClauseList()) {
         functionClause.accept(new ErlangRecursiveVisitor() {
@@ -40,18 +38,13 @@ public class ErlangUnusedVariableInspection extends ErlangInspectionBase {
           public void visitQVar(@NotNull ErlangQVar o) {
             if (isForceSkipped(o) || !inLeftPartOfAssignment(o) && (!inArgumentDefinition(o) || inArgumentList(o))) return;
 
-            PsiReference reference = o.getReference();
-            PsiElement resolve = reference != null ? reference.resolve() : null;
-            if (resolve != null) return;
+            if (session.resolve(o) != null) return;
 
-            Query<PsiReference> search = ReferencesSearch.search(o, new LocalSearchScope(functionClause));
-            for (PsiReference ref : search) {
-              PsiElement element = ref.getElement();
-              if (ErlangPsiImplUtil.fromTheSameCaseExpression(o, element)) {
-                PsiReference reference1 = element.getReference();
-                if (reference1 == null || reference1.resolve() == null) continue;
-              }
-              return;
+            for (PsiElement element : census.getUsages(o)) {
+              if (PsiTreeUtil.isAncestor(functionClause, element, true)) return;
+            }
+            for (ErlangQVar qVar : census.getResolvedVariables(o.getText())) {
+              if (qVar != o && PsiTreeUtil.isAncestor(functionClause, qVar, true) && fromTheSameCaseExpression(o, qVar)) return;
             }
 
             registerProblem(problemsHolder, o, "Unused variable " + "'" + o.getText() + "'", null,
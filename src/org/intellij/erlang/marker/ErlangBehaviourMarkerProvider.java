@@ -26,10 +26,13 @@ import com.intellij.ide.util.DefaultPsiElementCellRenderer;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
 import com.intellij.psi.NavigatablePsiElement;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
 import org.intellij.erlang.navigation.ErlangNavigationUtil;
 import org.intellij.erlang.psi.ErlangCallbackSpec;
+import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunction;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.jetbrains.annotations.NotNull;
@@ -42,17 +45,26 @@ import java.util.List;
 public class ErlangBehaviourMarkerProvider implements LineMarkerProvider {
   @Override
   public LineMarkerInfo getLineMarkerInfo(@NotNull PsiElement element) {
-    if (element instanceof ErlangFunction) {
-      List<ErlangCallbackSpec> prototypes = ErlangNavigationUtil.getCallbackSpecs((ErlangFunction) element);
-      if (!prototypes.isEmpty()) {
-        return createImplementationMarker((ErlangFunction) element, prototypes);
-      }
-    }
     return null;
   }
 
   @Override
   public void collectSlowLineMarkers(@NotNull List<PsiElement> elements, @NotNull Collection<LineMarkerInfo> result) {
+    MultiMap<String, ErlangCallbackSpec> callbackSpecs = null;
+    for (PsiElement element : elements) {
+      if (!(element instanceof ErlangFunction)) continue;
+      if (callbackSpecs == null) {
+        PsiFile file = element.getContainingFile();
+        if (!(file instanceof ErlangFile)) return;
+        callbackSpecs = ErlangNavigationUtil.getCallbackSpecsMap((ErlangFile) file);
+        if (callbackSpecs.isEmpty()) return;
+      }
+      ErlangFunction function = (ErlangFunction) element;
+      Collection<ErlangCallbackSpec> prototypes = callbackSpecs.get(ErlangPsiImplUtil.createFunctionPresentation(function));
+      if (!prototypes.isEmpty()) {
+        result.add(createImplementationMarker(function, prototypes));
+      }
+    }
   }
 
   private static LineMarkerInfo createImplementationMarker(ErlangFunction function,
@@ -68,7 +80,7 @@ public class ErlangBehaviourMarkerProvider implements LineMarkerProvider {
       function,
       function.getTextRange(),
       AllIcons.Gutter.ImplementingMethod,
-      Pass.UPDATE_ALL,
+      Pass.UPDATE_OVERRIDEN_MARKERS,
       new Function<PsiElement, String>() {
         @Override
         public String fun(PsiElement element) {
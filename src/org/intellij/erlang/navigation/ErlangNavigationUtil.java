@@ -20,41 +20,68 @@ import com.intellij.navigation.ItemPresentation;
 import com.intellij.psi.NavigatablePsiElement;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
-import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.containers.MultiMap;
 import org.intellij.erlang.icons.ErlangIcons;
 import org.intellij.erlang.psi.*;
 import org.intellij.erlang.psi.impl.ErlangCompositeElementImpl;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class ErlangNavigationUtil {
 
   private ErlangNavigationUtil() {
   }
 
-  public static List<ErlangCallbackSpec> getCallbackSpecs(ErlangFunction function) {
+  @NotNull
+  public static List<ErlangCallbackSpec> getCallbackSpecs(@NotNull ErlangFunction function) {
     PsiFile file = function.getContainingFile();
-
-    List<ErlangCallbackSpec> callbackSpecs = new LinkedList<ErlangCallbackSpec>();
-
+    if (!(file instanceof ErlangFile)) return Collections.emptyList();
     String fullName = ErlangPsiImplUtil.createFunctionPresentation(function);
-    if (file instanceof ErlangFile) {
-      List<ErlangBehaviour> behaviours = ((ErlangFile) file).getBehaviours();
-      for (ErlangBehaviour behaviour : behaviours) {
-        ErlangModuleRef moduleRef = behaviour.getModuleRef();
-        PsiElement resolve = moduleRef != null ? moduleRef.getReference().resolve() : null;
-        PsiFile containingFile = resolve != null ? resolve.getContainingFile() : null;
+    return new ArrayList<ErlangCallbackSpec>(getCallbackSpecsMap((ErlangFile) file).get(fullName));
+  }
 
-        ErlangCallbackSpec callbackSpec = containingFile instanceof ErlangFile ? ((ErlangFile) containingFile).getCallbackByName(fullName) : null;
-        ContainerUtil.addIfNotNull(callbackSpecs, callbackSpec);
+  /**
+   * @return callback specifications of the file's behaviours by their name/arity, resolved once per modification
+   * of the file or of the behaviour modules
+   */
+  @NotNull
+  public static MultiMap<String, ErlangCallbackSpec> getCallbackSpecsMap(@NotNull final ErlangFile file) {
+    return CachedValuesManager.getCachedValue(file, new CachedValueProvider<MultiMap<String, ErlangCallbackSpec>>() {
+      @Override
+      public Result<MultiMap<String, ErlangCallbackSpec>> compute() {
+        MultiMap<String, ErlangCallbackSpec> callbackSpecs = new MultiMap<String, ErlangCallbackSpec>();
+        List<Object> dependencies = new ArrayList<Object>();
+        dependencies.add(file);
+        for (ErlangBehaviour behaviour : file.getBehaviours()) {
+          ErlangModuleRef moduleRef = behaviour.getModuleRef();
+          PsiElement resolve = moduleRef != null ? moduleRef.getReference().resolve() : null;
+          PsiFile containingFile = resolve != null ? resolve.getContainingFile() : null;
+          if (containingFile instanceof ErlangFile) {
+            dependencies.add(containingFile);
+            for (Map.Entry<String, ErlangCallbackSpec> entry : ((ErlangFile) containingFile).getCallbackMap().entrySet()) {
+              callbackSpecs.putValue(entry.getKey(), entry.getValue());
+            }
+          }
+          else {
+            // the behaviour module may appear later
+            dependencies.add(PsiModificationTracker.MODIFICATION_COUNT);
+          }
+        }
+        return Result.create(callbackSpecs, ArrayUtil.toObjectArray(dependencies));
       }
-    }
-    return callbackSpecs;
+    });
   }
 
   @Nullable
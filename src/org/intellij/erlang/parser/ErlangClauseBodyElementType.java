@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.parser;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.impl.source.DummyHolder;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.ErlangLanguage;
+import org.intellij.erlang.ErlangParserDefinition;
+import org.intellij.erlang.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+import static org.intellij.erlang.ErlangTypes.*;
+
+/**
+ * Clause bodies are reparsed on their own, so typing inside a function doesn't reparse the whole form.
+ */
+public class ErlangClauseBodyElementType extends IReparseableElementType {
+  public ErlangClauseBodyElementType(@NotNull String debugName) {
+    super(debugName, ErlangLanguage.INSTANCE);
+  }
+
+  @Nullable
+  @Override
+  public ASTNode createNode(CharSequence text) {
+    return new LazyParseableElement(this, text);
+  }
+
+  @Override
+  public boolean isParsable(CharSequence buffer, Language fileLanguage, Project project) {
+    if (!fileLanguage.isKindOf(ErlangLanguage.INSTANCE) || !isBalanced(buffer)) return false;
+    ErlangParserDefinition parserDefinition = new ErlangParserDefinition();
+    PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(parserDefinition, parserDefinition.createLexer(project), buffer);
+    return !hasErrorElements(new ErlangParser().parse(this, builder));
+  }
+
+  @Override
+  protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+    Project project = psi.getProject();
+    PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(project, chameleon, new ErlangLexer(), getLanguage(), chameleon.getChars());
+    ErlangParserUtil.enterModes(builder, getContextModes(psi));
+    return new ErlangParser().parse(this, builder).getFirstChildNode();
+  }
+
+  /**
+   * A cheap pre-check: the text should start with an arrow and have balanced brackets.
+   */
+  private static boolean isBalanced(@NotNull CharSequence buffer) {
+    Lexer lexer = new ErlangLexer();
+    lexer.start(buffer);
+    boolean first = true;
+    int depth = 0;
+    for (IElementType type; (type = lexer.getTokenType()) != null; lexer.advance()) {
+      if (type == TokenType.BAD_CHARACTER) return false;
+      if (first) {
+        if (type != ERL_ARROW) return false;
+        first = false;
+      }
+      if (type == ERL_PAR_LEFT || type == ERL_BRACKET_LEFT || type == ERL_CURLY_LEFT || type == ERL_BIN_START) depth++;
+      else if (type == ERL_PAR_RIGHT || type == ERL_BRACKET_RIGHT || type == ERL_CURLY_RIGHT || type == ERL_BIN_END) depth--;
+      if (depth < 0) return false;
+    }
+    return !first && depth == 0;
+  }
+
+  private static boolean hasErrorElements(@NotNull ASTNode root) {
+    List<ASTNode> nodes = ContainerUtil.newArrayList(root);
+    while (!nodes.isEmpty()) {
+      ASTNode node = nodes.remove(nodes.size() - 1);
+      if (node.getElementType() == TokenType.ERROR_ELEMENT) return true;
+      for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+        nodes.add(child);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The modes which were on when the body was parsed as a part of the file, see erlang.bnf.
+   */
+  @NotNull
+  private static List<String> getContextModes(@NotNull PsiElement parent) {
+    List<String> modes = ContainerUtil.newArrayList();
+    PsiElement context = parent instanceof DummyHolder ? parent.getContext() : parent;
+    boolean guard = false;
+    boolean atomAttribute = false;
+    for (PsiElement e = context; e != null && !(e instanceof PsiFile); e = e.getParent()) {
+      PsiElement p = e.getParent();
+      guard |= e instanceof ErlangGuard || e instanceof ErlangMacrosBody ||
+        e instanceof ErlangArgumentDefinition && (p instanceof ErlangCrClause || p instanceof ErlangTryClause) ||
+        e instanceof ErlangExpression && p instanceof ErlangAfterClauseBody;
+      atomAttribute |= e instanceof ErlangAtomAttribute;
+    }
+    if (guard) modes.add("GUARD");
+    if (atomAttribute) modes.add("ATOM_ATTRIBUTE");
+    return modes;
+  }
+}
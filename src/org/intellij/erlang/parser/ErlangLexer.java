@@ -17,18 +17,92 @@
 package org.intellij.erlang.parser;
 
 import com.intellij.lexer.FlexAdapter;
-import com.intellij.lexer.LookAheadLexer;
 import com.intellij.lexer.MergingLexerAdapter;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
+import org.jetbrains.annotations.NotNull;
 
 import static org.intellij.erlang.ErlangParserDefinition.COMMENTS;
 import static org.intellij.erlang.ErlangTypes.*;
 
-public class ErlangLexer extends LookAheadLexer {
+/**
+ * The lexer can be restarted with state 0 at the start of every token which has state 0.
+ * <p/>
+ * The flex lexer looks ahead past the end of numbers: a number may absorb up to three following characters
+ * (e.g. <code>1.0e+x</code> becomes a float when <code>x</code> is changed to a digit), so the state of the tokens
+ * which such a change could affect has extra bits set, and an editor highlighter won't restart on them.
+ * <p/>
+ * A double quote without a closing one is a bad character for the flex lexer, and typing a quote anywhere after it
+ * would turn everything in between into a string. The highlighting lexer makes such a string run to the end
+ * of the text, as erl_scan does, so no token follows it and there is nothing a restart could get wrong.
+ * The parser keeps the tokens after the quote, which gives it something to recover on.
+ */
+public class ErlangLexer extends MergingLexerAdapter {
   public static final TokenSet KEYWORDS = TokenSet.create(
     ERL_AFTER, ERL_WHEN, ERL_BEGIN, ERL_END, ERL_OF, ERL_CASE, ERL_FUN, ERL_CATCH, ERL_IF, ERL_RECEIVE, ERL_TRY);
 
+  private static final int FLEX_STATE_MASK = 0xF;
+  private static final int NUMBER_TAIL_SHIFT = 4;
+  private static final int NUMBER_TAIL_MASK = 3 << NUMBER_TAIL_SHIFT;
+
+  private final boolean myHighlighting;
+  private int myFlags;
+  private boolean myUnterminatedString;
+
   public ErlangLexer() {
-    super(new MergingLexerAdapter(new FlexAdapter(new _ErlangLexer()), COMMENTS));
+    this(false);
+  }
+
+  public ErlangLexer(boolean highlighting) {
+    super(new FlexAdapter(new _ErlangLexer()), COMMENTS);
+    myHighlighting = highlighting;
+  }
+
+  @Override
+  public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+    myFlags = initialState & ~FLEX_STATE_MASK;
+    super.start(buffer, startOffset, endOffset, initialState & FLEX_STATE_MASK);
+    myUnterminatedString = myHighlighting && isUnpairedQuote();
+  }
+
+  @Override
+  public int getState() {
+    return super.getState() | myFlags;
+  }
+
+  @Override
+  public IElementType getTokenType() {
+    return myUnterminatedString ? ERL_STRING : super.getTokenType();
+  }
+
+  @Override
+  public int getTokenEnd() {
+    return myUnterminatedString ? getBufferEnd() : super.getTokenEnd();
+  }
+
+  @Override
+  public void advance() {
+    if (myUnterminatedString) {
+      myUnterminatedString = false;
+      myFlags = 0;
+      super.start(getBufferSequence(), getBufferEnd(), getBufferEnd(), 0);
+      return;
+    }
+
+    IElementType type = getTokenType();
+    super.advance();
+
+    int numberTail = (myFlags & NUMBER_TAIL_MASK) >> NUMBER_TAIL_SHIFT;
+    if (type == ERL_INTEGER || type == ERL_FLOAT) numberTail = 3;
+    else if (type == TokenType.WHITE_SPACE || COMMENTS.contains(type)) numberTail = 0;
+    else if (numberTail > 0) numberTail--;
+
+    myFlags = numberTail << NUMBER_TAIL_SHIFT;
+    myUnterminatedString = myHighlighting && isUnpairedQuote();
+  }
+
+  private boolean isUnpairedQuote() {
+    return super.getTokenType() == TokenType.BAD_CHARACTER && getBufferSequence().charAt(getTokenStart()) == '"';
   }
 }
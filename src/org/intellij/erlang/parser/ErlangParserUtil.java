@@ -28,12 +28,15 @@ import com.intellij.psi.TokenType;
 import com.intellij.psi.impl.source.resolve.FileContextUtil;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
-import gnu.trove.TObjectLongHashMap;
+import com.intellij.util.ArrayUtil;
 import org.intellij.erlang.ErlangFileType;
 import org.intellij.erlang.ErlangTypes;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 public class ErlangParserUtil extends GeneratedParserUtilBase {
   public static boolean isApplicationLanguage(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level) {
     PsiFile file = builder_.getUserDataUnprotected(FileContextUtil.CONTAINING_FILE_KEY);
@@ -57,20 +60,43 @@ public class ErlangParserUtil extends GeneratedParserUtilBase {
       ApplicationManager.getApplication().isUnitTestMode() && (fileType.getDefaultExtension().equals("app") || fileType.getDefaultExtension().equals("config"));
   }
 
-  private static final Key<TObjectLongHashMap<String>> MODES_KEY = Key.create("MODES_KEY");
+  private static final Key<ParsingModes> MODES_KEY = Key.create("MODES_KEY");
+
+  /**
+   * Mode names by their ids, starting with the modes used in erlang.bnf; other modes get ids when first used.
+   * The generated parser passes mode names as string literals, so they're found by identity.
+   */
+  private static volatile String[] ourModeNames = {"GUARD", "ELSE", "ATOM_ATTRIBUTE"};
 
-  private static TObjectLongHashMap<String> getParsingModes(PsiBuilder builder_) {
-    TObjectLongHashMap<String> flags = builder_.getUserDataUnprotected(MODES_KEY);
-    if (flags == null) builder_.putUserDataUnprotected(MODES_KEY, flags = new TObjectLongHashMap<String>());
-    return flags;
+  private static int getModeId(@NotNull String mode) {
+    String[] modeNames = ourModeNames;
+    for (int i = 0; i < modeNames.length; i++) {
+      if (modeNames[i] == mode) return i;
+    }
+    return registerMode(mode);
+  }
+
+  private static synchronized int registerMode(@NotNull String mode) {
+    String[] modeNames = ourModeNames;
+    for (int i = 0; i < modeNames.length; i++) {
+      if (modeNames[i].equals(mode)) return i;
+    }
+    ourModeNames = ArrayUtil.append(modeNames, mode);
+    return modeNames.length;
+  }
+
+  private static ParsingModes getParsingModes(PsiBuilder builder_) {
+    ParsingModes modes = builder_.getUserDataUnprotected(MODES_KEY);
+    if (modes == null) builder_.putUserDataUnprotected(MODES_KEY, modes = new ParsingModes());
+    return modes;
   }
 
   public static boolean isModeOn(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, String mode) {
-    return getParsingModes(builder_).get(mode) > 0;
+    return getParsingModes(builder_).get(getModeId(mode)) > 0;
   }
 
   public static boolean isModeOff(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, String mode) {
-    return getParsingModes(builder_).get(mode) == 0;
+    return getParsingModes(builder_).get(getModeId(mode)) == 0;
   }
 
   public static boolean withOn(PsiBuilder builder_, int level_, String mode, Parser parser) {
@@ -82,30 +108,60 @@ public class ErlangParserUtil extends GeneratedParserUtilBase {
   }
 
   private static boolean withImpl(PsiBuilder builder_, int level_, String mode, boolean onOff, Parser whenOn, Parser whenOff) {
-    TObjectLongHashMap<String> map = getParsingModes(builder_);
-    long prev = map.get(mode);
+    ParsingModes modes = getParsingModes(builder_);
+    int id = getModeId(mode);
+    long prev = modes.get(id);
     boolean change = ((prev & 1) == 0) == onOff;
-    if (change) map.put(mode, prev << 1 | (onOff? 1 : 0));
+    if (change) modes.set(id, prev << 1 | (onOff? 1 : 0));
     boolean result = (change ? whenOn : whenOff).parse(builder_, level_);
-    if (change) map.put(mode, prev);
+    if (change) modes.set(id, prev);
     return result;
   }
 
   public static boolean enterMode(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, String mode) {
-    TObjectLongHashMap<String> flags = getParsingModes(builder_);
-    if (!flags.increment(mode)) flags.put(mode, 1);
+    ParsingModes modes = getParsingModes(builder_);
+    int id = getModeId(mode);
+    modes.set(id, modes.get(id) + 1);
     return true;
   }
 
   public static boolean exitMode(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, String mode) {
-    TObjectLongHashMap<String> flags = getParsingModes(builder_);
-    long count = flags.get(mode);
-    if (count == 1) flags.remove(mode);
-    else if (count > 1) flags.put(mode, count -1);
+    ParsingModes modes = getParsingModes(builder_);
+    int id = getModeId(mode);
+    long count = modes.get(id);
+    if (count > 0) modes.set(id, count - 1);
     else builder_.error("Could not exit inactive '" + mode + "' mode at offset " + builder_.getCurrentOffset());
     return true;
   }
 
+  /**
+   * Switches the modes on before parsing a fragment which is nested in them, e.g. a reparsed clause body.
+   */
+  public static void enterModes(@NotNull PsiBuilder builder_, @NotNull Collection<String> modes) {
+    for (String mode : modes) {
+      enterMode(builder_, 0, mode);
+    }
+  }
+
+  /**
+   * The state of every mode by its id: a counter for modes entered and exited explicitly, or a stack of on/off bits
+   * for {@link #withOn} and {@link #withCleared}.
+   */
+  private static class ParsingModes {
+    private long[] myStates = new long[ourModeNames.length];
+
+    long get(int id) {
+      return id < myStates.length ? myStates[id] : 0;
+    }
+
+    void set(int id, long state) {
+      if (id >= myStates.length) {
+        myStates = Arrays.copyOf(myStates, id + 1);
+      }
+      myStates[id] = state;
+    }
+  }
+
   @SuppressWarnings("MethodOverridesStaticMethodOfSuperclass")
   public static PsiBuilder adapt_builder_(IElementType root, PsiBuilder builder, PsiParser parser, TokenSet[] tokenSets) {
     PsiBuilder result = GeneratedParserUtilBase.adapt_builder_(root, builder, parser, tokenSets);
@@ -74,11 +74,19 @@ public interface ErlangFile extends PsiFile {
   @NotNull
   List<ErlangSpecification> getSpecifications();
 
+  /**
+   * @return specification of a function defined in this file, looked up by the function's name and arity
+   */
+  @Nullable
+  ErlangSpecification getSpecification(@NotNull String name, int arity);
+
   @NotNull
   Collection<ErlangFunction> getExportedFunctions();
 
   boolean isExported(@NotNull String signature);
 
+  boolean isExported(@NotNull String name, int arity);
+
   boolean isNoAutoImport(@NotNull String name, int arity);
 
   boolean isExportedAll();
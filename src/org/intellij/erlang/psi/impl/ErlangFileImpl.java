@@ -19,7 +19,7 @@ package org.intellij.erlang.psi.impl;
 import com.intellij.extapi.psi.PsiFileBase;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.project.DumbService;
-import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
@@ -96,60 +96,84 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
     return super.setName(name);
   }
 
+  private volatile long myStructureModificationCount;
+  private final ModificationTracker myStructureModificationTracker = new ModificationTracker() {
+    @Override
+    public long getModificationCount() {
+      return myStructureModificationCount;
+    }
+  };
+
+  /**
+   * Called on every change which is not confined to a function clause body, see {@link ErlangPsiTreeChangePreprocessor}.
+   */
+  void structureChanged() {
+    myStructureModificationCount++;
+  }
+
+  /**
+   * Declaration caches don't depend on function bodies, so they survive the edits inside them.
+   * Non-physical files don't get tree change events and are tracked by their modification stamp.
+   */
+  @NotNull
+  private Object getStructureDependency() {
+    return isPhysical() ? myStructureModificationTracker : this;
+  }
+
   private CachedValue<List<ErlangRule>> myRulesValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangRule>>() {
       @Override
       public Result<List<ErlangRule>> compute() {
-        return Result.create(unmodifiableList(calcRules()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcRules()), getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangFunction>> myFunctionValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangFunction>>() {
       @Override
       public Result<List<ErlangFunction>> compute() {
-        return Result.create(unmodifiableList(calcFunctions()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcFunctions()), getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangImportFunction>> myImportValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangImportFunction>>() {
       @Override
       public Result<List<ErlangImportFunction>> compute() {
-        return Result.create(unmodifiableList(calcImports()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcImports()), getStructureDependency());
       }
     }, false);
   private CachedValue<Set<ErlangFunction>> myExportedFunctionValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<Set<ErlangFunction>>() {
       @Override
       public Result<Set<ErlangFunction>> compute() {
-        return Result.create(unmodifiableSet(calcExportedFunctions()), ErlangFileImpl.this);
+        return Result.create(unmodifiableSet(calcExportedFunctions()), getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangAttribute>> myAttributeValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangAttribute>>() {
       @Override
       public Result<List<ErlangAttribute>> compute() {
-        return Result.create(unmodifiableList(calcAttributes()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcAttributes()), getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangRecordDefinition>> myRecordValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangRecordDefinition>>() {
       @Override
       public Result<List<ErlangRecordDefinition>> compute() {
-        return Result.create(unmodifiableList(calcRecords()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcRecords()), getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangInclude>> myIncludeValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangInclude>>() {
       @Override
       public Result<List<ErlangInclude>> compute() {
-        return Result.create(unmodifiableList(calcIncludes()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcIncludes()), getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangIncludeLib>> myIncludeLibValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangIncludeLib>>() {
       @Override
       public Result<List<ErlangIncludeLib>> compute() {
-        return Result.create(unmodifiableList(calcIncludeLibs()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcIncludeLibs()), getStructureDependency());
       }
     }, false);
   private CachedValue<MultiMap<String, ErlangFunction>> myFunctionsMap =
@@ -160,18 +184,29 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
         for (ErlangFunction function : getFunctions()) {
           map.putValue(function.getName(), function);
         }
-        return Result.create(map, ErlangFileImpl.this);
+        return Result.create(map, getStructureDependency());
+      }
+    }, false);
+  private CachedValue<ErlangFunctionSignatureMap<ErlangFunction>> myFunctionSignatures =
+    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<ErlangFunctionSignatureMap<ErlangFunction>>() {
+      @Override
+      public Result<ErlangFunctionSignatureMap<ErlangFunction>> compute() {
+        ErlangFunctionSignatureMap<ErlangFunction> map = new ErlangFunctionSignatureMap<ErlangFunction>();
+        for (ErlangFunction function : getFunctions()) {
+          map.put(function.getName(), function.getArity(), function);
+        }
+        return Result.create(map, getStructureDependency());
       }
     }, false);
-  private CachedValue<MultiMap<String, ErlangImportFunction>> myImportsMap =
-    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<MultiMap<String, ErlangImportFunction>>() {
+  private CachedValue<ErlangFunctionSignatureMap<ErlangImportFunction>> myImportsMap =
+    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<ErlangFunctionSignatureMap<ErlangImportFunction>>() {
       @Override
-      public Result<MultiMap<String, ErlangImportFunction>> compute() {
-        MultiMap<String, ErlangImportFunction> map = new MultiMap<String, ErlangImportFunction>();
+      public Result<ErlangFunctionSignatureMap<ErlangImportFunction>> compute() {
+        ErlangFunctionSignatureMap<ErlangImportFunction> map = new ErlangFunctionSignatureMap<ErlangImportFunction>();
         for (ErlangImportFunction importFunction : getImportedFunctions()) {
-          map.putValue(ErlangPsiImplUtil.getName(importFunction), importFunction);
+          map.put(ErlangPsiImplUtil.getName(importFunction), ErlangPsiImplUtil.getArity(importFunction), importFunction);
         }
-        return Result.create(map, ErlangFileImpl.this);
+        return Result.create(map, getStructureDependency());
       }
     }, false);
   private CachedValue<Map<String, ErlangRecordDefinition>> myRecordsMap =
@@ -185,14 +220,14 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
             map.put(recordName, record);
           }
         }
-        return Result.create(map, ErlangFileImpl.this);
+        return Result.create(map, getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangMacrosDefinition>> myMacrosValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangMacrosDefinition>>() {
       @Override
       public Result<List<ErlangMacrosDefinition>> compute() {
-        return Result.create(unmodifiableList(calcMacroses()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcMacroses()), getStructureDependency());
       }
     }, false);
   private CachedValue<Map<String, ErlangMacrosDefinition>> myMacrosesMap =
@@ -206,14 +241,14 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
             map.put(macrosName, macros);
           }
         }
-        return Result.create(map, ErlangFileImpl.this);
+        return Result.create(map, getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangTypeDefinition>> myTypeValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangTypeDefinition>>() {
       @Override
       public Result<List<ErlangTypeDefinition>> compute() {
-        return Result.create(unmodifiableList(calcTypes()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcTypes()), getStructureDependency());
       }
     }, false);
   private CachedValue<Map<String, ErlangTypeDefinition>> myTypeMap =
@@ -227,7 +262,7 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
             map.put(mName, type);
           }
         }
-        return Result.create(map, ErlangFileImpl.this);
+        return Result.create(map, getStructureDependency());
       }
     }, false);
   private CachedValue<Map<String, ErlangCallbackSpec>> myCallbackMap =
@@ -235,49 +270,56 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
       @Nullable
       @Override
       public Result<Map<String, ErlangCallbackSpec>> compute() {
-        return Result.create(unmodifiableMap(calcCallbacks()), ErlangFileImpl.this);
+        return Result.create(unmodifiableMap(calcCallbacks()), getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangBehaviour>> myBehavioursValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangBehaviour>>() {
       @Override
       public Result<List<ErlangBehaviour>> compute() {
-        return Result.create(unmodifiableList(calcBehaviours()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcBehaviours()), getStructureDependency());
       }
     }, false);
   private CachedValue<List<ErlangSpecification>> mySpecificationsValue =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<List<ErlangSpecification>>() {
       @Override
       public Result<List<ErlangSpecification>> compute() {
-        return Result.create(unmodifiableList(calcSpecifications()), ErlangFileImpl.this);
+        return Result.create(unmodifiableList(calcSpecifications()), getStructureDependency());
+      }
+    }, false);
+  private CachedValue<ErlangFunctionSignatureMap<ErlangSpecification>> mySpecificationsMap =
+    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<ErlangFunctionSignatureMap<ErlangSpecification>>() {
+      @Override
+      public Result<ErlangFunctionSignatureMap<ErlangSpecification>> compute() {
+        return Result.create(calcSpecificationsMap(), getStructureDependency());
       }
     }, false);
   private CachedValue<Boolean> myExportAll =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<Boolean>() {
       @Override
       public Result<Boolean> compute() {
-        return Result.create(calcExportAll(), ErlangFileImpl.this);
+        return Result.create(calcExportAll(), getStructureDependency());
       }
     }, false);
   private CachedValue<Boolean> myNoAutoImportAll =
     CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<Boolean>() {
       @Override
       public Result<Boolean> compute() {
-        return Result.create(calcNoAutoImportAll(), ErlangFileImpl.this);
+        return Result.create(calcNoAutoImportAll(), getStructureDependency());
       }
     }, false);
-  private CachedValue<Set<String>> myExportedFunctionsSignatures =
-    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<Set<String>>() {
+  private CachedValue<ErlangFunctionSignatureMap<ErlangExportFunction>> myExportedFunctionsSignatures =
+    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<ErlangFunctionSignatureMap<ErlangExportFunction>>() {
       @Override
-      public Result<Set<String>> compute() {
-        return Result.create(unmodifiableSet(calcExportedSignatures()), ErlangFileImpl.this);
+      public Result<ErlangFunctionSignatureMap<ErlangExportFunction>> compute() {
+        return Result.create(calcExportedSignatures(), getStructureDependency());
       }
     }, false);
-  private CachedValue<Set<String>> myNoAutoImportFunctionsSignatures =
-    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<Set<String>>() {
+  private CachedValue<ErlangFunctionSignatureMap<ErlangExpression>> myNoAutoImportFunctionsSignatures =
+    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<ErlangFunctionSignatureMap<ErlangExpression>>() {
       @Override
-      public Result<Set<String>> compute() {
-        return Result.create(unmodifiableSet(calcNoAutoImportSignatures()), ErlangFileImpl.this);
+      public Result<ErlangFunctionSignatureMap<ErlangExpression>> compute() {
+        return Result.create(calcNoAutoImportSignatures(), getStructureDependency());
       }
     }, false);
 
@@ -296,29 +338,35 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
 
   @Override
   public boolean isExported(@NotNull String signature) {
+    int slash = signature.lastIndexOf('/');
+    int arity = slash != -1 ? StringUtil.parseInt(signature.substring(slash + 1), -1) : -1;
+    return arity != -1 && isExported(signature.substring(0, slash), arity);
+  }
+
+  @Override
+  public boolean isExported(@NotNull String name, int arity) {
     if (isExportedAll()) return true;
-    return myExportedFunctionsSignatures.getValue().contains(signature);
+    return myExportedFunctionsSignatures.getValue().contains(name, arity);
   }
 
   @Override
   public boolean isNoAutoImport(@NotNull String name, int arity) {
     if (isNoAutoImportAll()) return true;
-    return myNoAutoImportFunctionsSignatures.getValue().contains(name + "/" + arity);
+    return myNoAutoImportFunctionsSignatures.getValue().contains(name, arity);
   }
 
   @NotNull
-  private Set<String> calcExportedSignatures() {
-    Set<String> result = ContainerUtil.newHashSet();
+  private ErlangFunctionSignatureMap<ErlangExportFunction> calcExportedSignatures() {
+    ErlangFunctionSignatureMap<ErlangExportFunction> result = new ErlangFunctionSignatureMap<ErlangExportFunction>();
     for (ErlangAttribute attribute : getAttributes()) {
       ErlangExport export = attribute.getExport();
       ErlangExportFunctions exportFunctions = export != null ? export.getExportFunctions() : null;
       if (exportFunctions == null) continue;
       List<ErlangExportFunction> list = exportFunctions.getExportFunctionList();
       for (ErlangExportFunction exportFunction : list) {
-        PsiElement integer = exportFunction.getInteger();
-        if (integer == null) continue;
-        String s = ErlangPsiImplUtil.getExportFunctionName(exportFunction) + "/" + integer.getText();
-        result.add(s);
+        int arity = getArity(exportFunction.getInteger());
+        if (arity == -1) continue;
+        result.put(ErlangPsiImplUtil.getExportFunctionName(exportFunction), arity, exportFunction);
       }
     }
     return result;
@@ -337,38 +385,40 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
   }
 
   @NotNull
-  private Set<String> calcNoAutoImportSignatures() {
-    Set<String> result = ContainerUtil.newHashSet();
+  private ErlangFunctionSignatureMap<ErlangExpression> calcNoAutoImportSignatures() {
+    ErlangFunctionSignatureMap<ErlangExpression> result = new ErlangFunctionSignatureMap<ErlangExpression>();
     for (ErlangExpression expression : getCompileDirectiveExpressions()) {
       if (expression instanceof ErlangListExpression) {
         for (ErlangExpression tuple : ((ErlangListExpression) expression).getExpressionList()) {
           if (tuple instanceof ErlangTupleExpression) {
-            result.addAll(getNoAutoImportFunctionSignaturesFromTuple((ErlangTupleExpression) tuple));
+            addNoAutoImportFunctionSignaturesFromTuple((ErlangTupleExpression) tuple, result);
           }
         }
       }
       else if (expression instanceof ErlangTupleExpression) {
-        result.addAll(getNoAutoImportFunctionSignaturesFromTuple((ErlangTupleExpression) expression));
+        addNoAutoImportFunctionSignaturesFromTuple((ErlangTupleExpression) expression, result);
       }
     }
     return result;
   }
 
-  @NotNull
-  private static Set<String> getNoAutoImportFunctionSignaturesFromTuple(@Nullable ErlangTupleExpression tupleExpression) {
-    final Set<String> result = ContainerUtil.newHashSet();
-    if (tupleExpression == null || tupleExpression.getExpressionList().size() != 2) return result;
+  private static void addNoAutoImportFunctionSignaturesFromTuple(@Nullable ErlangTupleExpression tupleExpression,
+                                                                 @NotNull final ErlangFunctionSignatureMap<ErlangExpression> result) {
+    if (tupleExpression == null || tupleExpression.getExpressionList().size() != 2) return;
     ErlangExpression first = ContainerUtil.getFirstItem(tupleExpression.getExpressionList());
     ErlangExpression second = ContainerUtil.getLastItem(tupleExpression.getExpressionList());
     if (!(first instanceof ErlangMaxExpression)
       || !(second instanceof ErlangListExpression)
       || !"no_auto_import".equals(getAtomName((ErlangMaxExpression) first))) {
-      return result;
+      return;
     }
     second.accept(new ErlangRecursiveVisitor() {
       @Override
       public void visitAtomWithArityExpression(@NotNull ErlangAtomWithArityExpression o) {
-        result.add(createFunctionPresentation(o));
+        int functionArity = getArity(o.getInteger());
+        if (functionArity == -1) return;
+
+        result.put(ErlangPsiImplUtil.getName(o.getQAtom()), functionArity, o);
       }
 
       @Override
@@ -380,10 +430,9 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
         int functionArity = getArity(ObjectUtils.tryCast(exprs.get(1), ErlangMaxExpression.class));
         if (functionName == null || functionArity == -1) return;
 
-        result.add(createFunctionPresentation(functionName, functionArity));
+        result.put(functionName, functionArity, o);
       }
     });
-    return result;
   }
 
   @Override
@@ -512,8 +561,7 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
   @Nullable
   @Override
   public ErlangFunction getFunction(@NotNull String name, int argsCount) {
-    MultiMap<String, ErlangFunction> value = myFunctionsMap.getValue();
-    return getFunctionFromMap(value, name, argsCount);
+    return myFunctionSignatures.getValue().get(name, argsCount);
   }
 
   @Override
@@ -522,18 +570,6 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
     return myFunctionsMap.getValue().get(name);
   }
 
-  @Nullable
-  private static ErlangFunction getFunctionFromMap(MultiMap<String, ErlangFunction> value, String name, final int argsCount) {
-    Collection<ErlangFunction> candidates = value.get(name);
-
-    return ContainerUtil.getFirstItem(ContainerUtil.filter(candidates, new Condition<ErlangFunction>() {
-      @Override
-      public boolean value(ErlangFunction erlangFunction) {
-        return erlangFunction.getArity() == argsCount;
-      }
-    }));
-  }
-
   @NotNull
   @Override
   public List<ErlangRecordDefinition> getRecords() {
@@ -718,21 +754,37 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
     return result;
   }
 
+  @Nullable
+  @Override
+  public ErlangSpecification getSpecification(@NotNull String name, int arity) {
+    return mySpecificationsMap.getValue().get(name, arity);
+  }
+
+  @NotNull
+  private ErlangFunctionSignatureMap<ErlangSpecification> calcSpecificationsMap() {
+    ErlangModule module = getModule();
+    String moduleName = module != null ? module.getName() : null;
+    ErlangFunctionSignatureMap<ErlangSpecification> map = new ErlangFunctionSignatureMap<ErlangSpecification>();
+    for (ErlangSpecification specification : getSpecifications()) {
+      ErlangFunTypeSigs signature = getSignature(specification);
+      ErlangSpecFun specFun = signature != null ? signature.getSpecFun() : null;
+      Integer arity = specFun != null ? getArity(specFun) : null;
+      if (arity == null) continue;
+      ErlangModuleRef moduleRef = signature.getModuleRef();
+      if (moduleRef != null && !ErlangPsiImplUtil.getName(moduleRef.getQAtom()).equals(moduleName)) continue;
+      map.put(ErlangPsiImplUtil.getName(specFun.getQAtom()), arity, specification);
+    }
+    return map;
+  }
+
   @Override
   public ErlangRecordDefinition getRecord(String name) {
     return myRecordsMap.getValue().get(name);
   }
 
   @Nullable
-  public ErlangImportFunction getImportedFunction(String name, final int arity) {
-    MultiMap<String, ErlangImportFunction> importsMap = myImportsMap.getValue();
-    Collection<ErlangImportFunction> importFunctions = importsMap.get(name);
-    return ContainerUtil.find(importFunctions, new Condition<ErlangImportFunction>() {
-      @Override
-      public boolean value(ErlangImportFunction importFunction) {
-        return arity == ErlangPsiImplUtil.getArity(importFunction);
-      }
-    });
+  public ErlangImportFunction getImportedFunction(String name, int arity) {
+    return myImportsMap.getValue().get(name, arity);
   }
 
   @NotNull
@@ -58,7 +58,7 @@ public class ErlangFunctionReferenceImpl<T extends ErlangQAtom> extends PsiPolyV
       String moduleName = ErlangPsiImplUtil.getName(myModuleAtom);
       ErlangFunction explicitFunction = getExternalFunction(moduleName);
       boolean resolveToCallSite = explicitFunction == null && (
-        ErlangBifTable.isBif(moduleName, myReferenceName, myArity) ||
+        ErlangBifTable.isBif(ErlangSdkType.getRelease(getElement()), moduleName, myReferenceName, myArity) ||
         ErlangOperatorTable.canBeInvokedAsFunction(moduleName, myReferenceName, myArity) ||
         myReferenceName.equals(ErlangBifTable.MODULE_INFO) && (myArity == 1 || myArity == 0)
       );
@@ -93,7 +93,7 @@ public class ErlangFunctionReferenceImpl<T extends ErlangQAtom> extends PsiPolyV
 
       ErlangSdkRelease release = ErlangSdkType.getRelease(file);
       if ((release == null || release.needBifCompletion("erlang")) &&
-          ErlangBifTable.isBif("erlang", myReferenceName, myArity) ||
+          ErlangBifTable.isBif(release, "erlang", myReferenceName, myArity) ||
           ErlangBifTable.isBif("", myReferenceName, myArity)) return getElement();
     }
 
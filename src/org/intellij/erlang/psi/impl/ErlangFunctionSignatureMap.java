@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi.impl;
+
+import gnu.trove.THashMap;
+import gnu.trove.TIntObjectHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Maps function name and arity to a value, by name and then by arity, so that lookups don't build
+ * <code>name/arity</code> strings and allocate nothing.
+ */
+class ErlangFunctionSignatureMap<T> {
+  private final Map<String, TIntObjectHashMap<T>> myMap = new THashMap<String, TIntObjectHashMap<T>>();
+
+  /**
+   * Keeps the value which was put first for the same name and arity.
+   */
+  void put(@NotNull String name, int arity, @NotNull T value) {
+    TIntObjectHashMap<T> arities = myMap.get(name);
+    if (arities == null) {
+      arities = new TIntObjectHashMap<T>(2);
+      myMap.put(name, arities);
+    }
+    if (!arities.containsKey(arity)) {
+      arities.put(arity, value);
+    }
+  }
+
+  @Nullable
+  T get(@NotNull String name, int arity) {
+    TIntObjectHashMap<T> arities = myMap.get(name);
+    return arities != null ? arities.get(arity) : null;
+  }
+
+  boolean contains(@NotNull String name, int arity) {
+    return get(name, arity) != null;
+  }
+}
@@ -17,8 +17,10 @@
 package org.intellij.erlang.psi.impl;
 
 import com.intellij.codeInsight.completion.BasicInsertHandler;
+import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.InsertHandler;
 import com.intellij.codeInsight.completion.InsertionContext;
+import com.intellij.codeInsight.completion.PrefixMatcher;
 import com.intellij.codeInsight.completion.PrioritizedLookupElement;
 import com.intellij.codeInsight.completion.util.ParenthesesInsertHandler;
 import com.intellij.codeInsight.lookup.LookupElement;
@@ -26,12 +28,11 @@ import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.execution.console.LanguageConsoleImpl;
 import com.intellij.lang.ASTNode;
 import com.intellij.navigation.ItemPresentation;
-import com.intellij.openapi.application.AccessToken;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.*;
 import com.intellij.openapi.util.io.FileUtilRt;
@@ -49,7 +50,6 @@ import com.intellij.psi.scope.PsiScopeProcessor;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.LocalSearchScope;
 import com.intellij.psi.search.SearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.psi.stubs.NamedStubBase;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -95,6 +95,8 @@ public class ErlangPsiImplUtil {
   );
   public static final Key<LanguageConsoleImpl> ERLANG_CONSOLE = Key.create("ERLANG_CONSOLE");
 
+  private static final int EXPORTED_FUNCTIONS_BATCH_SIZE = 50;
+
   private static Pattern ATOM_PATTERN = Pattern.compile("[a-z][a-zA-Z_@0-9]*");
   private static Pattern QUOTED_ATOM_NAME = Pattern.compile("(\\\\\\^.|\\\\.|[^'])*"); //see https://github.com/rvirding/leex/blob/master/examples/erlang_scan.xrl
 
@@ -492,7 +494,7 @@ public class ErlangPsiImplUtil {
         functions.addAll(getExternalFunctionForCompletion(containingFile.getProject(), moduleName));
 
         if (release == null || release.needBifCompletion(moduleName)) {
-          addBifs(lookupElements, ErlangBifTable.getBifs(moduleName), withArity);
+          addBifs(lookupElements, ErlangBifTable.getBifs(release, moduleName), withArity);
         }
         addBifs(lookupElements, ErlangBifTable.getBifs("", ErlangBifTable.MODULE_INFO), withArity);
       }
@@ -509,7 +511,7 @@ public class ErlangPsiImplUtil {
         }
 
         if (!withArity && (release == null || release.needBifCompletion("erlang"))) {
-          addBifs(lookupElements, ErlangBifTable.getBifs("erlang"));
+          addBifs(lookupElements, ErlangBifTable.getBifs(release, "erlang"));
         }
         if (!withArity && (release == null || release.needBifCompletion(""))) {
           addBifs(lookupElements, ErlangBifTable.getBifs(""));
@@ -529,26 +531,44 @@ public class ErlangPsiImplUtil {
     }
   }
 
-  @NotNull
-  public static Collection<LookupElement> getAllExportedFunctionsWithModuleLookupElements(@NotNull Project project,
-                                                                                          boolean withArity,
-                                                                                          @Nullable String exclude) {
-    List<LookupElement> lookupElements = ContainerUtil.newArrayList();
+  /**
+   * Adds <code>module:function</code> elements accepted by the prefix matcher of the result set. They are passed
+   * to the result set in small batches while going through the modules, so the first ones are shown before all
+   * the modules are looked at and the completion can be cancelled between modules.
+   */
+  public static void addAllExportedFunctionsWithModuleLookupElements(@NotNull Project project,
+                                                                     @NotNull CompletionResultSet result,
+                                                                     boolean withArity,
+                                                                     @Nullable String exclude) {
+    PrefixMatcher matcher = result.getPrefixMatcher();
+    String prefix = matcher.getPrefix();
+    int colonIdx = prefix.indexOf(':');
+    PrefixMatcher moduleMatcher = colonIdx != -1 ? matcher.cloneWithPrefix(prefix.substring(0, colonIdx)) : null;
+    GlobalSearchScope searchScope = GlobalSearchScope.allScope(project);
+    List<LookupElement> batch = ContainerUtil.newArrayList();
     for (String moduleName : ErlangModuleIndex.getNames(project)) {
-      if (exclude != null && moduleName.equals(exclude)) continue;
-      for (ErlangFunction function : getExternalFunctionForCompletion(project, moduleName)) {
-        String functionName = function.getName();
-        String fullName = moduleName + ":" + functionName;
-        int arity = function.getArity();
-        lookupElements.add(
-          PrioritizedLookupElement.withPriority(
-            LookupElementBuilder.create(function, fullName)
-              .withIcon(ErlangIcons.FUNCTION).withTailText("/" + arity)
-              .withInsertHandler(getInsertHandler(functionName, moduleName, arity, withArity)),
-            ErlangCompletionContributor.EXTERNAL_FUNCTIONS_PRIORITY));
+      ProgressManager.checkCanceled();
+      if (moduleName.equals(exclude) || moduleMatcher != null && !moduleMatcher.prefixMatches(moduleName)) continue;
+      for (ErlangFile file : ErlangModuleIndex.getFilesByNameUnordered(project, moduleName, searchScope)) {
+        for (ErlangFunction function : file.getExportedFunctions()) {
+          String functionName = function.getName();
+          String fullName = moduleName + ":" + functionName;
+          if (!matcher.prefixMatches(fullName)) continue;
+          int arity = function.getArity();
+          batch.add(
+            PrioritizedLookupElement.withPriority(
+              LookupElementBuilder.create(function, fullName)
+                .withIcon(ErlangIcons.FUNCTION).withTailText("/" + arity)
+                .withInsertHandler(getInsertHandler(functionName, moduleName, arity, withArity)),
+              ErlangCompletionContributor.EXTERNAL_FUNCTIONS_PRIORITY));
+        }
+      }
+      if (batch.size() >= EXPORTED_FUNCTIONS_BATCH_SIZE) {
+        result.addAllElements(batch);
+        batch.clear();
       }
     }
-    return lookupElements;
+    result.addAllElements(batch);
   }
 
   private static void addBifs(@NotNull List<LookupElement> lookupElements, @NotNull Collection<ErlangBifDescriptor> bifs, boolean withArity) {
@@ -1540,17 +1560,7 @@ public class ErlangPsiImplUtil {
   public static ErlangSpecification findSpecification(@Nullable ErlangFunction function) {
     if (function == null) return null;
     PsiFile file = function.getContainingFile();
-    if (!(file instanceof ErlangFile)) return null;
-    List<ErlangSpecification> specifications = ((ErlangFile) file).getSpecifications();
-    LocalSearchScope scope = new LocalSearchScope(ArrayUtil.toObjectArray(specifications, ErlangSpecification.class));
-    AccessToken token = ApplicationManager.getApplication().acquireReadActionLock();
-    try {
-      Query<PsiReference> search = ReferencesSearch.search(function, scope);
-      PsiReference first = search.findFirst();
-      return PsiTreeUtil.getParentOfType(first != null ? first.getElement() : null, ErlangSpecification.class);
-    } finally {
-      token.finish();
-    }
+    return file instanceof ErlangFile ? ((ErlangFile) file).getSpecification(function.getName(), function.getArity()) : null;
   }
 
   public static boolean notFromPreviousFunction(@NotNull PsiElement spec, @Nullable ErlangFunction prevFunction) {
@@ -1719,8 +1729,7 @@ public class ErlangPsiImplUtil {
     if (stub != null) return stub.isExported();
 
     PsiFile file = o.getContainingFile();
-    String signature = o.getName() + "/" + o.getArity();
-    return file instanceof ErlangFile && ((ErlangFile) file).isExported(signature);
+    return file instanceof ErlangFile && ((ErlangFile) file).isExported(o.getName(), o.getArity());
   }
 
   @Nullable
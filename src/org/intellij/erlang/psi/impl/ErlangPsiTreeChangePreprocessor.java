@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi.impl;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.PsiTreeChangeEventImpl;
+import com.intellij.psi.impl.PsiTreeChangePreprocessor;
+import org.intellij.erlang.psi.ErlangClauseBody;
+import org.intellij.erlang.psi.ErlangFunctionClause;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Bumps the structure modification count of an Erlang file unless a change is confined to a function clause body.
+ */
+public class ErlangPsiTreeChangePreprocessor implements PsiTreeChangePreprocessor {
+  @Override
+  public void treeChanged(@NotNull PsiTreeChangeEventImpl event) {
+    PsiFile file = event.getFile();
+    if (!(file instanceof ErlangFileImpl)) return;
+    if (!isInsideFunctionBody(event)) {
+      ((ErlangFileImpl) file).structureChanged();
+    }
+  }
+
+  private static boolean isInsideFunctionBody(@NotNull PsiTreeChangeEventImpl event) {
+    PsiElement parent = event.getParent();
+    if (isInsideFunctionBody(parent)) return true;
+    if (!(parent instanceof ErlangFunctionClause)) return false;
+    PsiElement child = event.getChild();
+    PsiElement oldChild = event.getOldChild();
+    PsiElement newChild = event.getNewChild();
+    if (child == null && oldChild == null && newChild == null) return false;
+    return isBodyOrNull(child) && isBodyOrNull(oldChild) && isBodyOrNull(newChild);
+  }
+
+  private static boolean isInsideFunctionBody(@Nullable PsiElement element) {
+    for (PsiElement e = element; e != null && !(e instanceof PsiFile); e = e.getParent()) {
+      if (e instanceof ErlangClauseBody && e.getParent() instanceof ErlangFunctionClause) return true;
+    }
+    return false;
+  }
+
+  private static boolean isBodyOrNull(@Nullable PsiElement element) {
+    return element == null || element instanceof ErlangClauseBody;
+  }
+}
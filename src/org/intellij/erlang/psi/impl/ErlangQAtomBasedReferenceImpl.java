@@ -30,6 +30,10 @@ public abstract class ErlangQAtomBasedReferenceImpl<T extends ErlangQAtom> exten
     myReferenceName = name;
   }
 
+  public String getReferenceName() {
+    return myReferenceName;
+  }
+
   @Override
   public PsiElement handleElementRename(String newElementName) throws IncorrectOperationException {
     ErlangPsiImplUtil.renameQAtom(myElement, newElementName);
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi.impl;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.containers.MultiMap;
+import org.intellij.erlang.psi.ErlangFile;
+import org.intellij.erlang.psi.ErlangQVar;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Resolved targets of all function, type and variable references of a file, collected in a single tree walk.
+ * Unused symbol inspections consult it instead of running a references search per declaration.
+ */
+public class ErlangUsageCensus {
+  private final MultiMap<PsiElement, PsiElement> myUsages = new MultiMap<PsiElement, PsiElement>();
+  private final MultiMap<String, ErlangQVar> myResolvedVariables = new MultiMap<String, ErlangQVar>();
+
+  private ErlangUsageCensus(@NotNull final ErlangFile file) {
+    file.accept(new PsiRecursiveElementWalkingVisitor() {
+      @Override
+      public void visitElement(PsiElement element) {
+        PsiReference reference = element.getReference();
+        if (reference != null) {
+          collect(file, element, reference);
+        }
+        super.visitElement(element);
+      }
+    });
+  }
+
+  @NotNull
+  public static ErlangUsageCensus getCensus(@NotNull final ErlangFile file) {
+    return CachedValuesManager.getCachedValue(file, new CachedValueProvider<ErlangUsageCensus>() {
+      @Override
+      public Result<ErlangUsageCensus> compute() {
+        return Result.create(new ErlangUsageCensus(file), file);
+      }
+    });
+  }
+
+  /**
+   * @return elements of the file whose references resolve to the target
+   */
+  @NotNull
+  public Collection<PsiElement> getUsages(@NotNull PsiElement target) {
+    return myUsages.get(target);
+  }
+
+  /**
+   * @return variables with the given name which resolve to some declaration
+   */
+  @NotNull
+  public Collection<ErlangQVar> getResolvedVariables(@NotNull String name) {
+    return myResolvedVariables.get(name);
+  }
+
+  private void collect(@NotNull ErlangFile file, @NotNull PsiElement element, @NotNull PsiReference reference) {
+    if (reference instanceof ErlangVariableReferenceImpl) {
+      ResolveResult[] results = ((ErlangVariableReferenceImpl) reference).multiResolve(false);
+      for (ResolveResult result : results) {
+        PsiElement target = result.getElement();
+        if (target != null && target != element) {
+          myUsages.putValue(target, element);
+        }
+      }
+      if (results.length != 0) {
+        myResolvedVariables.putValue(element.getText(), (ErlangQVar) element);
+      }
+    }
+    else if (reference instanceof ErlangFunctionReferenceImpl) {
+      // references to functions declared elsewhere cannot make a function of this file used
+      if (file.getFunctionsByName(((ErlangFunctionReferenceImpl) reference).getName()).isEmpty()) return;
+      addResolved(element, reference);
+    }
+    else if (reference instanceof ErlangTypeReferenceImpl) {
+      if (file.getType(((ErlangTypeReferenceImpl) reference).getReferenceName()) == null) return;
+      addResolved(element, reference);
+    }
+  }
+
+  private void addResolved(@NotNull PsiElement element, @NotNull PsiReference reference) {
+    PsiElement target = reference.resolve();
+    if (target != null && target != element) {
+      myUsages.putValue(target, element);
+    }
+  }
+}
@@ -39,8 +39,6 @@ import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileVisitor;
-import com.intellij.openapi.vfs.newvfs.impl.VirtualDirectoryImpl;
 import com.intellij.packaging.artifacts.ModifiableArtifactModel;
 import com.intellij.projectImport.ProjectImportBuilder;
 import com.intellij.util.Function;
@@ -131,34 +129,17 @@ public class RebarProjectImportBuilder extends ProjectImportBuilder<ImportedOtpA
       return true;
     }
     
-    boolean unitTestMode = ApplicationManager.getApplication().isUnitTestMode();
-    
     myProjectRoot = projectRoot;
-    if (!unitTestMode && projectRoot instanceof VirtualDirectoryImpl) {
-      ((VirtualDirectoryImpl) projectRoot).refreshAndFindChild("deps");
-    }
 
     ProgressManager.getInstance().run(new Task.Modal(getCurrentProject(), "Scanning Rebar projects", true) {
       public void run(@NotNull final ProgressIndicator indicator) {
-
-        List<VirtualFile> rebarConfigFiles = findRebarConfigs(myProjectRoot, indicator);
-        final LinkedHashSet<ImportedOtpApp> importedOtpApps = new LinkedHashSet<ImportedOtpApp>(rebarConfigFiles.size());
-
-        VfsUtilCore.visitChildrenRecursively(projectRoot, new VirtualFileVisitor() {
-          @Override
-          public boolean visitFile(@NotNull VirtualFile file) {
-            indicator.checkCanceled();
-
-            if (file.isDirectory()) {
-              indicator.setText2(file.getPath());
-              if (isExamplesDirectory(file) || isRelDirectory(projectRoot.getPath(), file.getPath())) return false;
-            }
-
-            ContainerUtil.addAllNotNull(importedOtpApps, createImportedOtpApp(file));
-            return true;
-          }
-        });
-
+        File root = VfsUtilCore.virtualToIoFile(projectRoot);
+        List<VirtualFile> appRoots = new RebarProjectScanner(root, myImportExamples, indicator).scan();
+        LinkedHashSet<ImportedOtpApp> importedOtpApps = new LinkedHashSet<ImportedOtpApp>(appRoots.size());
+        for (VirtualFile appRoot : appRoots) {
+          indicator.checkCanceled();
+          ContainerUtil.addAllNotNull(importedOtpApps, createImportedOtpApp(appRoot));
+        }
         myFoundOtpApps = ContainerUtil.newArrayList(importedOtpApps);
       }
     });
@@ -178,10 +159,6 @@ public class RebarProjectImportBuilder extends ProjectImportBuilder<ImportedOtpA
     return !myFoundOtpApps.isEmpty();
   }
 
-  private static boolean isRelDirectory(String projectRootPath, String path) {
-    return (projectRootPath + "/rel").equals(path);
-  }
-
   @SuppressWarnings("DialogTitleCapitalization")
   @Override
   public boolean validate(Project current, Project dest) {
@@ -338,32 +315,6 @@ public class RebarProjectImportBuilder extends ProjectImportBuilder<ImportedOtpA
     }
   }
 
-  @NotNull
-  private List<VirtualFile> findRebarConfigs(@NotNull final VirtualFile root, @NotNull final ProgressIndicator indicator) {
-    root.refresh(false, true);
-    final List<VirtualFile> foundRebarConfigs = new ArrayList<VirtualFile>();
-    VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor() {
-      @Override
-      public boolean visitFile(@NotNull VirtualFile file) {
-        indicator.checkCanceled();
-        if (file.isDirectory()) {
-          if (isExamplesDirectory(file) || isRelDirectory(root.getPath(), file.getPath())) return false;
-          indicator.setText2(file.getPath());
-        }
-        else if (file.getName().equalsIgnoreCase("rebar.config")) {
-          foundRebarConfigs.add(file);
-        }
-        return true;
-      }
-    });
-
-    return foundRebarConfigs;
-  }
-
-  private boolean isExamplesDirectory(VirtualFile virtualFile) {
-    return "examples".equals(virtualFile.getName()) && !myImportExamples;
-  }
-
   @Nullable
   private static ImportedOtpApp createImportedOtpApp(@NotNull VirtualFile appRoot) {
     VirtualFile appResourceFile = findAppResourceFile(appRoot);
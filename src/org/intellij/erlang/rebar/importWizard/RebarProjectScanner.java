@@ -0,0 +1,202 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.rebar.importWizard;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Looks for OTP applications on disk rather than in VFS, skipping directories which can't contain applications
+ * or contain only generated copies of them, and walks each top-level directory of the project on its own thread.
+ * VFS is refreshed afterwards, for the found applications and the directories around them only.
+ */
+final class RebarProjectScanner {
+  private static final Logger LOG = Logger.getInstance(RebarProjectScanner.class);
+
+  /**
+   * Directories of an application which never contain other applications.
+   */
+  private static final Set<String> APPLICATION_LEAF_DIRECTORIES =
+    ContainerUtil.newHashSet("src", "ebin", "include", "priv", "c_src", "doc", "test", "logs");
+
+  @NotNull private final File myRoot;
+  private final boolean myImportExamples;
+  @NotNull private final ProgressIndicator myIndicator;
+  private final Set<String> myVisitedPaths = ContainerUtil.newConcurrentSet();
+
+  RebarProjectScanner(@NotNull File root, boolean importExamples, @NotNull ProgressIndicator indicator) {
+    myRoot = root;
+    myImportExamples = importExamples;
+    myIndicator = indicator;
+  }
+
+  /**
+   * @return roots of the found applications, already refreshed in VFS
+   */
+  @NotNull
+  List<VirtualFile> scan() {
+    List<File> appRoots = findApplicationRoots();
+    myIndicator.checkCanceled();
+    return refresh(appRoots);
+  }
+
+  @NotNull
+  private List<File> findApplicationRoots() {
+    final List<File> appRoots = Collections.synchronizedList(new ArrayList<File>());
+    boolean isApplicationRoot = isApplicationRoot(myRoot);
+    if (isApplicationRoot) {
+      appRoots.add(myRoot);
+    }
+    myVisitedPaths.add(getCanonicalPath(myRoot));
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    for (final File child : listDirectories(myRoot)) {
+      if (isSkipped(myRoot, child, isApplicationRoot)) continue;
+      futures.add(ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
+        @Override
+        public Void call() {
+          collectApplicationRoots(child, appRoots);
+          return null;
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      }
+      catch (InterruptedException e) {
+        LOG.info(e);
+      }
+      catch (ExecutionException e) {
+        LOG.error(e);
+      }
+    }
+    return appRoots;
+  }
+
+  private void collectApplicationRoots(@NotNull File dir, @NotNull List<File> appRoots) {
+    if (myIndicator.isCanceled() || !myVisitedPaths.add(getCanonicalPath(dir))) return;
+    myIndicator.setText2(dir.getPath());
+    boolean isApplicationRoot = isApplicationRoot(dir);
+    if (isApplicationRoot) {
+      appRoots.add(dir);
+    }
+    for (File child : listDirectories(dir)) {
+      if (isSkipped(dir, child, isApplicationRoot)) continue;
+      collectApplicationRoots(child, appRoots);
+    }
+  }
+
+  private boolean isSkipped(@NotNull File parent, @NotNull File dir, boolean parentIsApplicationRoot) {
+    return parentIsApplicationRoot && APPLICATION_LEAF_DIRECTORIES.contains(dir.getName()) || isPruned(parent, dir);
+  }
+
+  private boolean isPruned(@NotNull File parent, @NotNull File dir) {
+    String name = dir.getName();
+    if (name.startsWith(".") || "_rel".equals(name)) return true;
+    if ("examples".equals(name)) return !myImportExamples;
+    if ("rel".equals(name)) {
+      // releases assembled by rebar generate and rebar3 (_build/<profile>/rel)
+      File grandParent = parent.getParentFile();
+      return FileUtil.filesEqual(parent, myRoot) || grandParent != null && "_build".equals(grandParent.getName());
+    }
+    return false;
+  }
+
+  /**
+   * Refreshes the application roots and every directory next to them which doesn't contain other applications
+   * (e.g. src, include, ../include), while directories holding several applications (e.g. deps) are refreshed
+   * non-recursively.
+   */
+  @NotNull
+  private List<VirtualFile> refresh(@NotNull List<File> appRoots) {
+    Set<File> appBearingDirs = new TreeSet<File>();
+    for (File appRoot : appRoots) {
+      for (File dir = appRoot; dir != null && !appBearingDirs.contains(dir); dir = dir.getParentFile()) {
+        appBearingDirs.add(dir);
+        if (FileUtil.filesEqual(dir, myRoot)) break;
+      }
+    }
+    appBearingDirs.add(myRoot);
+
+    LocalFileSystem fileSystem = LocalFileSystem.getInstance();
+    List<VirtualFile> leafDirs = new ArrayList<VirtualFile>();
+    for (File dir : appBearingDirs) { // parents go first
+      VirtualFile virtualDir = fileSystem.refreshAndFindFileByIoFile(dir);
+      if (virtualDir == null) continue;
+      virtualDir.refresh(false, false);
+      for (File child : listDirectories(dir)) {
+        if (appBearingDirs.contains(child) || isPruned(dir, child)) continue;
+        ContainerUtil.addIfNotNull(virtualDir.findChild(child.getName()), leafDirs);
+      }
+    }
+    fileSystem.refreshFiles(leafDirs, false, true, null);
+
+    List<VirtualFile> virtualAppRoots = new ArrayList<VirtualFile>(appRoots.size());
+    for (File appRoot : appRoots) {
+      ContainerUtil.addIfNotNull(fileSystem.findFileByIoFile(appRoot), virtualAppRoots);
+    }
+    return virtualAppRoots;
+  }
+
+  @NotNull
+  private static String getCanonicalPath(@NotNull File dir) {
+    try {
+      return dir.getCanonicalPath();
+    }
+    catch (IOException e) {
+      return dir.getAbsolutePath();
+    }
+  }
+
+  private static boolean isApplicationRoot(@NotNull File dir) {
+    return hasFileWithExtension(new File(dir, "src"), ".app.src") || hasFileWithExtension(new File(dir, "ebin"), ".app");
+  }
+
+  private static boolean hasFileWithExtension(@NotNull File dir, @NotNull String extension) {
+    String[] names = dir.list();
+    if (names == null) return false;
+    for (String name : names) {
+      if (name.endsWith(extension) && new File(dir, name).isFile()) return true;
+    }
+    return false;
+  }
+
+  @NotNull
+  private static List<File> listDirectories(@Nullable File dir) {
+    File[] children = dir != null ? dir.listFiles() : null;
+    if (children == null) return Collections.emptyList();
+    List<File> dirs = new ArrayList<File>(children.length);
+    for (File child : children) {
+      if (child.isDirectory()) dirs.add(child);
+    }
+    return dirs;
+  }
+}
@@ -18,6 +18,8 @@ package org.intellij.erlang.rebar.runner;
 
 import com.intellij.execution.actions.ConfigurationContext;
 import com.intellij.execution.actions.RunConfigurationProducer;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
@@ -25,6 +27,7 @@ import org.intellij.erlang.eunit.ErlangTestRunConfigProducersUtil;
 import org.intellij.erlang.eunit.ErlangUnitTestElementUtil;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunction;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 
@@ -46,7 +49,7 @@ public class RebarEunitConfigurationProducer extends RunConfigurationProducer<Re
 
     Collection<ErlangFunction> functions = ErlangUnitTestElementUtil.findFunctionTestElements(psiElement);
     Collection<ErlangFile> suites = ErlangUnitTestElementUtil.findFileTestElements(context.getProject(), context.getDataContext());
-    String command = RebarEunitConfigurationUtil.createDefaultRebarCommand(suites, functions, true);
+    String command = RebarEunitConfigurationUtil.createDefaultRebarCommand(suites, functions, true, getRebarRoot(context));
 
     if (command.isEmpty()) return false;
 
@@ -67,11 +70,21 @@ public class RebarEunitConfigurationProducer extends RunConfigurationProducer<Re
 
     Collection<ErlangFunction> functions = ErlangUnitTestElementUtil.findFunctionTestElements(psiElement);
     Collection<ErlangFile> suites = ErlangUnitTestElementUtil.findFileTestElements(context.getProject(), context.getDataContext());
-    String command = RebarEunitConfigurationUtil.createDefaultRebarCommand(suites, functions, true);
+    String command = RebarEunitConfigurationUtil.createDefaultRebarCommand(suites, functions, true, getRebarRoot(context));
 
     return configuration.getCommand().equals(command) && configuration.isSkipDependencies();
   }
 
+  /**
+   * @see RebarRunningStateUtil#getWorkingDirectory
+   */
+  @Nullable
+  private static VirtualFile getRebarRoot(ConfigurationContext context) {
+    Module module = context.getModule();
+    VirtualFile[] contentRoots = module != null ? ModuleRootManager.getInstance(module).getContentRoots() : VirtualFile.EMPTY_ARRAY;
+    return contentRoots.length >= 1 ? contentRoots[0] : context.getProject().getBaseDir();
+  }
+
   private static String createConfigurationName(Collection<ErlangFunction> functions, Collection<ErlangFile> suites) {
     if (suites.isEmpty()) return "Rebar Eunit";
 
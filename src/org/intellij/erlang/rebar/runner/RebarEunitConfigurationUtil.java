@@ -17,17 +17,23 @@
 package org.intellij.erlang.rebar.runner;
 
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunction;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 class RebarEunitConfigurationUtil {
+  private static final String APP_SRC_EXTENSION = ".app.src";
+  private static final String APP_EXTENSION = ".app";
+
   private RebarEunitConfigurationUtil() {
   }
 
@@ -66,10 +72,67 @@ class RebarEunitConfigurationUtil {
     commandBuilder.append(StringUtil.join(distinctFunctionNames, ","));
   }
 
+  /**
+   * Restricts the run to applications containing the suites when they live in sub-directories of an umbrella project,
+   * so that rebar doesn't compile and test the other applications.
+   */
+  private static void appendAppsOption(StringBuilder commandBuilder, Collection<ErlangFile> suites, @Nullable VirtualFile rebarRoot) {
+    if (rebarRoot == null || suites.isEmpty()) return;
+    Set<String> appNames = new LinkedHashSet<String>();
+    boolean hasSubApplication = false;
+    for (ErlangFile suiteFile : suites) {
+      VirtualFile virtualFile = suiteFile.getVirtualFile();
+      VirtualFile appDir = virtualFile != null ? findApplicationDirectory(virtualFile, rebarRoot) : null;
+      String appName = appDir != null ? getApplicationName(appDir) : null;
+      if (appName == null) return;
+      hasSubApplication |= !appDir.equals(rebarRoot);
+      appNames.add(appName);
+    }
+    if (!hasSubApplication) return;
+    commandBuilder.append("apps=");
+    commandBuilder.append(StringUtil.join(appNames, ","));
+    commandBuilder.append(' ');
+  }
+
+  @Nullable
+  private static VirtualFile findApplicationDirectory(@NotNull VirtualFile file, @NotNull VirtualFile rebarRoot) {
+    if (!VfsUtilCore.isAncestor(rebarRoot, file, true)) return null;
+    for (VirtualFile dir = file.getParent(); dir != null; dir = dir.getParent()) {
+      if (getApplicationName(dir) != null) return dir;
+      if (dir.equals(rebarRoot)) break;
+    }
+    return null;
+  }
+
+  @Nullable
+  private static String getApplicationName(@NotNull VirtualFile appDir) {
+    String appName = getApplicationName(appDir.findChild("src"), APP_SRC_EXTENSION);
+    return appName != null ? appName : getApplicationName(appDir.findChild("ebin"), APP_EXTENSION);
+  }
+
+  @Nullable
+  private static String getApplicationName(@Nullable VirtualFile dir, @NotNull String extension) {
+    if (dir == null || !dir.isDirectory()) return null;
+    for (VirtualFile child : dir.getChildren()) {
+      String name = child.getName();
+      if (!child.isDirectory() && name.endsWith(extension)) {
+        return name.substring(0, name.length() - extension.length());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param rebarRoot the directory rebar is run in, used to restrict the run to the applications containing the suites
+   */
   @NotNull
-  static String createDefaultRebarCommand(Collection<ErlangFile> suites, Collection<ErlangFunction> functions, boolean failIfNoSuitesSpecified) {
+  static String createDefaultRebarCommand(Collection<ErlangFile> suites,
+                                          Collection<ErlangFunction> functions,
+                                          boolean failIfNoSuitesSpecified,
+                                          @Nullable VirtualFile rebarRoot) {
     StringBuilder commandBuilder = new StringBuilder();
     commandBuilder.append("eunit ");
+    appendAppsOption(commandBuilder, suites, rebarRoot);
     if (!appendSuitesOption(commandBuilder, suites) && failIfNoSuitesSpecified) return "";
     commandBuilder.append(' ');
     appendTestsOption(commandBuilder, functions);
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.rebar.runner;
+
+import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.util.Key;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Passes rebar output to the test runner as soon as it is read, making sure that every service message
+ * starts on its own line. Rebar's compilation messages and the output of tests themselves are written to the same
+ * stream as the eunit reporter's messages and may leave a line unterminated, which would hide the next test event
+ * until the end of the run.
+ */
+class RebarEunitProcessHandler extends OSProcessHandler {
+  private static final String SERVICE_MESSAGE_START = "##teamcity[";
+
+  private boolean myStdoutAtLineStart = true;
+
+  public RebarEunitProcessHandler(@NotNull Process process, @Nullable String commandLine) {
+    super(process, commandLine);
+  }
+
+  @Override
+  public void notifyTextAvailable(String text, Key outputType) {
+    if (outputType == ProcessOutputTypes.STDOUT && !text.isEmpty()) {
+      text = separateServiceMessages(text, myStdoutAtLineStart);
+      myStdoutAtLineStart = text.endsWith("\n");
+    }
+    super.notifyTextAvailable(text, outputType);
+  }
+
+  @NotNull
+  static String separateServiceMessages(@NotNull String text, boolean atLineStart) {
+    int messageStart = text.indexOf(SERVICE_MESSAGE_START);
+    if (messageStart == -1) return text;
+    StringBuilder builder = new StringBuilder(text.length() + 4);
+    int copied = 0;
+    for (; messageStart != -1; messageStart = text.indexOf(SERVICE_MESSAGE_START, messageStart + 1)) {
+      boolean lineStart = messageStart == 0 ? atLineStart : text.charAt(messageStart - 1) == '\n';
+      if (lineStart) continue;
+      builder.append(text, copied, messageStart).append('\n');
+      copied = messageStart;
+    }
+    return builder.append(text, copied, text.length()).toString();
+  }
+}
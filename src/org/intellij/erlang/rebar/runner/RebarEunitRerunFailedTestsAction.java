@@ -39,6 +39,8 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.ComponentContainer;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.GlobalSearchScope;
@@ -139,7 +141,9 @@ public class RebarEunitRerunFailedTestsAction extends AbstractRerunFailedTestsAc
           notifyGeneratedTestsFailed(failedGeneratedTests);
         }
 
-        configuration.setCommand(RebarEunitConfigurationUtil.createDefaultRebarCommand(suites, failedTests, false));
+        String rebarRootPath = RebarRunningStateUtil.getWorkingDirectory((RebarEunitRunConfiguration) getPeer());
+        VirtualFile rebarRoot = LocalFileSystem.getInstance().findFileByPath(rebarRootPath);
+        configuration.setCommand(RebarEunitConfigurationUtil.createDefaultRebarCommand(suites, failedTests, false, rebarRoot));
         configuration.setName("");
         configuration.setSkipDependencies(true);
         configuration.setModule(getModule());
@@ -117,7 +117,8 @@ public class RebarEunitRunningState extends CommandLineState {
     addEnvParams(commandLine, reportsRoot);
     addConfigFileArgument(commandLine, reportsRoot);
 
-    return RebarRunningStateUtil.runRebar(myConfiguration.getProject(), commandLine);
+    Process process = RebarRunningStateUtil.createRebarProcess(myConfiguration.getProject(), commandLine);
+    return new RebarEunitProcessHandler(process, commandLine.getCommandLineString());
   }
 
   private static void addConfigFileArgument(GeneralCommandLine commandLine, File reportsRoot) {
@@ -65,8 +65,13 @@ public class RebarRunningStateUtil {
 
   @NotNull
   public static OSProcessHandler runRebar(Project project, GeneralCommandLine commandLine) throws ExecutionException {
+    return new OSProcessHandler(createRebarProcess(project, commandLine), commandLine.getCommandLineString());
+  }
+
+  @NotNull
+  public static Process createRebarProcess(Project project, GeneralCommandLine commandLine) throws ExecutionException {
     try {
-      return new OSProcessHandler(commandLine.createProcess(), commandLine.getCommandLineString());
+      return commandLine.createProcess();
     } catch (ExecutionException e) {
       String message = e.getMessage();
       boolean isEmpty = message.equals("Executable is not specified");
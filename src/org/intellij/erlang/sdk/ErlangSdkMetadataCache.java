@@ -0,0 +1,212 @@
+/*
+ * Copyright 2012-2014 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.sdk;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.intellij.erlang.jps.model.JpsErlangSdkType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What we learn about an SDK by running its executables, kept on disk so that a known SDK is not asked again
+ * after a restart. An entry is dropped as soon as the SDK is upgraded in place, which is detected by the timestamps
+ * of the erts-* directories, releases/*&#47;OTP_VERSION files and the erl executable.
+ */
+final class ErlangSdkMetadataCache {
+  private static final Logger LOG = Logger.getInstance(ErlangSdkMetadataCache.class);
+  private static final int VERSION = 1;
+
+  private static ErlangSdkMetadataCache ourInstance;
+
+  private final File myFile;
+  private Map<String, Entry> myEntries;
+
+  ErlangSdkMetadataCache(@NotNull File file) {
+    myFile = file;
+  }
+
+  @NotNull
+  static synchronized ErlangSdkMetadataCache getInstance() {
+    if (ourInstance == null) {
+      ourInstance = new ErlangSdkMetadataCache(new File(PathManager.getSystemPath(), "erlang/sdkMetadata.dat"));
+    }
+    return ourInstance;
+  }
+
+  @Nullable
+  synchronized ErlangSdkRelease getRelease(@NotNull String sdkHome) {
+    Entry entry = getEntry(sdkHome);
+    return entry != null && entry.myOtpRelease != null && entry.myErtsVersion != null ?
+      new ErlangSdkRelease(entry.myOtpRelease, entry.myErtsVersion) : null;
+  }
+
+  synchronized void putRelease(@NotNull String sdkHome, @NotNull ErlangSdkRelease release) {
+    Entry entry = getOrCreateEntry(sdkHome);
+    entry.myOtpRelease = release.getOtpRelease();
+    entry.myErtsVersion = release.getErtsVersion();
+    save();
+  }
+
+  /**
+   * @return the directory reported by <code>erlc -where</code>
+   */
+  @Nullable
+  synchronized String getStandardLibraryDir(@NotNull String sdkHome) {
+    Entry entry = getEntry(sdkHome);
+    return entry != null ? entry.myStandardLibraryDir : null;
+  }
+
+  synchronized void putStandardLibraryDir(@NotNull String sdkHome, @NotNull String standardLibraryDir) {
+    getOrCreateEntry(sdkHome).myStandardLibraryDir = standardLibraryDir;
+    save();
+  }
+
+  @Nullable
+  private Entry getEntry(@NotNull String sdkHome) {
+    Entry entry = getEntries().get(getKey(sdkHome));
+    return entry != null && entry.myFingerprint.equals(getFingerprint(sdkHome)) ? entry : null;
+  }
+
+  @NotNull
+  private Entry getOrCreateEntry(@NotNull String sdkHome) {
+    Entry entry = getEntry(sdkHome);
+    if (entry == null) {
+      entry = new Entry(getFingerprint(sdkHome));
+      getEntries().put(getKey(sdkHome), entry);
+    }
+    return entry;
+  }
+
+  @NotNull
+  private Map<String, Entry> getEntries() {
+    if (myEntries == null) {
+      myEntries = new HashMap<String, Entry>();
+      if (myFile.isFile()) {
+        try {
+          load();
+        }
+        catch (IOException e) {
+          LOG.info("Failed to read " + myFile, e);
+          myEntries.clear();
+        }
+      }
+    }
+    return myEntries;
+  }
+
+  private void load() throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(myFile)));
+    try {
+      if (in.readInt() != VERSION) return;
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String sdkHome = in.readUTF();
+        Entry entry = new Entry(in.readUTF());
+        entry.myOtpRelease = StringUtil.nullize(in.readUTF());
+        entry.myErtsVersion = StringUtil.nullize(in.readUTF());
+        entry.myStandardLibraryDir = StringUtil.nullize(in.readUTF());
+        myEntries.put(sdkHome, entry);
+      }
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  private void save() {
+    try {
+      FileUtil.createParentDirs(myFile);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(myFile)));
+      try {
+        out.writeInt(VERSION);
+        out.writeInt(myEntries.size());
+        for (Map.Entry<String, Entry> e : myEntries.entrySet()) {
+          Entry entry = e.getValue();
+          out.writeUTF(e.getKey());
+          out.writeUTF(entry.myFingerprint);
+          out.writeUTF(StringUtil.notNullize(entry.myOtpRelease));
+          out.writeUTF(StringUtil.notNullize(entry.myErtsVersion));
+          out.writeUTF(StringUtil.notNullize(entry.myStandardLibraryDir));
+        }
+      }
+      finally {
+        out.close();
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Failed to write " + myFile, e);
+    }
+  }
+
+  @NotNull
+  private static String getKey(@NotNull String sdkHome) {
+    return FileUtil.toSystemIndependentName(new File(sdkHome).getAbsolutePath());
+  }
+
+  @NotNull
+  static String getFingerprint(@NotNull String sdkHome) {
+    StringBuilder builder = new StringBuilder();
+    File erl = JpsErlangSdkType.getByteCodeInterpreterExecutable(sdkHome);
+    try {
+      erl = erl.getCanonicalFile();
+    }
+    catch (IOException ignore) {
+    }
+    builder.append("erl:").append(erl.lastModified());
+    for (File root : new File[]{new File(sdkHome), new File(sdkHome, "lib/erlang")}) {
+      File[] children = root.listFiles();
+      if (children == null) continue;
+      Arrays.sort(children);
+      for (File child : children) {
+        if (child.getName().startsWith("erts-") && child.isDirectory()) {
+          builder.append(';').append(child.getName()).append(':').append(child.lastModified());
+        }
+        else if (child.getName().equals("releases")) {
+          File[] releases = child.listFiles();
+          if (releases == null) continue;
+          Arrays.sort(releases);
+          for (File release : releases) {
+            File otpVersion = new File(release, "OTP_VERSION");
+            if (otpVersion.isFile()) {
+              builder.append(';').append(release.getName()).append("/OTP_VERSION:").append(otpVersion.lastModified());
+            }
+          }
+        }
+      }
+    }
+    return builder.toString();
+  }
+
+  private static class Entry {
+    private final String myFingerprint;
+    private String myOtpRelease;
+    private String myErtsVersion;
+    private String myStandardLibraryDir;
+
+    private Entry(@NotNull String fingerprint) {
+      myFingerprint = fingerprint;
+    }
+  }
+}
@@ -39,6 +39,7 @@ import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.Processor;
 import com.intellij.util.containers.WeakHashMap;
+import org.intellij.erlang.documentation.ErlangSdkDocStore;
 import org.intellij.erlang.icons.ErlangIcons;
 import org.intellij.erlang.jps.model.JpsErlangModelSerializerExtension;
 import org.intellij.erlang.jps.model.JpsErlangSdkType;
@@ -226,6 +227,12 @@ public class ErlangSdkType extends SdkType {
       return ensureReleaseDetected(cachedRelease);
     }
 
+    ErlangSdkRelease persistedRelease = ErlangSdkMetadataCache.getInstance().getRelease(sdkHome);
+    if (persistedRelease != null) {
+      mySdkHomeToReleaseCache.put(getVersionCacheKey(sdkHome), persistedRelease);
+      return ensureReleaseDetected(persistedRelease);
+    }
+
     File erl = JpsErlangSdkType.getByteCodeInterpreterExecutable(sdkHome);
     if (!erl.canExecute()) {
       String reason = erl.getPath() + (erl.exists() ? " is not executable." : " is missing.");
@@ -240,6 +247,7 @@ public class ErlangSdkType extends SdkType {
         parseSdkVersion(output.getStdoutLines());
       if (release != null) {
         mySdkHomeToReleaseCache.put(getVersionCacheKey(sdkHome), release);
+        ErlangSdkMetadataCache.getInstance().putRelease(sdkHome, release);
       }
       else {
         LOG.warn("Failed to detect Erlang version.\n" +
@@ -307,6 +315,10 @@ public class ErlangSdkType extends SdkType {
 
     assert !ApplicationManager.getApplication().isUnitTestMode() : "Failed to setup a mock SDK!";
 
+    ErlangSdkMetadataCache metadataCache = ErlangSdkMetadataCache.getInstance();
+    String cachedStdLibDir = metadataCache.getStandardLibraryDir(sdkHome);
+    if (cachedStdLibDir != null && tryToProcessAsStandardLibraryDir(sdkModificator, new File(cachedStdLibDir))) return;
+
     try {
       String exePath = JpsErlangSdkType.getByteCodeCompilerExecutable(sdkHome).getAbsolutePath();
       ProcessOutput processOutput = ErlangSystemUtil.getProcessOutput(sdkHome, exePath, "-where");
@@ -316,12 +328,18 @@ public class ErlangSdkType extends SdkType {
           if (SystemInfo.isWindows && stdout.startsWith("/")) {
             for (File root : File.listRoots()) {
               File stdLibDir = new File(root, stdout);
-              if (tryToProcessAsStandardLibraryDir(sdkModificator, stdLibDir)) return;
+              if (tryToProcessAsStandardLibraryDir(sdkModificator, stdLibDir)) {
+                metadataCache.putStandardLibraryDir(sdkHome, stdLibDir.getPath());
+                return;
+              }
             }
           }
           else {
             File stdLibDir = new File(stdout);
-            if (tryToProcessAsStandardLibraryDir(sdkModificator, stdLibDir)) return;
+            if (tryToProcessAsStandardLibraryDir(sdkModificator, stdLibDir)) {
+              metadataCache.putStandardLibraryDir(sdkHome, stdLibDir.getPath());
+              return;
+            }
           }
         }
       }
@@ -338,10 +356,29 @@ public class ErlangSdkType extends SdkType {
     if (dir != null) {
       sdkModificator.addRoot(dir, OrderRootType.SOURCES);
       sdkModificator.addRoot(dir, OrderRootType.CLASSES);
+      VirtualFile docRoot = findLocalDocRoot(dir);
+      if (docRoot != null) {
+        sdkModificator.addRoot(docRoot, JavadocOrderRootType.getInstance());
+        ErlangSdkDocStore.prepare(docRoot.getPath());
+      }
     }
     return true;
   }
 
+  /**
+   * @return the directory holding lib/&lt;app&gt;/doc/html if the SDK comes with HTML documentation
+   */
+  @Nullable
+  private static VirtualFile findLocalDocRoot(@NotNull VirtualFile stdLibDir) {
+    VirtualFile root = "lib".equals(stdLibDir.getName()) ? stdLibDir.getParent() : stdLibDir;
+    VirtualFile lib = root != null ? root.findChild("lib") : null;
+    if (lib == null) return null;
+    for (VirtualFile application : lib.getChildren()) {
+      if (application.findFileByRelativePath("doc/html") != null) return root;
+    }
+    return null;
+  }
+
   private static boolean isStandardLibraryDir(@NotNull File dir) {
     return dir.isDirectory();
   }
@@ -20,21 +20,35 @@ import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.util.io.StringRef;
 import org.intellij.erlang.psi.ErlangFunction;
+import org.jetbrains.annotations.Nullable;
 
 public class ErlangFunctionStub extends ErlangWithArityStub<ErlangFunction> {
   private final boolean myExported;
+  private final StringRef myReturnTypeName;
 
-  public ErlangFunctionStub(StubElement parent, IStubElementType elementType, String name, int arity, boolean exported) {
+  public ErlangFunctionStub(StubElement parent, IStubElementType elementType, String name, int arity, boolean exported,
+                            @Nullable String returnTypeName) {
     super(parent, elementType, name, arity);
     myExported = exported;
+    myReturnTypeName = StringRef.fromString(returnTypeName);
   }
 
-  public ErlangFunctionStub(StubElement parent, IStubElementType elementType, StringRef name, int arity, boolean exported) {
+  public ErlangFunctionStub(StubElement parent, IStubElementType elementType, StringRef name, int arity, boolean exported,
+                            @Nullable StringRef returnTypeName) {
     super(parent, elementType, name, arity);
     myExported = exported;
+    myReturnTypeName = returnTypeName;
   }
 
   public boolean isExported() {
     return myExported;
   }
+
+  /**
+   * @return name of the top-level return type from the function's specification, if it denotes a known expression type
+   */
+  @Nullable
+  public String getReturnTypeName() {
+    return StringRef.toString(myReturnTypeName);
+  }
 }
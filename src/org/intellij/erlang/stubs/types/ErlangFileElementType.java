@@ -31,7 +31,7 @@ import org.jetbrains.annotations.NotNull;
 import java.io.IOException;
 
 public class ErlangFileElementType extends IStubFileElementType<ErlangFileStub> {
-  public static final int VERSION = 1;
+  public static final int VERSION = 2;
   public static final IStubFileElementType INSTANCE = new ErlangFileElementType();
 
   public ErlangFileElementType() {
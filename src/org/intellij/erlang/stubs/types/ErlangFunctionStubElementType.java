@@ -23,6 +23,7 @@ import com.intellij.util.ArrayFactory;
 import org.intellij.erlang.psi.ErlangFunction;
 import org.intellij.erlang.psi.impl.ErlangFunctionImpl;
 import org.intellij.erlang.stubs.ErlangFunctionStub;
+import org.intellij.erlang.types.ErlangExpressionType;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -49,7 +50,8 @@ public class ErlangFunctionStubElementType extends ErlangNamedStubElementType<Er
 
   @Override
   public ErlangFunctionStub createStub(@NotNull ErlangFunction psi, StubElement parentStub) {
-    return new ErlangFunctionStub(parentStub, this, psi.getName(), psi.getArity(), psi.isExported());
+    String returnTypeName = ErlangExpressionType.getReturnTypeName(psi.findSpecification());
+    return new ErlangFunctionStub(parentStub, this, psi.getName(), psi.getArity(), psi.isExported(), returnTypeName);
   }
 
   @Override
@@ -57,11 +59,13 @@ public class ErlangFunctionStubElementType extends ErlangNamedStubElementType<Er
     dataStream.writeName(stub.getName());
     dataStream.writeInt(stub.getArity());
     dataStream.writeBoolean(stub.isExported());
+    dataStream.writeName(stub.getReturnTypeName());
   }
 
   @NotNull
   @Override
   public ErlangFunctionStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new ErlangFunctionStub(parentStub, this, dataStream.readName(), dataStream.readInt(), dataStream.readBoolean());
+    return new ErlangFunctionStub(parentStub, this, dataStream.readName(), dataStream.readInt(), dataStream.readBoolean(),
+      dataStream.readName());
   }
 }
@@ -26,6 +26,7 @@ import com.intellij.util.containers.Convertor;
 import org.intellij.erlang.ErlangTypes;
 import org.intellij.erlang.psi.*;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.intellij.erlang.stubs.ErlangFunctionStub;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -169,20 +170,28 @@ public abstract class ErlangExpressionType {
 
   @NotNull
   public static ErlangExpressionType calculateFunctionType(@NotNull ErlangFunction function) {
-    ErlangSpecification spec = function.findSpecification();
-    if (spec == null) return UNKNOWN;
+    ErlangFunctionStub stub = function.getStub();
+    String typeName = stub != null ? stub.getReturnTypeName() : getReturnTypeName(function.findSpecification());
+    ErlangExpressionType expressionType = typeName != null ? TYPE_MAP.get(typeName) : null;
+    return expressionType != null ? expressionType : UNKNOWN;
+  }
+
+  /**
+   * @return name of the first top-level return type of the specification which is known in {@link #TYPE_MAP}
+   */
+  @Nullable
+  public static String getReturnTypeName(@Nullable ErlangSpecification spec) {
     ErlangFunTypeSigs signature = ErlangPsiImplUtil.getSignature(spec);
-    if (signature == null) return UNKNOWN;
+    if (signature == null) return null;
     for (ErlangTypeSig typeSig : signature.getTypeSigList()) {
       ErlangFunType funType = typeSig.getFunType();
       ErlangTopTypeClause typeClause = funType.getTopTypeClause();
       ErlangType type = PsiTreeUtil.getChildOfType(typeClause, ErlangType.class);
       ErlangTypeRef typeRef = type != null ? type.getTypeRef() : null;
       String text = typeRef != null ? typeRef.getText() : null;
-      ErlangExpressionType expressionType = TYPE_MAP.get(text);
-      if (expressionType != null) return expressionType;
+      if (text != null && TYPE_MAP.containsKey(text)) return text;
     }
-    return UNKNOWN;
+    return null;
   }
 
   @Override
@@ -0,0 +1 @@
+-include_lib("testapp/include/")
\ No newline at end of file
@@ -0,0 +1 @@
+-include_lib("testapp/inc<caret>")
\ No newline at end of file
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.bif;
+
+import junit.framework.TestCase;
+import org.intellij.erlang.sdk.ErlangSdkRelease;
+
+import java.util.List;
+
+public class ErlangBifTableTest extends TestCase {
+  public void testIsBif()          { assertTrue(ErlangBifTable.isBif("erlang", "element", 2)); }
+  public void testWrongArity()     { assertFalse(ErlangBifTable.isBif("erlang", "element", 3)); }
+  public void testWrongModule()    { assertFalse(ErlangBifTable.isBif("lists", "element", 2)); }
+  public void testUnknownModule()  { assertFalse(ErlangBifTable.isBif("no_such_module", "element", 2)); }
+  public void testGeneratedInfo()  { assertTrue(ErlangBifTable.isBif("", ErlangBifTable.MODULE_INFO, 1)); }
+  public void testLager()          { assertTrue(ErlangBifTable.isBif("lager", "info", 3)); }
+  public void testMapBifs()        { assertTrue(ErlangBifTable.isBif("erlang", "map_size", 1)); }
+  public void testTimeBifs()       { assertTrue(ErlangBifTable.isBif("erlang", "monotonic_time", 0)); }
+
+  public void testMapBifsAreAutoImported() {
+    ErlangBifDescriptor bif = ErlangBifTable.getBif("erlang", "is_map", 1);
+    assertNotNull(bif);
+    assertTrue(bif.isAutoImported());
+  }
+
+  public void testMapBifsByRelease() {
+    assertFalse(ErlangBifTable.isBif(ErlangSdkRelease.V_R16B, "erlang", "is_map", 1));
+    assertFalse(ErlangBifTable.isBif(ErlangSdkRelease.V_R16B, "maps", "get", 2));
+    assertTrue(ErlangBifTable.isBif(ErlangSdkRelease.V_17_0, "maps", "get", 2));
+    assertTrue(ErlangBifTable.isBif(null, "maps", "get", 2));
+  }
+
+  public void testTimeBifsByRelease() {
+    assertFalse(ErlangBifTable.isBif(ErlangSdkRelease.V_17_0, "erlang", "monotonic_time", 0));
+    assertTrue(ErlangBifTable.isBif(ErlangSdkRelease.V_18_0, "erlang", "monotonic_time", 0));
+  }
+
+  public void testOlderBifsInEveryRelease() {
+    assertTrue(ErlangBifTable.isBif(ErlangSdkRelease.V_R15B02, "erlang", "element", 2));
+    assertTrue(ErlangBifTable.isBif(ErlangSdkRelease.V_18_0, "erlang", "element", 2));
+  }
+
+  public void testGetBifsByRelease() {
+    assertTrue(ErlangBifTable.getBifs(ErlangSdkRelease.V_R16B, "maps").isEmpty());
+    assertEquals(ErlangBifTable.getBifs("maps").size(), ErlangBifTable.getBifs(ErlangSdkRelease.V_17_0, "maps").size());
+  }
+
+  public void testGetBif() {
+    ErlangBifDescriptor bif = ErlangBifTable.getBif("erlang", "halt", 1);
+    assertNotNull(bif);
+    assertEquals("erlang:halt/1", bif.toString());
+    assertNull(ErlangBifTable.getBif("erlang", "halt", 5));
+  }
+
+  public void testGetBifsByName() {
+    List<ErlangBifDescriptor> bifs = ErlangBifTable.getBifs("erlang", "halt");
+    assertEquals(3, bifs.size());
+    for (ErlangBifDescriptor bif : bifs) {
+      assertEquals("halt", bif.getName());
+    }
+    assertTrue(ErlangBifTable.getBifs("erlang", "no_such_function").isEmpty());
+  }
+}
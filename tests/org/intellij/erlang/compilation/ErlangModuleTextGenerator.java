@@ -21,8 +21,9 @@ import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.Map;
 
-class ErlangModuleTextGenerator {
+public class ErlangModuleTextGenerator {
   private ErlangModuleTextGenerator() {
   }
 
@@ -41,11 +42,20 @@ class ErlangModuleTextGenerator {
     return new BehaviourBuilder(moduleName);
   }
 
-  static class ErlangModuleTextBuilder {
+  @NotNull
+  public static HeaderBuilder header(@NotNull String headerName) {
+    return new HeaderBuilder(headerName);
+  }
+
+  public static class ErlangModuleTextBuilder {
     private final String myModuleName;
     private final List<Pair<String, Integer>> myExports = ContainerUtil.newArrayList();
+    private final Map<Pair<String, Integer>, String> myFunctions = ContainerUtil.newLinkedHashMap();
     private final List<BehaviourBuilder> myBehaviours = ContainerUtil.newArrayList();
     private final List<String> myParseTransforms = ContainerUtil.newArrayList();
+    private final List<String> myIncludes = ContainerUtil.newArrayList();
+    private final List<Pair<String, String>> myMacros = ContainerUtil.newArrayList();
+    private final List<Pair<String, List<String>>> myRecords = ContainerUtil.newArrayList();
 
     public ErlangModuleTextBuilder(@NotNull String moduleName) {
       myModuleName = moduleName;
@@ -62,7 +72,44 @@ class ErlangModuleTextGenerator {
 
     public ErlangModuleTextBuilder behaviour(@NotNull BehaviourBuilder behaviour) {
       myBehaviours.add(behaviour);
-      myExports.addAll(behaviour.myCallbacks);
+      for (Pair<String, Integer> callback : behaviour.myCallbacks) {
+        export(callback.first, callback.second);
+      }
+      return this;
+    }
+
+    public ErlangModuleTextBuilder include(@NotNull String path) {
+      myIncludes.add(path);
+      return this;
+    }
+
+    public ErlangModuleTextBuilder define(@NotNull String name, @NotNull String value) {
+      myMacros.add(Pair.createNonNull(name, value));
+      return this;
+    }
+
+    public ErlangModuleTextBuilder record(@NotNull String name, @NotNull List<String> fields) {
+      myRecords.add(Pair.createNonNull(name, fields));
+      return this;
+    }
+
+    /**
+     * Exports a function, which is generated with an <code>ok</code> body unless {@link #function} gives it one.
+     */
+    public ErlangModuleTextBuilder export(@NotNull String name, int arity) {
+      Pair<String, Integer> function = Pair.createNonNull(name, arity);
+      myExports.add(function);
+      if (!myFunctions.containsKey(function)) {
+        myFunctions.put(function, "ok");
+      }
+      return this;
+    }
+
+    /**
+     * Defines a function with the given body; its arguments are named <code>_Arg0</code>, <code>_Arg1</code>, etc.
+     */
+    public ErlangModuleTextBuilder function(@NotNull String name, int arity, @NotNull String body) {
+      myFunctions.put(Pair.createNonNull(name, arity), body);
       return this;
     }
 
@@ -72,6 +119,9 @@ class ErlangModuleTextGenerator {
       appendModule(builder);
       appendBehaviour(builder);
       appendParseTransforms(builder);
+      appendIncludes(builder);
+      appendMacros(builder);
+      appendRecords(builder);
       appendExports(builder);
       build(builder);
       return builder.toString();
@@ -94,8 +144,34 @@ class ErlangModuleTextGenerator {
     }
 
     private void appendFunctions(@NotNull StringBuilder builder) {
-      for (Pair<String, Integer> functionEntry : myExports) {
-        appendFunction(builder, functionEntry.first, functionEntry.second);
+      for (Map.Entry<Pair<String, Integer>, String> functionEntry : myFunctions.entrySet()) {
+        appendFunction(builder, functionEntry.getKey().first, functionEntry.getKey().second, functionEntry.getValue());
+      }
+    }
+
+    private void appendIncludes(@NotNull StringBuilder builder) {
+      for (String include : myIncludes) {
+        builder.append("-include(\"").append(include).append("\").\n");
+      }
+    }
+
+    private void appendMacros(@NotNull StringBuilder builder) {
+      for (Pair<String, String> macro : myMacros) {
+        builder.append("-define(").append(macro.first).append(", ").append(macro.second).append(").\n");
+      }
+    }
+
+    private void appendRecords(@NotNull StringBuilder builder) {
+      for (Pair<String, List<String>> record : myRecords) {
+        builder.append("-record(").append(record.first).append(", {");
+        commaSeparated(builder, record.second, new ItemFormatter<String>() {
+          @NotNull
+          @Override
+          public StringBuilder format(@NotNull StringBuilder sb, @NotNull String field) {
+            return sb.append(field);
+          }
+        });
+        builder.append("}).\n");
       }
     }
 
@@ -113,7 +189,7 @@ class ErlangModuleTextGenerator {
       builder.append("]).\n");
     }
 
-    private void appendModule(@NotNull StringBuilder builder) {
+    protected void appendModule(@NotNull StringBuilder builder) {
       builder.append("-module(").append(myModuleName).append(").\n");
     }
 
@@ -123,7 +199,10 @@ class ErlangModuleTextGenerator {
       }
     }
 
-    private static void appendFunction(@NotNull StringBuilder builder, @NotNull String functionName, int arity) {
+    private static void appendFunction(@NotNull StringBuilder builder,
+                                       @NotNull String functionName,
+                                       int arity,
+                                       @NotNull String body) {
       List<Integer> argumentIndices = ContainerUtil.newArrayListWithCapacity(arity);
       for (int i = 0; i < arity; i++) {
         argumentIndices.add(i);
@@ -137,7 +216,7 @@ class ErlangModuleTextGenerator {
           return sb.append("_Arg").append(argumentIdx);
         }
       });
-      builder.append(") -> ok.\n");
+      builder.append(") -> ").append(body).append(".\n");
     }
 
     private void appendParseTransforms(@NotNull StringBuilder builder) {
@@ -160,7 +239,7 @@ class ErlangModuleTextGenerator {
     }
   }
 
-  static class ParseTransformBuilder extends ErlangModuleTextBuilder {
+  public static class ParseTransformBuilder extends ErlangModuleTextBuilder {
     public ParseTransformBuilder(@NotNull String moduleName) {
       super(moduleName);
     }
@@ -177,7 +256,7 @@ class ErlangModuleTextGenerator {
     }
   }
 
-  static class BehaviourBuilder extends ErlangModuleTextBuilder {
+  public static class BehaviourBuilder extends ErlangModuleTextBuilder {
     private final List<Pair<String, Integer>> myCallbacks = ContainerUtil.newArrayList();
 
     public BehaviourBuilder(@NotNull String moduleName) {
@@ -204,4 +283,14 @@ class ErlangModuleTextGenerator {
       super.build(builder);
     }
   }
+
+  public static class HeaderBuilder extends ErlangModuleTextBuilder {
+    public HeaderBuilder(@NotNull String headerName) {
+      super(headerName);
+    }
+
+    @Override
+    protected void appendModule(@NotNull StringBuilder builder) {
+    }
+  }
 }
@@ -350,6 +350,12 @@ public class ErlangCompletionTest extends ErlangCompletionTestBase {
     myFixture.checkResultByFile("include-lib/includeLib-after.erl");
   }
 
+  public void testIncludeLibPathCompletion() {
+    myFixture.configureByFiles("include-lib/includeLibPath.erl", "include-lib/testapp/ebin/testapp.app", "include-lib/testapp/include/includefile.hrl");
+    myFixture.complete(CompletionType.BASIC);
+    myFixture.checkResultByFile("include-lib/includeLibPath-after.erl");
+  }
+
   public void testIncludeLibEmptyCompletion() {
     myFixture.configureByFiles("include-lib-empty/includeLib.erl",
                                "include-lib-empty/testapp/ebin/testapp.app",
@@ -382,6 +388,20 @@ public class ErlangCompletionTest extends ErlangCompletionTestBase {
     );
   }
 
+  public void testSmartModuleQualifiedSpecification() {
+    doSmartTest(
+      "-module(m).\n" +
+        "-spec m:g(integer()) -> integer().\n" +
+        "g(A) -> A.\n" +
+        "-spec h(integer()) -> atom().\n" +
+        "h(A) -> a.\n" +
+        "-spec other:k(integer()) -> integer().\n" +
+        "k(A) -> A.\n" +
+        "foo() -> g(<caret>).",
+      CheckType.EQUALS, "g"
+    );
+  }
+
   public void testCameCaseModules() {
     myFixture.configureByText("CamelCase.erl", "");
     myFixture.configureByText("a.erl", "bar() -> Cam<caret>");
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.console;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Arrays;
+
+public class ErlangConsoleModuleReloaderTest extends TestCase {
+  public void testReloadExpression() {
+    String expression = ErlangConsoleModuleReloader.getReloadExpression(Arrays.asList(
+      new File("/out/foo.beam"), new File("/out/Bar's.beam")));
+    assertEquals("[begin code:purge('foo'), code:load_binary('foo', \"/out/foo.beam\", " +
+                 "element(2, file:read_file(\"/out/foo.beam\"))) end, " +
+                 "begin code:purge('Bar\\'s'), code:load_binary('Bar\\'s', \"/out/Bar's.beam\", " +
+                 "element(2, file:read_file(\"/out/Bar's.beam\"))) end].", expression);
+  }
+}
@@ -17,6 +17,7 @@
 package org.intellij.erlang.console;
 
 import com.intellij.execution.filters.Filter;
+import com.intellij.execution.filters.OpenFileHyperlinkInfo;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -113,6 +114,25 @@ public class FileReferenceFilterTest extends ErlangLightPlatformCodeInsightFixtu
     assertNotNull(result.hyperlinkInfo);
   }
 
+  public void testLineWithoutLiteralPartIsSkipped() {
+    FileReferenceFilter eunitErrorFilter = new FileReferenceFilter(getProject(), ErlangConsoleUtil.EUNIT_ERROR_PATH);
+    String consoleOutput = "some text (src/a_module.erl; line 123) more text here";
+    assertNull(eunitErrorFilter.applyFilter(consoleOutput, consoleOutput.length()));
+  }
+
+  public void testRepeatedPathResolvedOnce() {
+    FileReferenceFilter compilationErrorFilter = new FileReferenceFilter(getProject(), ErlangConsoleUtil.COMPILATION_ERROR_PATH);
+    String first = "some text||src/a_module.erl:123: more text here";
+    String second = "src/a_module.erl:7: more text here";
+    Filter.Result firstResult = compilationErrorFilter.applyFilter(first, first.length());
+    Filter.Result secondResult = compilationErrorFilter.applyFilter(second, first.length() + second.length());
+    assertNotNull(firstResult.hyperlinkInfo);
+    assertNotNull(secondResult.hyperlinkInfo);
+    assertEquals(first.length(), secondResult.highlightStartOffset);
+    assertEquals(((OpenFileHyperlinkInfo) firstResult.hyperlinkInfo).getDescriptor().getFile(),
+                 ((OpenFileHyperlinkInfo) secondResult.hyperlinkInfo).getDescriptor().getFile());
+  }
+
   @NotNull
   @Override
   protected LightProjectDescriptor getProjectDescriptor() {
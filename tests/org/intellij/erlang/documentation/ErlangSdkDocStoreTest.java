@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.documentation;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ErlangSdkDocStoreTest extends TestCase {
+  private static final String LISTS = "lib/stdlib-1.18.2/doc/html/lists.html";
+  private static final String FILE = "lib/kernel-2.15.2/doc/html/file.html";
+
+  private File myDocRoot;
+  private File myStoreFile;
+  private ErlangSdkDocStore myStore;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myDocRoot = new File("testData/mockSdk-R15B02");
+    myStoreFile = FileUtil.createTempFile("sdkDoc", ".dat", true);
+    ErlangSdkDocStore.build(myDocRoot, myStoreFile);
+    myStore = ErlangSdkDocStore.open(myStoreFile, ErlangSdkDocStore.computeStamp(myDocRoot));
+    assertNotNull(myStore);
+  }
+
+  public void testIndexedPages() {
+    assertTrue(myStore.isIndexed(LISTS));
+    assertTrue(myStore.isIndexed(FILE));
+    assertFalse(myStore.isIndexed("lib/stdlib-1.18.2/doc/html/unknown.html"));
+  }
+
+  public void testFunction() {
+    String doc = myStore.getDoc(LISTS + "#foreach-2");
+    assertNotNull(doc);
+    assertTrue(doc, doc.startsWith("    <p><a name=\"foreach-2\"></a><span class=\"bold_code\">foreach(Fun, List) -&gt; ok</span>"));
+    assertFalse(doc, doc.contains("name=\"keydelete-3\""));
+  }
+
+  public void testBif() {
+    String doc = myStore.getDoc(LISTS + "#member-2");
+    assertNotNull(doc);
+    assertTrue(doc, doc.startsWith("    <p><a name=\"member-2\"><span class=\"bold_code\">member(Elem, List) -&gt; boolean()</span></a>"));
+  }
+
+  public void testModule() {
+    String doc = myStore.getDoc(LISTS);
+    assertNotNull(doc);
+    assertTrue(doc, doc.startsWith("  <h3>MODULE</h3>"));
+    assertFalse(doc, doc.contains("<h3>EXPORTS</h3>"));
+  }
+
+  public void testTypeWithConvertedLinks() {
+    String doc = myStore.getDoc(FILE + "#type-deep_list");
+    assertNotNull(doc);
+    assertTrue(doc, doc.contains("<a href=\"psi_element://file#type-deep_list\">"));
+    assertFalse(doc, doc.contains("name=\"type-fd\""));
+  }
+
+  public void testMissingFunction() {
+    assertNull(myStore.getDoc(LISTS + "#no_such_function-42"));
+  }
+
+  public void testStaleStore() throws IOException {
+    assertNull(ErlangSdkDocStore.open(myStoreFile, ErlangSdkDocStore.computeStamp(myDocRoot) + 1));
+  }
+
+  public void testStampDependsOnRoot() {
+    assertFalse(ErlangSdkDocStore.computeStamp(myDocRoot) == ErlangSdkDocStore.computeStamp(new File("testData/mockSdk-R16B")));
+  }
+}
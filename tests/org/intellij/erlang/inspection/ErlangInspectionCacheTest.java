@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.Function;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.highlighting.ErlangHighlightingTestBase;
+import org.intellij.erlang.psi.ErlangFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class ErlangInspectionCacheTest extends ErlangHighlightingTestBase {
+  private static final String MODULE_TEXT = "-module(a).\n-include(\"a.hrl\").\nfoo() -> X.\n";
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    setUpInspections(myFixture);
+  }
+
+  public void testProblemsOfUnchangedFile() {
+    ErlangFile file = configure();
+    ErlangInspectionCache cache = new ErlangInspectionCache(getProject());
+    assertTrue(cache.analyze(file));
+    assertFalse(cache.analyze(file));
+
+    List<ErlangInspectionCache.CachedProblem> problems = cache.getProblems(file);
+    assertNotNull(problems);
+    assertContainsElements(getToolIds(problems), "ErlangUnboundVariableInspection", "ErlangUnusedFunctionInspection");
+  }
+
+  public void testHeaderChangeInvalidatesProblems() {
+    ErlangFile file = configure();
+    ErlangInspectionCache cache = new ErlangInspectionCache(getProject());
+    cache.analyze(file);
+    long key = ErlangInspectionCache.computeKey(file);
+
+    myFixture.saveText(myFixture.findFileInTempDir("a.hrl"), "-define(VALUE, 2).");
+    assertTrue(key != ErlangInspectionCache.computeKey(file));
+    assertNull(cache.getProblems(file));
+    assertTrue(cache.analyze(file));
+  }
+
+  public void testSaveAndLoad() throws IOException {
+    ErlangFile file = configure();
+    ErlangInspectionCache cache = new ErlangInspectionCache(getProject());
+    cache.analyze(file);
+    File storage = FileUtil.createTempFile("erlang-inspections", ".dat", true);
+    cache.save(storage);
+
+    ErlangInspectionCache loaded = new ErlangInspectionCache(getProject());
+    loaded.load(storage);
+    List<ErlangInspectionCache.CachedProblem> expected = cache.getProblems(file);
+    List<ErlangInspectionCache.CachedProblem> actual = loaded.getProblems(file);
+    assertNotNull(expected);
+    assertNotNull(actual);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getToolId(), actual.get(i).getToolId());
+      assertEquals(expected.get(i).getPassId(), actual.get(i).getPassId());
+      assertEquals(expected.get(i).getKind(), actual.get(i).getKind());
+      assertEquals(expected.get(i).getStartOffset(), actual.get(i).getStartOffset());
+      assertEquals(expected.get(i).getEndOffset(), actual.get(i).getEndOffset());
+      assertEquals(expected.get(i).getMessage(), actual.get(i).getMessage());
+    }
+  }
+
+  private ErlangFile configure() {
+    myFixture.addFileToProject("a.hrl", "-define(VALUE, 1).");
+    PsiFile file = myFixture.configureByText("a.erl", MODULE_TEXT);
+    assertInstanceOf(file, ErlangFile.class);
+    return (ErlangFile) file;
+  }
+
+  private static List<String> getToolIds(List<ErlangInspectionCache.CachedProblem> problems) {
+    return ContainerUtil.map(problems, new Function<ErlangInspectionCache.CachedProblem, String>() {
+      @Override
+      public String fun(ErlangInspectionCache.CachedProblem problem) {
+        return problem.getToolId();
+      }
+    });
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.intellij.erlang.highlighting.ErlangHighlightingTestBase;
+import org.intellij.erlang.psi.ErlangFile;
+import org.intellij.erlang.psi.ErlangFunctionCallExpression;
+import org.intellij.erlang.psi.ErlangGuard;
+
+import java.util.List;
+
+public class ErlangInspectionSessionTest extends ErlangHighlightingTestBase {
+  private static final String MODULE_TEXT =
+    "-module(a).\n" +
+    "-export([foo/1, foo/1]).\n" +
+    "foo(X) when is_atom(X) -> bar(X);\n" +
+    "foo(X) when X > 1 -> X.\n" +
+    "bar(X) -> X.\n";
+
+  public void testSessionIsSharedWithinHighlightingPass() {
+    ErlangFile file = configure();
+    LocalInspectionToolSession session = newSession(file);
+    ErlangInspectionSession first = ErlangInspectionSession.getSession(session, file);
+    assertSame(first, ErlangInspectionBase.getErlangSession(session));
+    assertNotSame(first, ErlangInspectionSession.getSession(newSession(file), file));
+  }
+
+  public void testTraversalIsComputedOncePerFile() {
+    ErlangFile file = configure();
+    ErlangInspectionSession session = ErlangInspectionSession.getSession(newSession(file), file);
+    List<ErlangGuard> guards = session.getElements(ErlangGuard.class);
+    assertEquals(2, guards.size());
+    assertSame(guards, session.getElements(ErlangGuard.class));
+    assertSame(session.getFunctionsBySignature(), session.getFunctionsBySignature());
+    assertSame(session.getExportsBySignature(), session.getExportsBySignature());
+    assertEquals(2, session.getExportsBySignature().get("foo/1").size());
+  }
+
+  public void testReferenceIsResolvedOncePerSession() {
+    ErlangFile file = configure();
+    ErlangInspectionSession session = ErlangInspectionSession.getSession(newSession(file), file);
+    List<ErlangFunctionCallExpression> calls = session.getElements(ErlangFunctionCallExpression.class);
+    ErlangFunctionCallExpression call = null;
+    for (ErlangFunctionCallExpression c : calls) {
+      if ("bar".equals(c.getName())) call = c;
+    }
+    assertNotNull(call);
+    PsiElement resolved = session.resolve(call);
+    assertNotNull(resolved);
+    assertSame(resolved, session.resolve(call));
+  }
+
+  private static LocalInspectionToolSession newSession(ErlangFile file) {
+    return new LocalInspectionToolSession(file, 0, file.getTextLength());
+  }
+
+  private ErlangFile configure() {
+    PsiFile file = myFixture.configureByText("a.erl", MODULE_TEXT);
+    assertInstanceOf(file, ErlangFile.class);
+    return (ErlangFile) file;
+  }
+}
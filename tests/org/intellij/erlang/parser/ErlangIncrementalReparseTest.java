@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.parser;
+
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.impl.DebugUtil;
+import org.intellij.erlang.ErlangFileType;
+import org.intellij.erlang.psi.ErlangFile;
+import org.intellij.erlang.psi.ErlangFunction;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+
+import java.util.List;
+
+public class ErlangIncrementalReparseTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  public void testTypingInFunctionBodyKeepsDeclarations() {
+    ErlangFile file = configure(
+      "-export([foo/0]).\n" +
+      "foo() -> bar(<caret>).\n" +
+      "bar(X) -> X.");
+    List<ErlangFunction> functions = file.getFunctions();
+    ErlangFunction foo = file.getFunction("foo", 0);
+    type("1 + 2");
+    assertSame(functions, file.getFunctions());
+    assertSame(foo, file.getFunction("foo", 0));
+    assertTrue(file.isExported("foo/0"));
+    assertSameTree(file);
+  }
+
+  public void testTypingNestedClauses() {
+    ErlangFile file = configure(
+      "foo(X) ->\n" +
+      "  case X of\n" +
+      "    1 -> fun(Y) when Y > 0 -> <caret>Y end;\n" +
+      "    _ -> ok\n" +
+      "  end.");
+    List<ErlangFunction> functions = file.getFunctions();
+    type("{Y, ");
+    type("X}");
+    assertSame(functions, file.getFunctions());
+    assertSameTree(file);
+  }
+
+  public void testNewClauseInvalidatesDeclarations() {
+    ErlangFile file = configure("foo() -> ok<caret>.");
+    List<ErlangFunction> functions = file.getFunctions();
+    type(".\nbar() -> ok");
+    assertNotSame(functions, file.getFunctions());
+    assertSize(2, file.getFunctions());
+    assertSameTree(file);
+  }
+
+  public void testUnbalancedBody() {
+    ErlangFile file = configure("foo() -> bar(<caret>).\nbar(X) -> X.");
+    type("[");
+    assertSameTree(file);
+    type("]");
+    assertSameTree(file);
+  }
+
+  public void testBodyInMacro() {
+    ErlangFile file = configure("-define(F, fun(X) -> <caret>X end).");
+    type("foo/1 + ");
+    assertSameTree(file);
+  }
+
+  public void testBodyInAttribute() {
+    ErlangFile file = configure("-attr(fun(X) -> <caret>X end).");
+    type("foo/1 + ");
+    assertSameTree(file);
+  }
+
+  private ErlangFile configure(String text) {
+    return (ErlangFile) myFixture.configureByText("a.erl", text);
+  }
+
+  private void type(String text) {
+    myFixture.type(text);
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+  }
+
+  private void assertSameTree(PsiFile file) {
+    PsiFile expected = PsiFileFactory.getInstance(getProject()).createFileFromText("a.erl", ErlangFileType.MODULE, file.getText());
+    assertEquals(DebugUtil.psiToString(expected, false), DebugUtil.psiToString(file, false));
+  }
+}
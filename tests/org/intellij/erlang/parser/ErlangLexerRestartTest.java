@@ -0,0 +1,203 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.parser;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.psi.tree.IElementType;
+import junit.framework.TestCase;
+import org.intellij.erlang.ErlangTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Relexes documents after random edits the way an editor highlighter does, restarting at a token with state 0,
+ * and compares the result to a full relex.
+ */
+public class ErlangLexerRestartTest extends TestCase {
+  private static final String[] FRAGMENTS = {
+    "a", "X", "_", " ", "\n", "'", "\"", "$", "\\", "%", "%%", "#!", "1", "16#", "1.0e+", "e", "+", "-", ".", ",",
+    "(", ")", "{", "}", "->", "=/=", "end", "fun", "<<", ">>", "'quoted atom'", "\"string\"", "$\\^"
+  };
+
+  public void testRestartAtEveryToken() throws IOException {
+    String text = loadText("H.erl").substring(0, 4000);
+    List<Token> tokens = lex(text, 0, 0);
+    for (int i = 0; i < tokens.size(); i++) {
+      Token token = tokens.get(i);
+      assertEquals("restart at " + token, tokens.subList(i, tokens.size()), lex(text, token.start, token.state));
+    }
+  }
+
+  public void testIncrementalRelex() throws IOException {
+    String initial = loadText("H.erl").substring(0, 3000);
+    for (int seed = 0; seed < 20; seed++) {
+      Random random = new Random(seed);
+      String text = initial;
+      List<Token> tokens = lex(text, 0, 0);
+      for (int i = 0; i < 300; i++) {
+        int offset = random.nextInt(text.length() + 1);
+        int oldLength = Math.min(random.nextInt(4), text.length() - offset);
+        String inserted = random.nextBoolean() ? FRAGMENTS[random.nextInt(FRAGMENTS.length)] : "";
+        String newText = text.substring(0, offset) + inserted + text.substring(offset + oldLength);
+
+        tokens = relex(tokens, newText, offset, oldLength, inserted.length(), null);
+        assertEquals("seed " + seed + ", edit " + i + ":\n" + newText, lex(newText, 0, 0), tokens);
+        text = newText;
+      }
+    }
+  }
+
+  public void testTypingRelexesFewTokens() throws IOException {
+    String module = loadText("DialyzerDataflow.erl");
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 15; i++) {
+      builder.append(module);
+    }
+    String text = builder.toString();
+    List<Token> tokens = lex(text, 0, 0);
+    Random random = new Random(0);
+    for (int i = 0; i < 200; i++) {
+      int offset = random.nextInt(text.length());
+      int[] relexed = new int[1];
+      relex(tokens, text.substring(0, offset) + "a" + text.substring(offset), offset, 0, 1, relexed);
+      assertTrue(relexed[0] + " tokens relexed after typing at " + offset, relexed[0] <= 16);
+    }
+  }
+
+  public void testUnterminatedString() throws IOException {
+    String module = loadText("H.erl").substring(0, 3000);
+    String text = module.substring(0, 1500) + "\"unterminated" + module.substring(1500).replace("\"", "");
+    List<Token> tokens = lex(text, 0, 0);
+    Token last = tokens.get(tokens.size() - 1);
+    assertEquals(ErlangTypes.ERL_STRING, last.type);
+    assertEquals(1500, last.start);
+    assertEquals(text.length(), last.end);
+    for (int i = 0; i < tokens.size(); i++) {
+      Token token = tokens.get(i);
+      assertEquals("restart at " + token, tokens.subList(i, tokens.size()), lex(text, token.start, token.state));
+    }
+
+    Random random = new Random(0);
+    for (int i = 0; i < 100; i++) {
+      int offset = 1500 + random.nextInt(text.length() - 1500 + 1);
+      String inserted = random.nextBoolean() ? "\"" : "a";
+      String newText = text.substring(0, offset) + inserted + text.substring(offset);
+      int[] relexed = new int[1];
+      assertEquals("typing " + inserted + " at " + offset, lex(newText, 0, 0),
+                   relex(tokens, newText, offset, 0, inserted.length(), relexed));
+      if (inserted.equals("a")) assertTrue(relexed[0] + " tokens relexed after typing at " + offset, relexed[0] <= 4);
+    }
+  }
+
+  private static List<Token> relex(List<Token> old, String newText, int offset, int oldLength, int newLength, int[] relexed) {
+    int startIndex = Math.max(0, findTokenAt(old, offset) - 2);
+    while (startIndex > 0 && old.get(startIndex).state != 0) startIndex--;
+
+    List<Token> result = new ArrayList<Token>(old.subList(0, startIndex));
+    int restartOffset = startIndex < old.size() ? old.get(startIndex).start : 0;
+    int shift = newLength - oldLength;
+    int changeEnd = offset + newLength;
+
+    Lexer lexer = new ErlangLexer(true);
+    lexer.start(newText, restartOffset, newText.length(), 0);
+    for (; lexer.getTokenType() != null; lexer.advance()) {
+      Token token = new Token(lexer);
+      if (token.start >= changeEnd) {
+        int oldIndex = findTokenAt(old, token.start - shift);
+        Token oldToken = oldIndex < old.size() ? old.get(oldIndex) : null;
+        if (oldToken != null && oldToken.start == token.start - shift && oldToken.type == token.type && oldToken.state == token.state) {
+          for (Token tail : old.subList(oldIndex, old.size())) {
+            result.add(tail.shift(shift));
+          }
+          return result;
+        }
+      }
+      result.add(token);
+      if (relexed != null) relexed[0]++;
+    }
+    return result;
+  }
+
+  private static int findTokenAt(List<Token> tokens, int offset) {
+    int low = 0;
+    int high = tokens.size() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) / 2;
+      if (tokens.get(mid).start <= offset) low = mid;
+      else high = mid - 1;
+    }
+    return low;
+  }
+
+  private static List<Token> lex(String text, int start, int state) {
+    List<Token> tokens = new ArrayList<Token>();
+    Lexer lexer = new ErlangLexer(true);
+    lexer.start(text, start, text.length(), state);
+    for (; lexer.getTokenType() != null; lexer.advance()) {
+      tokens.add(new Token(lexer));
+    }
+    return tokens;
+  }
+
+  private static String loadText(String fileName) throws IOException {
+    return FileUtil.loadFile(new File("testData/parser/" + fileName), true);
+  }
+
+  private static class Token {
+    private final int start;
+    private final int end;
+    private final IElementType type;
+    private final int state;
+
+    private Token(int start, int end, IElementType type, int state) {
+      this.start = start;
+      this.end = end;
+      this.type = type;
+      this.state = state;
+    }
+
+    private Token(Lexer lexer) {
+      this(lexer.getTokenStart(), lexer.getTokenEnd(), lexer.getTokenType(), lexer.getState());
+    }
+
+    private Token shift(int shift) {
+      return new Token(start + shift, end + shift, type, state);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Token)) return false;
+      Token token = (Token) o;
+      return start == token.start && end == token.end && type == token.type && state == token.state;
+    }
+
+    @Override
+    public int hashCode() {
+      return start;
+    }
+
+    @Override
+    public String toString() {
+      return type + "[" + start + ", " + end + "] state " + state;
+    }
+  }
+}
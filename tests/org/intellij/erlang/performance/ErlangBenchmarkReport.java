@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Appends benchmark results as JSON lines to the file given by the <code>erlang.benchmark.output</code> property
+ * (<code>out/benchmarks/erlang-benchmarks.jsonl</code> by default), one object per measurement. Benchmarks run
+ * and results are written only when <code>-Derlang.benchmark.enabled=true</code> or the output property is set,
+ * see {@link #isEnabled()}. The revision
+ * given by the <code>erlang.benchmark.revision</code> property is recorded with each result, so that a series of
+ * runs can be compared across commits.
+ */
+class ErlangBenchmarkReport {
+  private static final String ENABLED_PROPERTY = "erlang.benchmark.enabled";
+  private static final String OUTPUT_PROPERTY = "erlang.benchmark.output";
+  private static final String REVISION_PROPERTY = "erlang.benchmark.revision";
+  private static final String DEFAULT_OUTPUT = "out/benchmarks/erlang-benchmarks.jsonl";
+
+  private final String myCorpus;
+  private final int myModuleCount;
+
+  ErlangBenchmarkReport(@NotNull ErlangCorpusGenerator corpus) {
+    myCorpus = corpus.describe();
+    myModuleCount = corpus.getModuleCount();
+  }
+
+  /**
+   * @return whether benchmarks should run, so that they are left out of the default test run
+   */
+  static boolean isEnabled() {
+    return Boolean.getBoolean(ENABLED_PROPERTY) || System.getProperty(OUTPUT_PROPERTY) != null;
+  }
+
+  /**
+   * Runs the body <code>warmUps</code> times unmeasured, then reports the time of each of <code>attempts</code> runs
+   * and the bytes the current thread allocated during them.
+   */
+  void measure(@NotNull String benchmark, int warmUps, int attempts, @NotNull Benchmark body) {
+    for (int i = 0; i < warmUps; i++) {
+      body.run();
+    }
+    long items = 0;
+    long[] nanos = new long[attempts];
+    long allocatedBefore = getAllocatedBytes();
+    for (int i = 0; i < attempts; i++) {
+      long start = System.nanoTime();
+      items = body.run();
+      nanos[i] = System.nanoTime() - start;
+    }
+    long allocatedAfter = getAllocatedBytes();
+    report(benchmark, nanos, items, allocatedBefore >= 0 ? allocatedAfter - allocatedBefore : -1);
+  }
+
+  /**
+   * @param nanos durations of the measured attempts
+   * @param items number of items (tokens, files, references, ...) processed by every attempt
+   * @param allocatedBytes bytes allocated by the measuring thread during all the attempts, or -1 if unknown
+   */
+  private void report(@NotNull String benchmark, @NotNull long[] nanos, long items, long allocatedBytes) {
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    double medianMs = sorted[sorted.length / 2] / 1e6;
+    double minMs = sorted[0] / 1e6;
+    double itemsPerSecond = medianMs > 0 ? items * 1000 / medianMs : 0;
+
+    StringBuilder line = new StringBuilder("{")
+      .append(property("benchmark", benchmark)).append(", ")
+      .append(property("revision", System.getProperty(REVISION_PROPERTY, ""))).append(", ")
+      .append(property("timestamp", System.currentTimeMillis())).append(", ")
+      .append(property("modules", myModuleCount)).append(", ")
+      .append(property("corpus", myCorpus)).append(", ")
+      .append(property("attempts", nanos.length)).append(", ")
+      .append(property("items", items)).append(", ")
+      .append(property("medianMs", round(medianMs))).append(", ")
+      .append(property("minMs", round(minMs))).append(", ")
+      .append(property("itemsPerSecond", round(itemsPerSecond)));
+    if (allocatedBytes >= 0 && items > 0) {
+      line.append(", ").append(property("bytesPerItem", round((double) allocatedBytes / items / nanos.length)));
+    }
+    line.append("}");
+    if (isEnabled()) append(line.toString());
+  }
+
+  /**
+   * The same per-thread counter JMH's <code>-prof gc</code> reads, available on HotSpot JVMs.
+   */
+  private static long getAllocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  private static void append(@NotNull String line) {
+    File output = new File(System.getProperty(OUTPUT_PROPERTY, DEFAULT_OUTPUT));
+    Writer writer = null;
+    try {
+      FileUtil.createParentDirs(output);
+      writer = new OutputStreamWriter(new FileOutputStream(output, true), "UTF-8");
+      writer.write(line);
+      writer.write('\n');
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Failed to write benchmark results to " + output.getPath(), e);
+    }
+    finally {
+      if (writer != null) {
+        try {
+          writer.close();
+        }
+        catch (IOException ignored) {
+        }
+      }
+    }
+  }
+
+  @NotNull
+  private static String property(@NotNull String name, @NotNull String value) {
+    return "\"" + name + "\": \"" + StringUtil.escapeStringCharacters(value) + "\"";
+  }
+
+  @NotNull
+  private static String property(@NotNull String name, @NotNull Number value) {
+    return "\"" + name + "\": " + value;
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 1000) / 1000.0;
+  }
+
+  interface Benchmark {
+    /**
+     * @return the number of processed items
+     */
+    long run();
+  }
+}
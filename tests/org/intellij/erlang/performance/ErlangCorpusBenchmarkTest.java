@@ -0,0 +1,276 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupManager;
+import com.intellij.lang.ParserDefinition;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.io.BufferExposingByteArrayOutputStream;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.impl.source.resolve.FileContextUtil;
+import com.intellij.psi.stubs.SerializationManagerEx;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.DefaultLightProjectDescriptor;
+import com.intellij.util.PathUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.ErlangFileType;
+import org.intellij.erlang.ErlangParserDefinition;
+import org.intellij.erlang.highlighting.ErlangHighlightingTestBase;
+import org.intellij.erlang.parser.ErlangLexer;
+import org.intellij.erlang.parser.ErlangParser;
+import org.intellij.erlang.performance.ErlangBenchmarkReport.Benchmark;
+import org.intellij.erlang.psi.ErlangFunctionCallExpression;
+import org.intellij.erlang.psi.impl.ErlangFunctionReferenceImpl;
+import org.intellij.erlang.sdk.ErlangSdkRelease;
+import org.intellij.erlang.sdk.ErlangSdkType;
+import org.intellij.erlang.stubs.types.ErlangFileElementType;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks the plugin on generated projects and records the results with {@link ErlangBenchmarkReport}.
+ * <p/>
+ * Benchmarks run only when enabled, see {@link ErlangBenchmarkReport#isEnabled()}.
+ * Only the 100 module project is benchmarked by default; larger ones are enabled with
+ * <code>-Derlang.benchmark.maxModules=10000</code>. The corpus shape is tuned with the
+ * <code>erlang.benchmark.functionsPerModule</code>, <code>includeDepth</code>, <code>recordsPerHeader</code> and
+ * <code>callsPerFunction</code> properties, and the number of measured attempts with <code>attempts</code>.
+ */
+public class ErlangCorpusBenchmarkTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  private static final String PROPERTY_PREFIX = "erlang.benchmark.";
+
+  @Override
+  protected LightProjectDescriptor getProjectDescriptor() {
+    return new DefaultLightProjectDescriptor() {
+      @Override
+      public Sdk getSdk() {
+        return ErlangSdkType.createMockSdk("testData/mockSdk-R15B02/", ErlangSdkRelease.V_R15B02);
+      }
+    };
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    System.setProperty("idea.platform.prefix", "Idea");
+    super.setUp();
+    ErlangHighlightingTestBase.setUpInspections(myFixture);
+    setUpProjectSdk();
+  }
+
+  @Override
+  protected boolean isWriteActionRequired() {
+    return false;
+  }
+
+  public void test100Modules()   { doTest(100); }
+  public void test1000Modules()  { doTest(1000); }
+  public void test10000Modules() { doTest(10000); }
+
+  /**
+   * Parses a few large modules, where the time goes to the grammar rules rather than to project-wide caches.
+   */
+  public void testLargeModules() {
+    if (!ErlangBenchmarkReport.isEnabled()) return;
+
+    ErlangCorpusGenerator corpus = new ErlangCorpusGenerator()
+      .modules(10)
+      .functionsPerModule(getIntProperty("largeModuleFunctions", 2000))
+      .callsPerFunction(8);
+    Map<String, String> files = corpus.generate();
+    ErlangBenchmarkReport report = new ErlangBenchmarkReport(corpus);
+    int attempts = getIntProperty("attempts", 5);
+
+    benchmarkLexer(report, attempts, files.values());
+    benchmarkParser(report, attempts, files);
+  }
+
+  private void doTest(int moduleCount) {
+    if (!ErlangBenchmarkReport.isEnabled() || moduleCount > getIntProperty("maxModules", 100)) return;
+
+    ErlangCorpusGenerator corpus = new ErlangCorpusGenerator()
+      .modules(moduleCount)
+      .functionsPerModule(getIntProperty("functionsPerModule", 10))
+      .includeDepth(getIntProperty("includeDepth", 3))
+      .recordsPerHeader(getIntProperty("recordsPerHeader", 5))
+      .callsPerFunction(getIntProperty("callsPerFunction", 4));
+    Map<String, String> files = corpus.generate();
+    ErlangBenchmarkReport report = new ErlangBenchmarkReport(corpus);
+    int attempts = getIntProperty("attempts", 5);
+
+    benchmarkLexer(report, attempts, files.values());
+    benchmarkParser(report, attempts, files);
+    benchmarkStubs(report, attempts, files);
+
+    List<PsiFile> projectFiles = addFilesToProject(files);
+    benchmarkResolve(report, attempts, projectFiles);
+    benchmarkCompletion(report, attempts, "completion.moduleQualified", "m1:<caret>");
+    benchmarkCompletion(report, attempts, "completion.unqualified", "m<caret>");
+    benchmarkHighlighting(report, projectFiles);
+  }
+
+  private static void benchmarkLexer(@NotNull ErlangBenchmarkReport report,
+                                     int attempts,
+                                     @NotNull final Collection<String> texts) {
+    report.measure("lexer", 1, attempts, new Benchmark() {
+      @Override
+      public long run() {
+        long tokens = 0;
+        Lexer lexer = new ErlangLexer();
+        for (String text : texts) {
+          lexer.start(text);
+          while (lexer.getTokenType() != null) {
+            tokens++;
+            lexer.advance();
+          }
+        }
+        return tokens;
+      }
+    });
+  }
+
+  private void benchmarkParser(@NotNull ErlangBenchmarkReport report, int attempts, @NotNull Map<String, String> files) {
+    final ParserDefinition definition = new ErlangParserDefinition();
+    final Map<PsiFile, String> contexts = ContainerUtil.newLinkedHashMap();
+    for (Map.Entry<String, String> file : files.entrySet()) {
+      contexts.put(createFile(file.getKey(), file.getValue()), file.getValue());
+    }
+    report.measure("parser", 1, attempts, new Benchmark() {
+      @Override
+      public long run() {
+        for (Map.Entry<PsiFile, String> context : contexts.entrySet()) {
+          PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(definition, new ErlangLexer(), context.getValue());
+          builder.putUserDataUnprotected(FileContextUtil.CONTAINING_FILE_KEY, context.getKey());
+          new ErlangParser().parse(definition.getFileNodeType(), builder);
+        }
+        return contexts.size();
+      }
+    });
+  }
+
+  private void benchmarkStubs(@NotNull ErlangBenchmarkReport report, int attempts, @NotNull Map<String, String> files) {
+    final List<PsiFile> psiFiles = ContainerUtil.newArrayList();
+    for (Map.Entry<String, String> file : files.entrySet()) {
+      PsiFile psiFile = createFile(file.getKey(), file.getValue());
+      psiFile.getNode().getLastChildNode();
+      psiFiles.add(psiFile);
+    }
+    final List<StubElement> stubs = ContainerUtil.newArrayList();
+    report.measure("stubs.build", 1, attempts, new Benchmark() {
+      @Override
+      public long run() {
+        stubs.clear();
+        for (PsiFile psiFile : psiFiles) {
+          stubs.add(ErlangFileElementType.INSTANCE.getBuilder().buildStubTree(psiFile));
+        }
+        return stubs.size();
+      }
+    });
+    report.measure("stubs.serialize", 1, attempts, new Benchmark() {
+      @Override
+      public long run() {
+        long bytes = 0;
+        for (StubElement stub : stubs) {
+          BufferExposingByteArrayOutputStream stream = new BufferExposingByteArrayOutputStream();
+          SerializationManagerEx.getInstanceEx().serialize(stub, stream);
+          bytes += stream.size();
+        }
+        return bytes;
+      }
+    });
+  }
+
+  private static void benchmarkResolve(@NotNull ErlangBenchmarkReport report, int attempts, @NotNull List<PsiFile> projectFiles) {
+    final List<PsiReference> references = ContainerUtil.newArrayList();
+    for (PsiFile file : projectFiles) {
+      for (ErlangFunctionCallExpression call : PsiTreeUtil.findChildrenOfType(file, ErlangFunctionCallExpression.class)) {
+        PsiReference reference = call.getReference();
+        assertInstanceOf(reference, ErlangFunctionReferenceImpl.class);
+        references.add(reference);
+      }
+    }
+    report.measure("resolve", 1, attempts, new Benchmark() {
+      @Override
+      public long run() {
+        for (PsiReference reference : references) {
+          assertNotNull(reference.getCanonicalText(), reference.resolve());
+        }
+        return references.size();
+      }
+    });
+  }
+
+  private void benchmarkCompletion(@NotNull ErlangBenchmarkReport report,
+                                   int attempts,
+                                   @NotNull String benchmark,
+                                   @NotNull String expression) {
+    myFixture.configureByText("completion_benchmark.erl", "-module(completion_benchmark).\nfoo() -> " + expression + ".");
+    report.measure(benchmark, 1, attempts, new Benchmark() {
+      @Override
+      public long run() {
+        LookupElement[] variants = myFixture.completeBasic();
+        LookupManager.getInstance(getProject()).hideActiveLookup();
+        return variants != null ? variants.length : 1;
+      }
+    });
+  }
+
+  private void benchmarkHighlighting(@NotNull ErlangBenchmarkReport report, @NotNull final List<PsiFile> projectFiles) {
+    report.measure("highlighting", 0, 1, new Benchmark() {
+      @Override
+      public long run() {
+        for (PsiFile file : projectFiles) {
+          myFixture.configureFromExistingVirtualFile(file.getVirtualFile());
+          myFixture.doHighlighting();
+        }
+        return projectFiles.size();
+      }
+    });
+  }
+
+  @NotNull
+  private List<PsiFile> addFilesToProject(@NotNull Map<String, String> files) {
+    List<PsiFile> psiFiles = ContainerUtil.newArrayList();
+    for (Map.Entry<String, String> file : files.entrySet()) {
+      psiFiles.add(myFixture.addFileToProject(file.getKey(), file.getValue()));
+    }
+    return psiFiles;
+  }
+
+  @NotNull
+  private PsiFile createFile(@NotNull String path, @NotNull String text) {
+    String name = PathUtil.getFileName(path);
+    FileType fileType = name.endsWith(".hrl") ? ErlangFileType.HEADER : ErlangFileType.MODULE;
+    return PsiFileFactory.getInstance(getProject()).createFileFromText(name, fileType, text);
+  }
+
+  private static int getIntProperty(@NotNull String name, int defaultValue) {
+    return Integer.getInteger(PROPERTY_PREFIX + name, defaultValue);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance;
+
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.compilation.ErlangModuleTextGenerator.ErlangModuleTextBuilder;
+import org.intellij.erlang.compilation.ErlangModuleTextGenerator.HeaderBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.intellij.erlang.compilation.ErlangModuleTextGenerator.header;
+import static org.intellij.erlang.compilation.ErlangModuleTextGenerator.module;
+
+/**
+ * Generates a synthetic project: <code>src/m&lt;i&gt;.erl</code> modules calling each other's functions,
+ * each including a chain of <code>include/h&lt;level&gt;_&lt;i&gt;.hrl</code> headers which define records and macros.
+ * <p/>
+ * The same parameters always produce the same project, so results can be compared across commits.
+ */
+class ErlangCorpusGenerator {
+  private static final List<String> RECORD_FIELDS = Arrays.asList("id", "name", "value");
+
+  private int myModuleCount = 100;
+  private int myFunctionsPerModule = 10;
+  private int myIncludeDepth = 3;
+  private int myRecordsPerHeader = 5;
+  private int myCallsPerFunction = 4;
+  private long mySeed = 42;
+
+  ErlangCorpusGenerator modules(int moduleCount) {
+    myModuleCount = moduleCount;
+    return this;
+  }
+
+  ErlangCorpusGenerator functionsPerModule(int functionsPerModule) {
+    myFunctionsPerModule = functionsPerModule;
+    return this;
+  }
+
+  ErlangCorpusGenerator includeDepth(int includeDepth) {
+    myIncludeDepth = includeDepth;
+    return this;
+  }
+
+  ErlangCorpusGenerator recordsPerHeader(int recordsPerHeader) {
+    myRecordsPerHeader = recordsPerHeader;
+    return this;
+  }
+
+  ErlangCorpusGenerator callsPerFunction(int callsPerFunction) {
+    myCallsPerFunction = callsPerFunction;
+    return this;
+  }
+
+  ErlangCorpusGenerator seed(long seed) {
+    mySeed = seed;
+    return this;
+  }
+
+  int getModuleCount() {
+    return myModuleCount;
+  }
+
+  @NotNull
+  String describe() {
+    return "modules=" + myModuleCount + ", functionsPerModule=" + myFunctionsPerModule +
+           ", includeDepth=" + myIncludeDepth + ", recordsPerHeader=" + myRecordsPerHeader +
+           ", callsPerFunction=" + myCallsPerFunction + ", seed=" + mySeed;
+  }
+
+  @NotNull
+  static String moduleName(int index) {
+    return "m" + index;
+  }
+
+  @NotNull
+  static String modulePath(int index) {
+    return "src/" + moduleName(index) + ".erl";
+  }
+
+  @NotNull
+  static String functionName(int index) {
+    return "f" + index;
+  }
+
+  /**
+   * @return file texts by paths relative to the project root, headers first.
+   */
+  @NotNull
+  Map<String, String> generate() {
+    Map<String, String> files = ContainerUtil.newLinkedHashMap();
+    int headersPerLevel = getHeadersPerLevel();
+    for (int level = 0; level < myIncludeDepth; level++) {
+      for (int i = 0; i < headersPerLevel; i++) {
+        files.put("include/" + headerName(level, i) + ".hrl", generateHeader(level, i).build());
+      }
+    }
+    Random random = new Random(mySeed);
+    for (int i = 0; i < myModuleCount; i++) {
+      files.put(modulePath(i), generateModule(i, random).build());
+    }
+    return files;
+  }
+
+  private int getHeadersPerLevel() {
+    return Math.max(1, myModuleCount / 10);
+  }
+
+  @NotNull
+  private static String headerName(int level, int index) {
+    return "h" + level + "_" + index;
+  }
+
+  @NotNull
+  private static String recordName(int level, int index, int recordIndex) {
+    return "r" + level + "_" + index + "_" + recordIndex;
+  }
+
+  @NotNull
+  private HeaderBuilder generateHeader(int level, int index) {
+    HeaderBuilder header = header(headerName(level, index));
+    if (level + 1 < myIncludeDepth) {
+      header.include(headerName(level + 1, index) + ".hrl");
+    }
+    header.define(headerName(level, index).toUpperCase(), String.valueOf(level));
+    for (int r = 0; r < myRecordsPerHeader; r++) {
+      header.record(recordName(level, index, r), RECORD_FIELDS);
+    }
+    return header;
+  }
+
+  @NotNull
+  private ErlangModuleTextBuilder generateModule(int index, @NotNull Random random) {
+    ErlangModuleTextBuilder module = module(moduleName(index));
+    int headerIndex = index % getHeadersPerLevel();
+    if (myIncludeDepth > 0) {
+      module.include("../include/" + headerName(0, headerIndex) + ".hrl");
+    }
+    for (int f = 0; f < myFunctionsPerModule; f++) {
+      module.export(functionName(f), 1);
+      module.function(functionName(f), 1, generateBody(index, headerIndex, random));
+    }
+    return module;
+  }
+
+  @NotNull
+  private String generateBody(int moduleIndex, int headerIndex, @NotNull Random random) {
+    StringBuilder body = new StringBuilder();
+    if (myIncludeDepth > 0 && myRecordsPerHeader > 0) {
+      int level = random.nextInt(myIncludeDepth);
+      String record = recordName(level, headerIndex, random.nextInt(myRecordsPerHeader));
+      body.append("R = #").append(record).append("{id = _Arg0, value = ?")
+          .append(headerName(level, headerIndex).toUpperCase()).append("},\n  ")
+          .append("_ = R#").append(record).append(".name,\n  ");
+    }
+    for (int c = 0; c < myCallsPerFunction; c++) {
+      int calleeModule = random.nextInt(myModuleCount);
+      String callee = functionName(random.nextInt(myFunctionsPerModule));
+      if (calleeModule != moduleIndex) {
+        body.append(moduleName(calleeModule)).append(":");
+      }
+      body.append(callee).append("(_Arg0),\n  ");
+    }
+    return body.append("ok").toString();
+  }
+}
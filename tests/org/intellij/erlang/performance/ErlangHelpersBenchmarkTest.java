@@ -0,0 +1,296 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance;
+
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.ErlangParserDefinition;
+import org.intellij.erlang.ErlangStringLiteralEscaper;
+import org.intellij.erlang.bif.ErlangBifTable;
+import org.intellij.erlang.parser.ErlangLexer;
+import org.intellij.erlang.parser.ErlangParserUtil;
+import org.intellij.erlang.performance.ErlangBenchmarkReport.Benchmark;
+import org.intellij.erlang.psi.ErlangFile;
+import org.intellij.erlang.psi.ErlangFunction;
+import org.intellij.erlang.psi.ErlangFunctionCallExpression;
+import org.intellij.erlang.psi.ErlangStringLiteral;
+import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.intellij.erlang.compilation.ErlangModuleTextGenerator.module;
+
+/**
+ * Microbenchmarks for the static helpers which are called for every reference or keystroke.
+ * <p/>
+ * Every benchmark reports the time and the number of bytes the current thread allocated per operation, as
+ * JMH's gc profiler would, so that allocation-free rewrites of these helpers can be checked in isolation.
+ * Benchmarks run only when enabled, see {@link ErlangBenchmarkReport#isEnabled()}. The number of measured
+ * attempts is set with the <code>erlang.benchmark.attempts</code> property.
+ */
+public class ErlangHelpersBenchmarkTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  private static final String[][] BIF_CALLS = {
+    {"erlang", "length", "1"}, {"erlang", "element", "2"}, {"erlang", "setelement", "3"}, {"erlang", "self", "0"},
+    {"erlang", "spawn_link", "3"}, {"lists", "keyfind", "3"}, {"lists", "reverse", "2"}, {"ets", "lookup", "2"},
+    {"m1", "f0", "1"}, {"erlang", "not_a_bif", "1"},
+  };
+  private static final int REPETITIONS = 1000;
+  private static final int WARM_UPS = 10;
+
+  @SuppressWarnings("UnusedDeclaration")
+  private static int ourSink;
+
+  private ErlangBenchmarkReport myReport;
+  private List<ErlangFile> myFiles;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    if (!ErlangBenchmarkReport.isEnabled()) return;
+    ErlangCorpusGenerator corpus = new ErlangCorpusGenerator().modules(20);
+    myReport = new ErlangBenchmarkReport(corpus);
+    myFiles = ContainerUtil.newArrayList();
+    for (Map.Entry<String, String> file : corpus.generate().entrySet()) {
+      PsiFile psiFile = myFixture.addFileToProject(file.getKey(), file.getValue());
+      if (file.getKey().endsWith(".erl")) {
+        myFiles.add((ErlangFile) psiFile);
+      }
+    }
+    String strings = module("strings")
+      .export("format", 1)
+      .function("format", 1, "io_lib:format(\"~p: ~s~n\", [_Arg0, \"value\"]),\n  \"a \\\"quoted\\\" string\\t\" \"which continues\"")
+      .build();
+    myFiles.add((ErlangFile) myFixture.addFileToProject("src/strings.erl", strings));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    myReport = null;
+    myFiles = null;
+    super.tearDown();
+  }
+
+  /**
+   * The corpus isn't built when benchmarks are disabled, so neither are the benchmarks run.
+   */
+  @Override
+  protected void runTest() throws Throwable {
+    if (ErlangBenchmarkReport.isEnabled()) super.runTest();
+  }
+
+  @Override
+  protected boolean isWriteActionRequired() {
+    return false;
+  }
+
+  public void testIsBif() {
+    measure("micro.bif.isBif", new Benchmark() {
+      @Override
+      public long run() {
+        int found = 0;
+        for (String[] call : BIF_CALLS) {
+          if (ErlangBifTable.isBif(call[0], call[1], Integer.parseInt(call[2]))) found++;
+        }
+        ourSink += found;
+        return BIF_CALLS.length;
+      }
+    });
+  }
+
+  public void testFunctionName() {
+    final List<ErlangFunction> functions = getFunctions();
+    measure("micro.psi.getName", new Benchmark() {
+      @Override
+      public long run() {
+        for (ErlangFunction function : functions) {
+          ourSink += ErlangPsiImplUtil.getName(function).length();
+        }
+        return functions.size();
+      }
+    });
+  }
+
+  public void testFunctionArity() {
+    final List<ErlangFunction> functions = getFunctions();
+    measure("micro.psi.getArity", new Benchmark() {
+      @Override
+      public long run() {
+        for (ErlangFunction function : functions) {
+          ourSink += ErlangPsiImplUtil.getArity(function);
+        }
+        return functions.size();
+      }
+    });
+  }
+
+  public void testFunctionCallName() {
+    final List<ErlangFunctionCallExpression> calls = ContainerUtil.newArrayList();
+    for (ErlangFile file : myFiles) {
+      calls.addAll(PsiTreeUtil.findChildrenOfType(file, ErlangFunctionCallExpression.class));
+    }
+    measure("micro.psi.getCallName", new Benchmark() {
+      @Override
+      public long run() {
+        for (ErlangFunctionCallExpression call : calls) {
+          ourSink += ErlangPsiImplUtil.getName(call).length();
+        }
+        return calls.size();
+      }
+    });
+  }
+
+  public void testFunctionPresentation() {
+    final List<ErlangFunction> functions = getFunctions();
+    measure("micro.psi.createFunctionPresentation", new Benchmark() {
+      @Override
+      public long run() {
+        for (ErlangFunction function : functions) {
+          ourSink += ErlangPsiImplUtil.createFunctionPresentation(function).length();
+        }
+        return functions.size();
+      }
+    });
+  }
+
+  public void testIsExported() {
+    final String[] names = getFunctionNames();
+    measure("micro.file.isExported", new Benchmark() {
+      @Override
+      public long run() {
+        long operations = 0;
+        for (ErlangFile file : myFiles) {
+          for (String name : names) {
+            if (file.isExported(name, 1)) ourSink++;
+            operations++;
+          }
+        }
+        return operations;
+      }
+    });
+  }
+
+  public void testIsNoAutoImport() {
+    measure("micro.file.isNoAutoImport", new Benchmark() {
+      @Override
+      public long run() {
+        for (ErlangFile file : myFiles) {
+          if (file.isNoAutoImport("length", 1)) ourSink++;
+        }
+        return myFiles.size();
+      }
+    });
+  }
+
+  public void testGetFunction() {
+    final String[] names = getFunctionNames();
+    measure("micro.file.getFunction", new Benchmark() {
+      @Override
+      public long run() {
+        long operations = 0;
+        for (ErlangFile file : myFiles) {
+          for (String name : names) {
+            if (file.getFunction(name, 1) != null) ourSink++;
+            operations++;
+          }
+        }
+        return operations;
+      }
+    });
+  }
+
+  public void testStringLiteralEscaper() {
+    final List<ErlangStringLiteral> literals = ContainerUtil.newArrayList();
+    for (ErlangFile file : myFiles) {
+      literals.addAll(PsiTreeUtil.findChildrenOfType(file, ErlangStringLiteral.class));
+    }
+    assertNotEmpty(literals);
+    measure("micro.escaper", new Benchmark() {
+      @Override
+      public long run() {
+        StringBuilder decoded = new StringBuilder();
+        for (ErlangStringLiteral literal : literals) {
+          ErlangStringLiteralEscaper escaper = new ErlangStringLiteralEscaper(literal);
+          TextRange range = escaper.getRelevantTextRange();
+          decoded.setLength(0);
+          escaper.decode(range, decoded);
+          ourSink += escaper.getOffsetInHost(decoded.length() / 2, range);
+        }
+        return literals.size();
+      }
+    });
+  }
+
+  public void testParsingModes() {
+    final PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(new ErlangParserDefinition(), new ErlangLexer(), "ok.");
+    measure("micro.parser.modes", new Benchmark() {
+      @Override
+      public long run() {
+        ErlangParserUtil.enterMode(builder, 0, "GUARD");
+        if (ErlangParserUtil.isModeOn(builder, 0, "GUARD")) ourSink++;
+        ErlangParserUtil.enterMode(builder, 0, "ELSE");
+        if (ErlangParserUtil.isModeOn(builder, 0, "ATOM_ATTRIBUTE")) ourSink++;
+        ErlangParserUtil.exitMode(builder, 0, "ELSE");
+        if (ErlangParserUtil.isModeOff(builder, 0, "ELSE")) ourSink++;
+        ErlangParserUtil.exitMode(builder, 0, "GUARD");
+        return 7;
+      }
+    });
+  }
+
+  @NotNull
+  private static String[] getFunctionNames() {
+    String[] names = new String[10];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = ErlangCorpusGenerator.functionName(i);
+    }
+    return names;
+  }
+
+  @NotNull
+  private List<ErlangFunction> getFunctions() {
+    List<ErlangFunction> functions = ContainerUtil.newArrayList();
+    for (ErlangFile file : myFiles) {
+      functions.addAll(file.getFunctions());
+    }
+    return functions;
+  }
+
+  private void measure(@NotNull String benchmark, @NotNull final Benchmark body) {
+    int attempts = Integer.getInteger("erlang.benchmark.attempts", 10);
+    myReport.measure(benchmark, WARM_UPS, attempts, new Benchmark() {
+      @Override
+      public long run() {
+        return repeat(body);
+      }
+    });
+  }
+
+  private static long repeat(@NotNull Benchmark body) {
+    long operations = 0;
+    for (int i = 0; i < REPETITIONS; i++) {
+      operations += body.run();
+    }
+    return operations;
+  }
+}
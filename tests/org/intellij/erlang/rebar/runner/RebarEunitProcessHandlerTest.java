@@ -0,0 +1,37 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.rebar.runner;
+
+import junit.framework.TestCase;
+
+public class RebarEunitProcessHandlerTest extends TestCase {
+  public void testMessagesOnOwnLinesAreKept() {
+    String text = "##teamcity[testStarted name='a']\n##teamcity[testFinished name='a']\n";
+    assertEquals(text, RebarEunitProcessHandler.separateServiceMessages(text, true));
+  }
+
+  public void testMessageAfterUnterminatedOutput() {
+    assertEquals("Compiled src/a.erl\n##teamcity[testStarted name='a']\n",
+                 RebarEunitProcessHandler.separateServiceMessages("Compiled src/a.erl##teamcity[testStarted name='a']\n", true));
+  }
+
+  public void testMessageAtChunkStartAfterUnterminatedChunk() {
+    assertEquals("\n##teamcity[testStarted name='a']\nout\n##teamcity[testFinished name='a']\n",
+                 RebarEunitProcessHandler.separateServiceMessages(
+                   "##teamcity[testStarted name='a']\nout##teamcity[testFinished name='a']\n", false));
+  }
+}
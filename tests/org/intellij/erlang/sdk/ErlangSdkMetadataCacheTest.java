@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.sdk;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ErlangSdkMetadataCacheTest extends TestCase {
+  private File mySdkHome;
+  private File myCacheFile;
+  private File myOtpVersion;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    mySdkHome = FileUtil.createTempDirectory("erlangSdk", null);
+    assertTrue(new File(mySdkHome, "erts-6.0").mkdir());
+    myOtpVersion = new File(mySdkHome, "releases/17/OTP_VERSION");
+    FileUtil.writeToFile(myOtpVersion, "17.0\n");
+    myCacheFile = new File(FileUtil.createTempDirectory("erlangSdkMetadata", null), "sdkMetadata.dat");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtil.delete(mySdkHome);
+    FileUtil.delete(myCacheFile.getParentFile());
+    super.tearDown();
+  }
+
+  public void testPersistedAcrossInstances() {
+    ErlangSdkMetadataCache cache = new ErlangSdkMetadataCache(myCacheFile);
+    String sdkHome = mySdkHome.getPath();
+    assertNull(cache.getRelease(sdkHome));
+    cache.putRelease(sdkHome, ErlangSdkRelease.V_17_0);
+    cache.putStandardLibraryDir(sdkHome, "/usr/lib/erlang");
+
+    ErlangSdkMetadataCache reloaded = new ErlangSdkMetadataCache(myCacheFile);
+    ErlangSdkRelease release = reloaded.getRelease(sdkHome);
+    assertNotNull(release);
+    assertEquals("17", release.getOtpRelease());
+    assertEquals("6.0", release.getErtsVersion());
+    assertEquals("/usr/lib/erlang", reloaded.getStandardLibraryDir(sdkHome));
+  }
+
+  public void testInvalidatedByUpgrade() throws IOException {
+    ErlangSdkMetadataCache cache = new ErlangSdkMetadataCache(myCacheFile);
+    String sdkHome = mySdkHome.getPath();
+    cache.putRelease(sdkHome, ErlangSdkRelease.V_17_0);
+    assertTrue(myOtpVersion.setLastModified(myOtpVersion.lastModified() - 10000));
+    assertNull(cache.getRelease(sdkHome));
+    assertNull(new ErlangSdkMetadataCache(myCacheFile).getRelease(sdkHome));
+  }
+
+  public void testNewErtsInvalidates() {
+    ErlangSdkMetadataCache cache = new ErlangSdkMetadataCache(myCacheFile);
+    String sdkHome = mySdkHome.getPath();
+    cache.putStandardLibraryDir(sdkHome, "/usr/lib/erlang");
+    assertTrue(new File(mySdkHome, "erts-6.1").mkdir());
+    assertNull(cache.getStandardLibraryDir(sdkHome));
+  }
+}